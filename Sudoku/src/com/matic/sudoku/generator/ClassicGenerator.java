@@ -20,15 +20,18 @@
 
 package com.matic.sudoku.generator;
 
-import com.matic.sudoku.logic.Candidates;
+import java.util.SplittableRandom;
+
 import com.matic.sudoku.solver.BruteForceSolver;
-import com.matic.sudoku.solver.DlxSolver;
+import com.matic.sudoku.solver.CancellationToken;
 import com.matic.sudoku.solver.LogicSolver;
 import com.matic.sudoku.solver.LogicSolver.Grading;
+import com.matic.sudoku.solver.SolverSession;
 import com.matic.sudoku.util.Algorithms;
 
 /**
- * A generator for creating classic (3x3, 9x9 and 16x16) puzzles.
+ * A generator for creating classic (4x4, 9x9, 16x16 and 25x25) puzzles. For 25x25 puzzles, an
+ * array backed solver (SolverType.ARRAY_DLX) keeps the clue removal checks fast.
  * @author vedran
  */
 public class ClassicGenerator extends Generator {
@@ -38,36 +41,69 @@ public class ClassicGenerator extends Generator {
 	 */
 	private static final int REMOVE_WITHOUT_SOLVING_COUNT = 4;
 	private static final int MAX_GRADING_ITER = 5;
+	
+	//Clues are added to a puzzle one at a time per grading iteration for 9x9 boards, and
+	//proportionally more at a time for larger boards. Larger boards also get proportionally
+	//more grading iterations, as their minimal puzzles need many more clues to get easier
+	private static final int CLUES_PER_GRADING_ITER_CELLS = 81;
+	
+	/* How many times the brute force solver may check for cancellation while counting the solutions
+	 * after a clue removal. Checks are made every few hundred search steps, so this bounds the search
+	 * effort. Proving uniqueness can take very long for sparse 25x25 boards, a clue is kept if it's
+	 * removal can't be checked within the budget.
+	 */
+	private static final int REMOVAL_CHECK_BUDGET = 32;
 		
 	private int[] fullBoard;
 	private int[] boardPositions;
-	private int[] solverInput;
+	
+	private final FilledBoardGenerator filledBoardGenerator;
+	private final int cluesPerGradingIter;
+	private final int maxGradingIter;
 	
 	public ClassicGenerator(int dimension, int maxIterations) {
-		super(dimension, maxIterations);			
+		super(dimension, maxIterations);
+		filledBoardGenerator = new FilledBoardGenerator(dimension);
+		cluesPerGradingIter = Math.max(1, grid / CLUES_PER_GRADING_ITER_CELLS);
+		maxGradingIter = MAX_GRADING_ITER * cluesPerGradingIter;
 	}		
 
 	/**
 	 * (non-Javadoc)
-	 * @see com.matic.sudoku.generator.Generator#createNew(com.matic.sudoku.solver.LogicSolver.Grading, com.matic.sudoku.generator.Generator.Symmetry)
+	 * @see com.matic.sudoku.generator.Generator#createNew(com.matic.sudoku.solver.LogicSolver.Grading, com.matic.sudoku.generator.Generator.Symmetry, java.util.SplittableRandom, com.matic.sudoku.solver.CancellationToken)
 	 */
 	@Override
-	public GeneratorResult createNew(Grading grading, Symmetry symmetry) {
+	public GeneratorResult createNew(Grading grading, Symmetry symmetry, SplittableRandom random,
+			CancellationToken cancellationToken) {
+		for(int i = 0; i < maxIterations && !cancellationToken.isCancelled(); ++i) {
+			/* Each attempt uses it's own random number generator, split from the given one. This way
+			 * ParallelGenerator can make the same attempts in parallel and get the same results */
+			final GeneratorResult result = createAttempt(grading, symmetry, random.split(), cancellationToken);
+			if(result != null) {
+				return result;
+			}
+		}
+		return null;
+	}
+	
+	/*
+	 * Make a single generation attempt, taking all random choices from the given generator
+	 */
+	GeneratorResult createAttempt(final Grading grading, final Symmetry symmetry, final SplittableRandom random,
+			final CancellationToken cancellationToken) {
 		initArrays();
-		
-		for(int i = 0; i < maxIterations; ++i) {
-			final int[] filledBoard = generateFilledBoard();
+		try {
+			final int[] filledBoard = generateFilledBoard(random, cancellationToken);
 			if(filledBoard == null) {
-				continue;
-			}
-			final int[] generatedPuzzle = fromFilledBoard(filledBoard, grading, symmetry);
-			if(generatedPuzzle != null) {
-				resetStates();
-				return new GeneratorResult(generatedPuzzle, filledBoard);
+				return null;
 			}
+			final int[] generatedPuzzle = fromFilledBoard(filledBoard, grading, symmetry, random,
+					cancellationToken);
+			return generatedPuzzle != null? new GeneratorResult(generatedPuzzle, filledBoard) : null;
+		}
+		finally {
+			resetStates();
 		}
-		resetStates();
-		return null;
 	}
 	
 	public void setMaxIterations(int maxIterations) {
@@ -80,68 +116,26 @@ public class ClassicGenerator extends Generator {
 		for (int i = 0; i < grid; ++i) {
 			boardPositions[i] = i;
 		}
-		
-		fullBoard = new int[grid];
-		solverInput = new int[grid];
 	}
 	
 	//Make used arrays eligible for garbage collection and reset solver states
 	private void resetStates() {
 		boardPositions = null;
-		solverInput = null;
 		fullBoard = null;
 		
 		logicSolver.setMaxGradingLevel(Grading.DIABOLIC);
 	}
 	
-	private int[] generateFilledBoard() {
-		//Randomize board positions		
-		Algorithms.shuffle(boardPositions);
-		
-		//Init all possible candidates for the empty board 
-		final Candidates candidates = new Candidates(dimension, false);
-		final int[] boardToFill = new int[grid];		
-		
-		// Populate the board with valid, random candidate values
-		int cellsFilled = 0;
-		int currentCell = 0;
-		while (cellsFilled < grid) {
-			currentCell = (++currentCell) % boardPositions.length;
-			final int cellIndex = boardPositions[currentCell];
-			final int rowIndex = getRow(cellIndex);
-			final int columnIndex = getColumn(cellIndex);
-			
-			final int[] possibleEntries = candidates.getAsArray(rowIndex, columnIndex);		
-			Algorithms.shuffle(possibleEntries);
-
-			//Test whether a randomly chosen entry invalidates the puzzle
-			for (int j = 0; j < possibleEntries.length; ++j) {
-				boardToFill[cellIndex] = possibleEntries[j];	
-				
-				System.arraycopy(boardToFill, 0, solverInput, 0, boardToFill.length);
-				final int solverResult = bruteForceSolver.solve(solverInput);
-				
-				if (solverResult == BruteForceSolver.MULTIPLE_SOLUTIONS) {
-					candidates.removeFromAllRegions(possibleEntries[j], rowIndex, columnIndex);
-					candidates.clear(rowIndex, columnIndex);
-					++cellsFilled;
-					break;
-				} else if (solverResult == BruteForceSolver.UNIQUE_SOLUTION) {
-					System.arraycopy(solverInput, 0, fullBoard, 0, solverInput.length);	
-					return fullBoard;
-				}
-				// We just continue to a next candidate if there is no solution using this one
-				boardToFill[cellIndex] = 0;
-			}
-		}			
-		
-		return null;
+	private int[] generateFilledBoard(final SplittableRandom random, final CancellationToken cancellationToken) {
+		fullBoard = filledBoardGenerator.generate(random, cancellationToken);
+		return fullBoard;
 	}
 	
-	private int[] fromFilledBoard(final int[] board, final Grading grading, final Symmetry symmetry) {		
+	private int[] fromFilledBoard(final int[] board, final Grading grading, final Symmetry symmetry,
+			final SplittableRandom random, final CancellationToken cancellationToken) {		
 		final int[] minimalBoard = new int[board.length];
 		System.arraycopy(board, 0, minimalBoard, 0, board.length);
-		Algorithms.shuffle(boardPositions);
+		Algorithms.shuffle(boardPositions, random);
 					
 		final boolean[] processedPositions = new boolean[board.length];
 		final int clueCount = getClueCount(symmetry);
@@ -153,27 +147,45 @@ public class ClassicGenerator extends Generator {
 			updateProcessedPositions(processedPositions, result);
 		}
 		
-		for(; currentBoardPosition < boardPositions.length; ++currentBoardPosition) {
-			//Check if we already removed this position (if symmetry is used for instance)
-			if(processedPositions[boardPositions[currentBoardPosition]]) {
-				continue;
-			}
-			
-			//Try removing digit(s) from cell(s), check still unique solution
-			final int[] result = editClues(symmetry, minimalBoard, boardPositions[currentBoardPosition], true);
-			updateProcessedPositions(processedPositions, result);
-			
-			System.arraycopy(minimalBoard, 0, solverInput, 0, minimalBoard.length);
-			if(bruteForceSolver.solve(solverInput) == DlxSolver.MULTIPLE_SOLUTIONS) {
-				//Can't remove the digit(s), no unique solution. Revert changes.
-				editClues(symmetry, minimalBoard, boardPositions[currentBoardPosition], false);
+		//The solver session keeps the remaining clues set up, only the edited ones are updated
+		final SolverSession session = bruteForceSolver.openSession(minimalBoard);
+		final SearchBudget searchBudget = new SearchBudget(cancellationToken);
+		try {
+			for(; currentBoardPosition < boardPositions.length; ++currentBoardPosition) {
+				//Check if we already removed this position (if symmetry is used for instance)
+				if(processedPositions[boardPositions[currentBoardPosition]]) {
+					continue;
+				}
+				
+				//Try removing digit(s) from cell(s), check still unique solution
+				final int[] result = editClues(symmetry, minimalBoard, boardPositions[currentBoardPosition], true);
+				updateProcessedPositions(processedPositions, result);
+				editSessionClues(session, result, true);
+				
+				searchBudget.reset(REMOVAL_CHECK_BUDGET);
+				final int solverResult = session.countSolutions(searchBudget);
+				if(cancellationToken.isCancelled()) {
+					return null;
+				}
+				if(solverResult == BruteForceSolver.MULTIPLE_SOLUTIONS || solverResult == BruteForceSolver.TIMED_OUT) {
+					//Can't remove the digit(s), no unique solution (or not proven within budget). Revert changes.
+					editClues(symmetry, minimalBoard, boardPositions[currentBoardPosition], false);
+					editSessionClues(session, result, false);
+				}
 			}
 		}
+		finally {
+			session.close();
+		}
 		
-		int[][] logicPuzzleInput = Algorithms.fromIntArrayBoard(minimalBoard, unit);
+		//The logic solver fills in the puzzle it solves, so it is given a copy of the board
+		final int[] logicPuzzleInput = minimalBoard.clone();
 		logicSolver.setMaxGradingLevel(grading);
-		final int solution = logicSolver.solve(logicPuzzleInput);
+		final int solution = logicSolver.solve(logicPuzzleInput, cancellationToken);
 		
+		if(solution == LogicSolver.TIMED_OUT) {
+			return null;
+		}
 		if(solution == LogicSolver.UNIQUE_SOLUTION) {
 			if(logicSolver.getGrading() == grading) {
 				//Generated puzzle matches target grading, return it
@@ -188,20 +200,30 @@ public class ClassicGenerator extends Generator {
 			processedPositions[i] = false;
 		}
 		//Try to make generated puzzle easier/solvable by adding more clues
-		for (int gradingIter = 0, emptyCellIndex = 0; emptyCellIndex < boardPositions.length && gradingIter < MAX_GRADING_ITER; ++emptyCellIndex) {
+		for (int gradingIter = 0, emptyCellIndex = 0, addedClues = 0; emptyCellIndex < boardPositions.length && gradingIter < maxGradingIter; ++emptyCellIndex) {
 			if (minimalBoard[boardPositions[emptyCellIndex]] == 0 && !processedPositions[boardPositions[emptyCellIndex]]) {				
 				final int[] result = editClues(symmetry, minimalBoard, boardPositions[emptyCellIndex], false);
 				for(int i = 0; i < result.length; ++i) {
 					processedPositions[boardPositions[result[i]]] = true;
 				}
+				if(++addedClues % cluesPerGradingIter != 0) {
+					continue;
+				}
 				
-				logicPuzzleInput = Algorithms.fromIntArrayBoard(minimalBoard, unit);				
+				System.arraycopy(minimalBoard, 0, logicPuzzleInput, 0, minimalBoard.length);
 
-				final int solverResult = logicSolver.solve(logicPuzzleInput);
+				final int solverResult = logicSolver.solve(logicPuzzleInput, cancellationToken);
+				if (solverResult == LogicSolver.TIMED_OUT) {
+					return null;
+				}
 				if (solverResult == LogicSolver.UNIQUE_SOLUTION && logicSolver.getGrading() == grading) {
 					// Matching grading, we're done, return the generated puzzle
 					return minimalBoard;
 				}
+				if (solverResult == LogicSolver.UNIQUE_SOLUTION && logicSolver.getGrading().compareTo(grading) < 0) {
+					// Already too easy, more clues won't make it harder
+					return null;
+				}
 				++gradingIter;
 			}			
 		}
@@ -241,6 +263,27 @@ public class ClassicGenerator extends Generator {
 		return positionsToEdit;
 	}
 	
+	/*
+	 * Apply the clue edits made by editClues() to a solver session, skipping duplicate positions
+	 */
+	private void editSessionClues(final SolverSession session, final int[] positions, final boolean removeClue) {
+		for(int i = 0; i < positions.length; ++i) {
+			boolean duplicate = false;
+			for(int j = 0; j < i && !duplicate; ++j) {
+				duplicate = positions[j] == positions[i];
+			}
+			if(duplicate) {
+				continue;
+			}
+			if(removeClue) {
+				session.removeClue(positions[i]);
+			}
+			else {
+				session.addClue(positions[i], fullBoard[positions[i]]);
+			}
+		}
+	}
+	
 	private void updateProcessedPositions(final boolean[] processedPositions, final int[] positions) {
 		for(int i = 0; i < positions.length; ++i) {
 			processedPositions[positions[i]] = true;
@@ -317,4 +360,27 @@ public class ClassicGenerator extends Generator {
 	private int getRow(int arrayPosition) {
 		return arrayPosition / unit;
 	}
-}
\ No newline at end of file
+	
+	/*
+	 * A token cancelling a search after a given number of cancellation checks, or when the
+	 * generation itself gets cancelled
+	 */
+	private static class SearchBudget extends CancellationToken {
+		
+		private final CancellationToken generationToken;
+		private int checksLeft;
+		
+		SearchBudget(final CancellationToken generationToken) {
+			this.generationToken = generationToken;
+		}
+		
+		void reset(final int checks) {
+			checksLeft = checks;
+		}
+		
+		@Override
+		public boolean isCancelled() {
+			return --checksLeft < 0 || generationToken.isCancelled();
+		}
+	}
+}
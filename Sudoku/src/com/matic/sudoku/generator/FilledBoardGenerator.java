@@ -0,0 +1,206 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.generator;
+
+import java.util.SplittableRandom;
+
+import com.matic.sudoku.solver.CancellationToken;
+
+/**
+ * Creates random, completely filled boards with a single randomized backtracking search.
+ * The cell with the fewest candidates is filled next (ties are broken at random), and it's
+ * candidates are tried in random order.
+ *
+ * Row, column and box digits are kept as bit masks, so up to 32 symbols per unit (25x25 boards)
+ * are supported. Searches that get stuck backtracking are restarted with new random choices.
+ *
+ * @author vedran
+ *
+ */
+public class FilledBoardGenerator {
+
+	//Restart a search after this many placements per cell, it is stuck in a dead end
+	private static final int RESTART_PLACEMENTS_PER_CELL = 16;
+
+	//Poll the cancellation token every 256 placements
+	private static final int CANCELLATION_CHECK_MASK = 0xFF;
+
+	private final int dimension;
+	private final int unit;
+	private final int grid;
+	private final int allDigits;
+
+	private final int[] rowDigits;
+	private final int[] columnDigits;
+	private final int[] boxDigits;
+	private final int[] cellBoxes;
+
+	//Search stack: cell filled at each depth and the digits already tried for it
+	private final int[] trailCells;
+	private final int[] trailTried;
+
+	private int[] board;
+
+	/**
+	 * Create a new generator
+	 *
+	 * @param dimension Dimension of the boards to fill
+	 */
+	public FilledBoardGenerator(final int dimension) {
+		this.dimension = dimension;
+		unit = dimension * dimension;
+		grid = unit * unit;
+		allDigits = unit == Integer.SIZE? -1 : (1 << unit) - 1;
+
+		rowDigits = new int[unit];
+		columnDigits = new int[unit];
+		boxDigits = new int[unit];
+		cellBoxes = new int[grid];
+		for(int i = 0; i < grid; ++i) {
+			cellBoxes[i] = i / unit / dimension * dimension + i % unit / dimension;
+		}
+
+		trailCells = new int[grid];
+		trailTried = new int[grid];
+	}
+
+	/**
+	 * Create a new random filled board
+	 *
+	 * @param random Random number generator used for all choices
+	 * @param cancellationToken Token to check for cancellation while searching
+	 * @return A filled board, holding values 1 to unit, or null if cancelled
+	 */
+	public int[] generate(final SplittableRandom random, final CancellationToken cancellationToken) {
+		final int maxPlacements = grid * RESTART_PLACEMENTS_PER_CELL;
+
+		while(!cancellationToken.isCancelled()) {
+			final boolean filled = search(random, cancellationToken, maxPlacements);
+			final int[] filledBoard = board;
+			board = null;
+			if(filled) {
+				return filledBoard;
+			}
+		}
+		return null;
+	}
+
+	/*
+	 * Fill an empty board, giving up after a number of placements. Returns true if the board got filled
+	 */
+	private boolean search(final SplittableRandom random, final CancellationToken cancellationToken, final int maxPlacements) {
+		board = new int[grid];
+		for(int i = 0; i < unit; ++i) {
+			rowDigits[i] = columnDigits[i] = boxDigits[i] = 0;
+		}
+
+		int depth = 0;
+		trailCells[depth] = chooseCell(random);
+		trailTried[depth] = 0;
+
+		for(int placements = 1; depth < grid; ++placements) {
+			if((placements & CANCELLATION_CHECK_MASK) == 0 && cancellationToken.isCancelled()) {
+				return false;
+			}
+			if(placements > maxPlacements) {
+				return false;
+			}
+
+			final int cell = trailCells[depth];
+			final int candidates = getCandidates(cell) & ~trailTried[depth];
+			if(candidates == 0) {
+				//Dead end, undo the previous placement, it's digit is already marked as tried
+				if(depth == 0) {
+					return false;
+				}
+				--depth;
+				setDigit(trailCells[depth], 0);
+				continue;
+			}
+
+			final int digit = chooseDigit(candidates, random);
+			trailTried[depth] |= 1 << (digit - 1);
+			setDigit(cell, digit);
+
+			if(++depth < grid) {
+				trailCells[depth] = chooseCell(random);
+				trailTried[depth] = 0;
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * Find the empty cell with the fewest candidates, picking one at random among equally
+	 * constrained cells
+	 */
+	private int chooseCell(final SplittableRandom random) {
+		int bestCell = -1;
+		int bestCount = Integer.MAX_VALUE;
+		int tieCount = 0;
+
+		for(int cell = 0; cell < grid; ++cell) {
+			if(board[cell] != 0) {
+				continue;
+			}
+			final int count = Integer.bitCount(getCandidates(cell));
+			if(count < bestCount) {
+				bestCell = cell;
+				bestCount = count;
+				tieCount = 1;
+				if(count == 0) {
+					break;
+				}
+			}
+			else if(count == bestCount && random.nextInt(++tieCount) == 0) {
+				bestCell = cell;
+			}
+		}
+		return bestCell;
+	}
+
+	/*
+	 * Pick one of the candidate digits at random
+	 */
+	private int chooseDigit(int candidates, final SplittableRandom random) {
+		for(int skip = random.nextInt(Integer.bitCount(candidates)); skip > 0; --skip) {
+			candidates &= candidates - 1;
+		}
+		return Integer.numberOfTrailingZeros(candidates) + 1;
+	}
+
+	private int getCandidates(final int cell) {
+		return ~(rowDigits[cell / unit] | columnDigits[cell % unit] | boxDigits[cellBoxes[cell]]) & allDigits;
+	}
+
+	/*
+	 * Place a digit in a cell, or clear the cell if digit is 0
+	 */
+	private void setDigit(final int cell, final int digit) {
+		final int previous = board[cell];
+		final int mask = digit == 0? 1 << (previous - 1) : 1 << (digit - 1);
+
+		rowDigits[cell / unit] ^= mask;
+		columnDigits[cell % unit] ^= mask;
+		boxDigits[cellBoxes[cell]] ^= mask;
+		board[cell] = digit;
+	}
+}
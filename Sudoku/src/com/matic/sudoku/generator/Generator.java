@@ -20,8 +20,11 @@
 
 package com.matic.sudoku.generator;
 
+import java.util.SplittableRandom;
+
 import com.matic.sudoku.Resources;
 import com.matic.sudoku.solver.BruteForceSolver;
+import com.matic.sudoku.solver.CancellationToken;
 import com.matic.sudoku.solver.LogicSolver;
 import com.matic.sudoku.solver.LogicSolver.Grading;
 
@@ -62,8 +65,8 @@ public abstract class Generator {
 					+ symmetry + " found");
 		}
 		
-		public static Symmetry getRandom() {
-			return values()[(int)(Math.random() * values().length)];
+		public static Symmetry getRandom(final SplittableRandom random) {
+			return values()[random.nextInt(values().length)];
 		}
 	}
 	
@@ -87,6 +90,10 @@ public abstract class Generator {
 		grid = unit * unit;
 	}
 	
+	public int getDimension() {
+		return dimension;
+	}
+	
 	public void setBruteForceSolver(final BruteForceSolver bruteForceSolver) {
 		this.bruteForceSolver = bruteForceSolver;
 	}
@@ -101,5 +108,50 @@ public abstract class Generator {
 	 * @param symmetry Target board symmetry for generated puzzle 
 	 * @return A new puzzle and it's solution, or null if no such was possible to generate within generator constraints
 	 */
-	public abstract GeneratorResult createNew(final Grading grading, final Symmetry symmetry);
-}
\ No newline at end of file
+	public GeneratorResult createNew(final Grading grading, final Symmetry symmetry) {
+		return createNew(grading, symmetry, CancellationToken.NONE);
+	}
+	
+	/**
+	 * Create a new puzzle with a given difficulty grading and type of symmetry, if any, giving up
+	 * when the cancellation token gets cancelled.
+	 * @param grading Target difficulty grading for generated puzzle
+	 * @param symmetry Target board symmetry for generated puzzle 
+	 * @param cancellationToken Token to check for cancellation while generating
+	 * @return A new puzzle and it's solution, or null if no such was possible to generate within generator
+	 * constraints or the token got cancelled (check cancellationToken.isCancelled() to tell these apart)
+	 */
+	public GeneratorResult createNew(final Grading grading, final Symmetry symmetry,
+			final CancellationToken cancellationToken) {
+		return createNew(grading, symmetry, new SplittableRandom(), cancellationToken);
+	}
+	
+	/**
+	 * Create a new puzzle from a seed. The same seed, grading, symmetry and dimension always give
+	 * the same puzzle (with the same generator settings and brute force solver type), so a puzzle can be
+	 * generated again instead of being stored.
+	 * @param grading Target difficulty grading for generated puzzle
+	 * @param symmetry Target board symmetry for generated puzzle 
+	 * @param seed Seed of the random number generator used while generating
+	 * @param cancellationToken Token to check for cancellation while generating
+	 * @return A new puzzle and it's solution, or null if no such was possible to generate within generator
+	 * constraints or the token got cancelled
+	 */
+	public GeneratorResult createNew(final Grading grading, final Symmetry symmetry, final long seed,
+			final CancellationToken cancellationToken) {
+		return createNew(grading, symmetry, new SplittableRandom(seed), cancellationToken);
+	}
+	
+	/**
+	 * Create a new puzzle, taking all random choices from the given random number generator.
+	 * The generator is used by the calling thread only, parallel work uses generators split from it.
+	 * @param grading Target difficulty grading for generated puzzle
+	 * @param symmetry Target board symmetry for generated puzzle 
+	 * @param random Random number generator to use
+	 * @param cancellationToken Token to check for cancellation while generating
+	 * @return A new puzzle and it's solution, or null if no such was possible to generate within generator
+	 * constraints or the token got cancelled
+	 */
+	public abstract GeneratorResult createNew(final Grading grading, final Symmetry symmetry,
+			final SplittableRandom random, final CancellationToken cancellationToken);
+}
@@ -0,0 +1,234 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.generator;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.matic.sudoku.solver.BruteForceSolver;
+import com.matic.sudoku.solver.CancellationToken;
+import com.matic.sudoku.solver.LogicSolver;
+import com.matic.sudoku.solver.LogicSolver.Grading;
+import com.matic.sudoku.solver.SolverProvider;
+
+/**
+ * A generator running several generation attempts at once on an executor. Each worker
+ * thread makes attempts with it's own ClassicGenerator and solvers, until one of them produces
+ * a puzzle matching the target grading and symmetry. The workers busy with later attempts
+ * are then cancelled, and the result is returned as soon as no earlier attempt can win anymore.
+ *
+ * Each attempt gets it's own random number generator, split from the given one in the same
+ * order as ClassicGenerator splits them. A seed therefore gives the same puzzle as with a
+ * ClassicGenerator using the same brute force solver type, regardless of the thread count.
+ *
+ * The attempts (maxIterations) are shared by all workers, so a failed generation takes about
+ * the same total effort as with a ClassicGenerator, only spread across threads. The solvers
+ * set with setBruteForceSolver() and setLogicSolver() are not used, as the workers borrow
+ * their own from a SolverProvider.
+ *
+ * @author vedran
+ *
+ */
+public class ParallelGenerator extends Generator {
+
+	private final ExecutorService executor;
+	private final SolverProvider solverProvider;
+	private final int threadCount;
+
+	/**
+	 * Create a new parallel generator
+	 *
+	 * @param dimension Dimension of the puzzles to generate
+	 * @param maxIterations How many attempts all workers may make in total before failing
+	 * @param executor Executor to run the workers on. It is not shut down by this class
+	 * @param threadCount How many workers to run at once, usually the executor's thread count
+	 * @param solverProvider Provider of solvers for the workers
+	 */
+	public ParallelGenerator(final int dimension, final int maxIterations, final ExecutorService executor,
+			final int threadCount, final SolverProvider solverProvider) {
+		super(dimension, maxIterations);
+		this.executor = executor;
+		this.threadCount = Math.max(1, threadCount);
+		this.solverProvider = solverProvider;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * @see com.matic.sudoku.generator.Generator#createNew(com.matic.sudoku.solver.LogicSolver.Grading, com.matic.sudoku.generator.Generator.Symmetry, java.util.SplittableRandom, com.matic.sudoku.solver.CancellationToken)
+	 */
+	@Override
+	public GeneratorResult createNew(final Grading grading, final Symmetry symmetry, final SplittableRandom random,
+			final CancellationToken cancellationToken) {
+		//Split the attempt generators in the same order as ClassicGenerator, to get the same results
+		final SplittableRandom[] attemptRandoms = new SplittableRandom[maxIterations];
+		for(int i = 0; i < attemptRandoms.length; ++i) {
+			attemptRandoms[i] = random.split();
+		}
+
+		final Race race = new Race(attemptRandoms);
+		final CompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
+
+		final int workerCount = Math.min(threadCount, maxIterations);
+		for(int i = 0; i < workerCount; ++i) {
+			completionService.submit(new Callable<Void>() {
+				@Override
+				public Void call() {
+					generate(grading, symmetry, race, cancellationToken);
+					return null;
+				}
+			});
+		}
+
+		try {
+			//Wait for all workers, the ones with later attempts than the winning one stop early
+			for(int i = 0; i < workerCount; ++i) {
+				takeCompleted(completionService);
+			}
+		}
+		finally {
+			race.finish();
+		}
+		return race.getResult();
+	}
+
+	/*
+	 * Make generation attempts on the calling thread, until there are no attempts left that could
+	 * still beat the best result found so far
+	 */
+	private void generate(final Grading grading, final Symmetry symmetry, final Race race,
+			final CancellationToken cancellationToken) {
+		final BruteForceSolver workerBruteForceSolver = solverProvider.borrowBruteForceSolver(dimension,
+				BruteForceSolver.MULTIPLE_SOLUTIONS);
+		final LogicSolver workerLogicSolver = solverProvider.borrowLogicSolver(dimension);
+
+		final ClassicGenerator generator = new ClassicGenerator(dimension, 1);
+		generator.setBruteForceSolver(workerBruteForceSolver);
+		generator.setLogicSolver(workerLogicSolver);
+
+		try {
+			for(int attempt = race.nextAttempt(); attempt != -1 && !cancellationToken.isCancelled();
+					attempt = race.nextAttempt()) {
+				final AttemptToken attemptToken = new AttemptToken(race, attempt, cancellationToken);
+				final GeneratorResult result = generator.createAttempt(grading, symmetry,
+						race.getAttemptRandom(attempt), attemptToken);
+				if(result != null) {
+					race.offer(attempt, result);
+				}
+			}
+		}
+		finally {
+			solverProvider.returnBruteForceSolver(workerBruteForceSolver, dimension,
+					BruteForceSolver.MULTIPLE_SOLUTIONS);
+			solverProvider.returnLogicSolver(workerLogicSolver, dimension);
+		}
+	}
+
+	private void takeCompleted(final CompletionService<Void> completionService) {
+		try {
+			completionService.take().get();
+		}
+		catch(final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a puzzle to be generated", e);
+		}
+		catch(final ExecutionException e) {
+			throw new IllegalStateException("Generating a puzzle failed", e.getCause());
+		}
+	}
+
+	/*
+	 * Shared state of the workers generating one puzzle. Attempts are handed out in order, and the
+	 * successful attempt made first in that order wins, no matter which one finished first. The
+	 * result is then the same as if the attempts were made one after another.
+	 */
+	private static class Race {
+
+		private final SplittableRandom[] attemptRandoms;
+		private final AtomicInteger nextAttempt;
+
+		//The earliest successful attempt so far, attempts after it can be cancelled
+		private volatile int winningAttempt;
+		private GeneratorResult result;
+
+		Race(final SplittableRandom[] attemptRandoms) {
+			this.attemptRandoms = attemptRandoms;
+			nextAttempt = new AtomicInteger();
+			winningAttempt = Integer.MAX_VALUE;
+		}
+
+		int nextAttempt() {
+			final int attempt = nextAttempt.getAndIncrement();
+			return attempt < attemptRandoms.length && attempt < winningAttempt? attempt : -1;
+		}
+
+		SplittableRandom getAttemptRandom(final int attempt) {
+			return attemptRandoms[attempt];
+		}
+
+		boolean isBeaten(final int attempt) {
+			return attempt > winningAttempt;
+		}
+
+		synchronized void offer(final int attempt, final GeneratorResult attemptResult) {
+			if(attempt < winningAttempt) {
+				winningAttempt = attempt;
+				result = attemptResult;
+			}
+		}
+
+		/*
+		 * Stop any workers still running, when the caller stops waiting for them
+		 */
+		synchronized void finish() {
+			winningAttempt = -1;
+		}
+
+		synchronized GeneratorResult getResult() {
+			return result;
+		}
+	}
+
+	/*
+	 * A token cancelled when an earlier attempt succeeds, or when the generation itself gets cancelled
+	 */
+	private static class AttemptToken extends CancellationToken {
+
+		private final Race race;
+		private final int attempt;
+		private final CancellationToken generationToken;
+
+		AttemptToken(final Race race, final int attempt, final CancellationToken generationToken) {
+			this.race = race;
+			this.attempt = attempt;
+			this.generationToken = generationToken;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return race.isBeaten(attempt) || generationToken.isCancelled();
+		}
+	}
+}
@@ -0,0 +1,75 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.generator;
+
+import java.util.SplittableRandom;
+
+import com.matic.sudoku.solver.CancellationToken;
+import com.matic.sudoku.solver.LogicSolver.Grading;
+
+/**
+ * A generator handing out puzzles from a PuzzlePool, and generating them with another
+ * generator only when the pool has no matching puzzle ready. Seeded requests bypass the pool.
+ * @author vedran
+ *
+ */
+public class PooledGenerator extends Generator {
+
+	private final Generator generator;
+	private final PuzzlePool puzzlePool;
+
+	/**
+	 * Create a new pooled generator
+	 *
+	 * @param generator Generator to use when the pool is empty, also determines the puzzle dimension
+	 * @param puzzlePool Pool to take the puzzles from
+	 */
+	public PooledGenerator(final Generator generator, final PuzzlePool puzzlePool) {
+		super(generator.getDimension(), generator.maxIterations);
+		this.generator = generator;
+		this.puzzlePool = puzzlePool;
+	}
+
+	/**
+	 * Take a puzzle from the pool, or generate a new one if none is ready. 
+	 * @see com.matic.sudoku.generator.Generator#createNew(com.matic.sudoku.solver.LogicSolver.Grading, com.matic.sudoku.generator.Generator.Symmetry, com.matic.sudoku.solver.CancellationToken)
+	 */
+	@Override
+	public GeneratorResult createNew(final Grading grading, final Symmetry symmetry,
+			final CancellationToken cancellationToken) {
+		final GeneratorResult pooledResult = puzzlePool.take(dimension, grading, symmetry);
+		if(pooledResult != null) {
+			return pooledResult;
+		}
+		return generator.createNew(grading, symmetry, cancellationToken);
+	}
+
+	/**
+	 * Puzzles requested with a given random number generator (or seed) are always generated, so
+	 * that they can be reproduced.
+	 * @see com.matic.sudoku.generator.Generator#createNew(com.matic.sudoku.solver.LogicSolver.Grading, com.matic.sudoku.generator.Generator.Symmetry, java.util.SplittableRandom, com.matic.sudoku.solver.CancellationToken)
+	 */
+	@Override
+	public GeneratorResult createNew(final Grading grading, final Symmetry symmetry, final SplittableRandom random,
+			final CancellationToken cancellationToken) {
+		return generator.createNew(grading, symmetry, random, cancellationToken);
+	}
+}
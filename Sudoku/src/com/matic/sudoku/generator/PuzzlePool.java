@@ -0,0 +1,377 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.generator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+
+import com.matic.sudoku.generator.Generator.Symmetry;
+import com.matic.sudoku.solver.BruteForceSolver;
+import com.matic.sudoku.solver.CancellationToken;
+import com.matic.sudoku.solver.LogicSolver.Grading;
+import com.matic.sudoku.solver.SolverProvider;
+
+/**
+ * A pool of ready-made puzzles, so that a new puzzle can be handed out without waiting for the
+ * generator. Puzzles are kept in buckets, one per (dimension, grading, symmetry) combination,
+ * each holding up to a fixed number of puzzles. Background threads with the lowest priority
+ * generate new puzzles for the buckets that are not full.
+ *
+ * A bucket is created when a puzzle is first requested from it, or in advance with keepFilled().
+ * If a bucket's puzzles repeatedly fail to generate (for instance diabolic puzzles with a strict
+ * symmetry), it is left alone until a puzzle is requested from it again.
+ *
+ * If a storage file is set, the pooled puzzles are read from it on creation and written to it
+ * by save(), so they outlive the application. All methods are thread-safe.
+ *
+ * @author vedran
+ *
+ */
+public class PuzzlePool {
+
+	public static final int DEFAULT_BUCKET_CAPACITY = 3;
+
+	//How many generations in a row may fail for a bucket, before it's refilling is paused
+	private static final int MAX_FAILED_GENERATIONS = 3;
+
+	private static final String REFILL_THREAD_NAME = "PuzzlePool-refill-";
+
+	private static final String TEMP_FILE_PREFIX = "pool";
+	private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+	private final Map<BucketKey, Bucket> buckets;
+	private final SolverProvider solverProvider;
+	private final File storageFile;
+	private final int bucketCapacity;
+
+	private final CancellationToken shutdownToken;
+
+	/**
+	 * Create a pool and start it's refill threads
+	 *
+	 * @param solverProvider Provider of solvers for the refill threads
+	 * @param bucketCapacity How many puzzles to keep in each bucket
+	 * @param threadCount How many refill threads to start
+	 * @param storageFile File to read pooled puzzles from and save them to, or null to keep them in memory only
+	 */
+	public PuzzlePool(final SolverProvider solverProvider, final int bucketCapacity, final int threadCount,
+			final File storageFile) {
+		if(bucketCapacity < 1) {
+			throw new IllegalArgumentException("Bucket capacity must be positive: " + bucketCapacity);
+		}
+		this.solverProvider = solverProvider;
+		this.bucketCapacity = bucketCapacity;
+		this.storageFile = storageFile;
+
+		buckets = new LinkedHashMap<>();
+		shutdownToken = new CancellationToken();
+
+		load();
+
+		for(int i = 0; i < threadCount; ++i) {
+			final Thread refillThread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					refill();
+				}
+			}, REFILL_THREAD_NAME + i);
+			refillThread.setDaemon(true);
+			refillThread.setPriority(Thread.MIN_PRIORITY);
+			refillThread.start();
+		}
+	}
+
+	/**
+	 * Take a puzzle from the pool. The taken puzzle gets replaced in the background.
+	 *
+	 * @param dimension Dimension of the puzzle
+	 * @param grading Grading of the puzzle
+	 * @param symmetry Symmetry of the puzzle
+	 * @return A pooled puzzle and it's solution, or null if the bucket is empty
+	 */
+	public synchronized GeneratorResult take(final int dimension, final Grading grading, final Symmetry symmetry) {
+		final Bucket bucket = getBucket(new BucketKey(dimension, grading, symmetry));
+		bucket.failedGenerations = 0;
+		notifyAll();
+		return bucket.results.poll();
+	}
+
+	/**
+	 * Keep the buckets for all gradings and symmetries of a dimension filled, before any puzzles
+	 * are requested from them
+	 *
+	 * @param dimension Puzzle dimension
+	 */
+	public synchronized void keepFilled(final int dimension) {
+		for(final Grading grading : Grading.values()) {
+			for(final Symmetry symmetry : Symmetry.values()) {
+				getBucket(new BucketKey(dimension, grading, symmetry));
+			}
+		}
+		notifyAll();
+	}
+
+	/**
+	 * Get the number of puzzles ready in a bucket
+	 *
+	 * @param dimension Puzzle dimension
+	 * @param grading Puzzle grading
+	 * @param symmetry Puzzle symmetry
+	 * @return Number of pooled puzzles
+	 */
+	public synchronized int size(final int dimension, final Grading grading, final Symmetry symmetry) {
+		final Bucket bucket = buckets.get(new BucketKey(dimension, grading, symmetry));
+		return bucket == null? 0 : bucket.results.size();
+	}
+
+	/**
+	 * Write all pooled puzzles to the storage file, if there is one
+	 */
+	public synchronized void save() {
+		if(storageFile == null) {
+			return;
+		}
+		final File storageDirectory = storageFile.getAbsoluteFile().getParentFile();
+		if(storageDirectory != null && !(storageDirectory.isDirectory() || storageDirectory.mkdirs())) {
+			return;
+		}
+		//Write to a file next to the storage file first, so that an interrupted save keeps the old pool
+		File tempFile = null;
+		try {
+			tempFile = File.createTempFile(TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX, storageDirectory);
+			try(final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(tempFile)))) {
+				for(final Map.Entry<BucketKey, Bucket> entry : buckets.entrySet()) {
+					final BucketKey key = entry.getKey();
+					for(final GeneratorResult result : entry.getValue().results) {
+						output.writeBoolean(true);
+						output.writeInt(key.dimension);
+						output.writeUTF(key.grading.name());
+						output.writeUTF(key.symmetry.name());
+						writeValues(output, result.getGeneratedPuzzle());
+						writeValues(output, result.getPuzzleSolution());
+					}
+				}
+				output.writeBoolean(false);
+			}
+			Files.move(tempFile.toPath(), storageFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch(final IOException e) {
+			//Saving is best effort, lost puzzles are simply generated again
+		}
+		finally {
+			if(tempFile != null) {
+				tempFile.delete();
+			}
+		}
+	}
+
+	/**
+	 * Stop the refill threads. Puzzles already in the pool can still be taken.
+	 */
+	public void shutdown() {
+		shutdownToken.cancel();
+		synchronized(this) {
+			notifyAll();
+		}
+	}
+
+	private void load() {
+		if(storageFile == null || !storageFile.isFile()) {
+			return;
+		}
+		try(final DataInputStream input = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(storageFile)))) {
+			while(input.readBoolean()) {
+				final int dimension = input.readInt();
+				final Grading grading = Grading.valueOf(input.readUTF());
+				final Symmetry symmetry = Symmetry.valueOf(input.readUTF());
+				final int[] puzzle = readValues(input);
+				final int[] solution = readValues(input);
+
+				final int grid = dimension * dimension * dimension * dimension;
+				if(puzzle.length != grid || solution.length != grid) {
+					throw new IOException("Invalid puzzle size for dimension " + dimension);
+				}
+				final Bucket bucket = getBucket(new BucketKey(dimension, grading, symmetry));
+				if(bucket.results.size() < bucketCapacity) {
+					bucket.results.add(new GeneratorResult(puzzle, solution));
+				}
+			}
+		}
+		catch(final IOException | IllegalArgumentException e) {
+			//A damaged storage file only loses the puzzles following the damage
+		}
+	}
+
+	/*
+	 * Generate puzzles for the buckets that are not full, until shut down
+	 */
+	private void refill() {
+		final Map<Integer, ClassicGenerator> generators = new HashMap<>();
+		final SplittableRandom random = new SplittableRandom();
+
+		while(!shutdownToken.isCancelled()) {
+			final Bucket bucket = awaitBucketToFill();
+			if(bucket == null) {
+				return;
+			}
+
+			final BucketKey key = bucket.key;
+			ClassicGenerator generator = generators.get(key.dimension);
+			if(generator == null) {
+				generator = new ClassicGenerator(key.dimension, Generator.MAX_ITERATIONS);
+				generator.setBruteForceSolver(solverProvider.getBruteForceSolver(key.dimension,
+						BruteForceSolver.MULTIPLE_SOLUTIONS));
+				generator.setLogicSolver(solverProvider.getLogicSolver(key.dimension));
+				generators.put(key.dimension, generator);
+			}
+
+			final GeneratorResult result = generator.createNew(key.grading, key.symmetry, random, shutdownToken);
+			synchronized(this) {
+				--bucket.pendingGenerations;
+				if(result != null) {
+					bucket.results.add(result);
+					bucket.failedGenerations = 0;
+				}
+				else if(!shutdownToken.isCancelled()) {
+					++bucket.failedGenerations;
+				}
+			}
+		}
+	}
+
+	/*
+	 * Wait for a bucket needing more puzzles, and reserve a generation for it. The emptiest
+	 * bucket gets filled first. Returns null when shut down.
+	 */
+	private synchronized Bucket awaitBucketToFill() {
+		while(!shutdownToken.isCancelled()) {
+			Bucket emptiest = null;
+			for(final Bucket bucket : buckets.values()) {
+				final int filled = bucket.results.size() + bucket.pendingGenerations;
+				if(filled < bucketCapacity && bucket.failedGenerations < MAX_FAILED_GENERATIONS &&
+						(emptiest == null || filled < emptiest.results.size() + emptiest.pendingGenerations)) {
+					emptiest = bucket;
+				}
+			}
+			if(emptiest != null) {
+				++emptiest.pendingGenerations;
+				return emptiest;
+			}
+			try {
+				wait();
+			}
+			catch(final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			}
+		}
+		return null;
+	}
+
+	private Bucket getBucket(final BucketKey key) {
+		Bucket bucket = buckets.get(key);
+		if(bucket == null) {
+			bucket = new Bucket(key);
+			buckets.put(key, bucket);
+		}
+		return bucket;
+	}
+
+	private static void writeValues(final DataOutputStream output, final int[] values) throws IOException {
+		output.writeInt(values.length);
+		for(final int value : values) {
+			output.writeByte(value);
+		}
+	}
+
+	private static int[] readValues(final DataInputStream input) throws IOException {
+		final int length = input.readInt();
+		if(length < 0) {
+			throw new IOException("Invalid length: " + length);
+		}
+		final int[] values = new int[length];
+		for(int i = 0; i < length; ++i) {
+			values[i] = input.readByte();
+		}
+		return values;
+	}
+
+	/*
+	 * Pooled puzzles of one bucket, along with it's refilling state
+	 */
+	private static class Bucket {
+		final BucketKey key;
+		final Queue<GeneratorResult> results;
+
+		int pendingGenerations;
+		int failedGenerations;
+
+		Bucket(final BucketKey key) {
+			this.key = key;
+			results = new ArrayDeque<>();
+		}
+	}
+
+	private static class BucketKey {
+		final int dimension;
+		final Grading grading;
+		final Symmetry symmetry;
+
+		BucketKey(final int dimension, final Grading grading, final Symmetry symmetry) {
+			this.dimension = dimension;
+			this.grading = grading;
+			this.symmetry = symmetry;
+		}
+
+		@Override
+		public int hashCode() {
+			return (dimension * 31 + grading.hashCode()) * 31 + symmetry.hashCode();
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if(this == obj) {
+				return true;
+			}
+			if(!(obj instanceof BucketKey)) {
+				return false;
+			}
+			final BucketKey other = (BucketKey)obj;
+			return dimension == other.dimension && grading == other.grading && symmetry == other.symmetry;
+		}
+	}
+}
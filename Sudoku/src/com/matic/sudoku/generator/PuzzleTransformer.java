@@ -0,0 +1,197 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.generator;
+
+import java.util.SplittableRandom;
+
+import com.matic.sudoku.generator.Generator.Symmetry;
+import com.matic.sudoku.util.Algorithms;
+
+/**
+ * Turns a puzzle into an equivalent one, that looks different but has the same solving path.
+ * A random combination of the following transformations is applied:
+ * 1. Relabelling the digits
+ * 2. Reordering the rows inside each band, and the bands themselves
+ * 3. Reordering the columns inside each stack, and the stacks themselves
+ * 4. Transposing the board (which together with 2. and 3. covers rotations and reflections)
+ *
+ * When the puzzle has a symmetry, only the transformations keeping that symmetry are used.
+ * For instance, with a vertical mirroring symmetry, column i and column (unit - 1 - i) are always
+ * moved to mirrored positions, and the board is never transposed.
+ *
+ * @author vedran
+ *
+ */
+public class PuzzleTransformer {
+
+	private final int dimension;
+	private final int unit;
+	private final int grid;
+
+	/**
+	 * Create a new transformer
+	 *
+	 * @param dimension Dimension of the puzzles to transform
+	 */
+	public PuzzleTransformer(final int dimension) {
+		this.dimension = dimension;
+		unit = dimension * dimension;
+		grid = unit * unit;
+	}
+
+	/**
+	 * Create a random puzzle equivalent to the given one, along with it's solution
+	 *
+	 * @param source Puzzle and solution to transform, left unchanged
+	 * @param symmetry Symmetry of the source puzzle to keep, or Symmetry.NONE
+	 * @param random Random number generator used for choosing the transformations
+	 * @return A new, equivalent puzzle and it's solution
+	 */
+	public GeneratorResult transform(final GeneratorResult source, final Symmetry symmetry, final SplittableRandom random) {
+		final int[] digits = new int[unit + 1];
+		final int[] shuffledDigits = createIdentity(unit);
+		Algorithms.shuffle(shuffledDigits, random);
+		for(int i = 0; i < unit; ++i) {
+			digits[i + 1] = shuffledDigits[i] + 1;
+		}
+
+		final int[] rows;
+		final int[] columns;
+		boolean transpose = random.nextBoolean();
+
+		switch(symmetry) {
+		case ROTATIONAL_180:
+			rows = createLinePermutation(random, true);
+			columns = createLinePermutation(random, true);
+			break;
+		case VERTICAL_MIRRORING:
+			//Transposing would turn the vertical mirroring into a horizontal one
+			rows = createLinePermutation(random, false);
+			columns = createLinePermutation(random, true);
+			transpose = false;
+			break;
+		case HORIZONTAL_MIRRORING:
+			rows = createLinePermutation(random, true);
+			columns = createLinePermutation(random, false);
+			transpose = false;
+			break;
+		case DIAGONAL:
+			//Cell (r, c) mirrors (c, r), so rows and columns must move the same way
+			rows = createLinePermutation(random, false);
+			columns = rows;
+			break;
+		case ANTI_DIAGONAL:
+			//Cell (r, c) mirrors (unit - 1 - c, unit - 1 - r), so columns move as the mirrored rows
+			rows = createLinePermutation(random, false);
+			columns = new int[unit];
+			for(int i = 0; i < unit; ++i) {
+				columns[i] = unit - 1 - rows[unit - 1 - i];
+			}
+			break;
+		default:
+			rows = createLinePermutation(random, false);
+			columns = createLinePermutation(random, false);
+			break;
+		}
+
+		final int[] puzzle = new int[grid];
+		final int[] solution = new int[grid];
+		final int[] sourcePuzzle = source.getGeneratedPuzzle();
+		final int[] sourceSolution = source.getPuzzleSolution();
+
+		for(int row = 0; row < unit; ++row) {
+			for(int column = 0; column < unit; ++column) {
+				final int sourceCell = row * unit + column;
+				final int targetCell = transpose? columns[column] * unit + rows[row] :
+					rows[row] * unit + columns[column];
+				puzzle[targetCell] = digits[sourcePuzzle[sourceCell]];
+				solution[targetCell] = digits[sourceSolution[sourceCell]];
+			}
+		}
+		return new GeneratorResult(puzzle, solution);
+	}
+
+	/*
+	 * Create a random permutation of rows (or columns) keeping the bands (or stacks) together.
+	 * Line i is moved to position permutation[i]. If mirrored is set, lines i and (unit - 1 - i)
+	 * are moved to mirrored positions.
+	 */
+	private int[] createLinePermutation(final SplittableRandom random, final boolean mirrored) {
+		final int[] bands = createPermutation(dimension, random, mirrored);
+		final int[][] bandLines = new int[dimension][];
+		for(int band = 0; band < dimension; ++band) {
+			final int mirrorBand = dimension - 1 - band;
+			if(mirrored && mirrorBand < band) {
+				//Mirrored bands keep the mirrored line order of their counterparts
+				bandLines[band] = new int[dimension];
+				for(int i = 0; i < dimension; ++i) {
+					bandLines[band][i] = dimension - 1 - bandLines[mirrorBand][dimension - 1 - i];
+				}
+			}
+			else {
+				bandLines[band] = createPermutation(dimension, random, mirrored && mirrorBand == band);
+			}
+		}
+
+		final int[] permutation = new int[unit];
+		for(int line = 0; line < unit; ++line) {
+			final int band = line / dimension;
+			permutation[line] = bands[band] * dimension + bandLines[band][line % dimension];
+		}
+		return permutation;
+	}
+
+	/*
+	 * Create a random permutation of 0 to size - 1. If mirrored is set, elements i and
+	 * (size - 1 - i) are moved to mirrored positions.
+	 */
+	private static int[] createPermutation(final int size, final SplittableRandom random, final boolean mirrored) {
+		if(!mirrored) {
+			final int[] permutation = createIdentity(size);
+			Algorithms.shuffle(permutation, random);
+			return permutation;
+		}
+
+		//Move the mirrored pairs of elements as a whole, a middle element always stays in place
+		final int pairCount = size / 2;
+		final int[] pairs = createIdentity(pairCount);
+		Algorithms.shuffle(pairs, random);
+
+		final int[] permutation = new int[size];
+		if(size % 2 != 0) {
+			permutation[pairCount] = pairCount;
+		}
+		for(int i = 0; i < pairCount; ++i) {
+			final boolean swapped = random.nextBoolean();
+			permutation[i] = swapped? size - 1 - pairs[i] : pairs[i];
+			permutation[size - 1 - i] = size - 1 - permutation[i];
+		}
+		return permutation;
+	}
+
+	private static int[] createIdentity(final int size) {
+		final int[] identity = new int[size];
+		for(int i = 0; i < size; ++i) {
+			identity[i] = i;
+		}
+		return identity;
+	}
+}
@@ -0,0 +1,174 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.generator;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import com.matic.sudoku.solver.CancellationToken;
+import com.matic.sudoku.solver.LogicSolver;
+import com.matic.sudoku.solver.LogicSolver.Grading;
+
+/**
+ * A generator for bulk generation, handing out several equivalent variants of each generated
+ * puzzle. A puzzle is generated with another generator once per given number of requests for
+ * the same grading and symmetry, and the requests in between get randomly transformed copies of it
+ * (see PuzzleTransformer).
+ *
+ * The variants share the seed's solving path, but the grading depends a bit on the order in
+ * which the logic solver finds the steps, and about one variant in ten grades differently.
+ * If a logic solver is set, each variant is graded and only variants matching the target grading
+ * are handed out. Grading the variants takes a few milliseconds each, the transformations only
+ * take microseconds. The logic solver must not be used by other threads at the same time.
+ *
+ * @author vedran
+ *
+ */
+public class TransformingGenerator extends Generator {
+
+	//How many variants to try before giving up on a seed, when they fail the grading check
+	private static final int MAX_TRANSFORM_ATTEMPTS = 8;
+
+	private final Generator generator;
+	private final PuzzleTransformer puzzleTransformer;
+	private final int variantsPerPuzzle;
+
+	private final Map<Integer, Seed> seeds;
+
+	/**
+	 * Create a new transforming generator
+	 *
+	 * @param generator Generator to create the seed puzzles with, also determines the puzzle dimension
+	 * @param variantsPerPuzzle How many puzzles to hand out per generated seed puzzle
+	 */
+	public TransformingGenerator(final Generator generator, final int variantsPerPuzzle) {
+		super(generator.getDimension(), generator.maxIterations);
+		if(variantsPerPuzzle < 1) {
+			throw new IllegalArgumentException("Variant count must be positive: " + variantsPerPuzzle);
+		}
+		this.generator = generator;
+		this.variantsPerPuzzle = variantsPerPuzzle;
+
+		puzzleTransformer = new PuzzleTransformer(dimension);
+		seeds = new HashMap<>();
+	}
+
+	/**
+	 * Seed puzzles are requested without a random number generator as well, so that a wrapped
+	 * PooledGenerator can take them from it's pool.
+	 * @see com.matic.sudoku.generator.Generator#createNew(com.matic.sudoku.solver.LogicSolver.Grading, com.matic.sudoku.generator.Generator.Symmetry, com.matic.sudoku.solver.CancellationToken)
+	 */
+	@Override
+	public GeneratorResult createNew(final Grading grading, final Symmetry symmetry,
+			final CancellationToken cancellationToken) {
+		return createNew(grading, symmetry, new SplittableRandom(), false, cancellationToken);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 * @see com.matic.sudoku.generator.Generator#createNew(com.matic.sudoku.solver.LogicSolver.Grading, com.matic.sudoku.generator.Generator.Symmetry, java.util.SplittableRandom, com.matic.sudoku.solver.CancellationToken)
+	 */
+	@Override
+	public GeneratorResult createNew(final Grading grading, final Symmetry symmetry, final SplittableRandom random,
+			final CancellationToken cancellationToken) {
+		return createNew(grading, symmetry, random, true, cancellationToken);
+	}
+
+	/*
+	 * Hand out a variant of a seed puzzle. The seed puzzles are generated with the given random number
+	 * generator only if the caller provided it, otherwise the wrapped generator chooses it's own
+	 */
+	private GeneratorResult createNew(final Grading grading, final Symmetry symmetry, final SplittableRandom random,
+			final boolean isSeeded, final CancellationToken cancellationToken) {
+		if(variantsPerPuzzle == 1) {
+			return isSeeded? generator.createNew(grading, symmetry, random, cancellationToken) :
+				generator.createNew(grading, symmetry, cancellationToken);
+		}
+		
+		final Integer key = grading.ordinal() * Symmetry.values().length + symmetry.ordinal();
+		Seed seed;
+		synchronized(seeds) {
+			seed = seeds.get(key);
+			if(seed != null && ++seed.variantCount == variantsPerPuzzle) {
+				seeds.remove(key);
+			}
+		}
+
+		if(seed != null) {
+			final GeneratorResult variant = createVariant(seed, grading, symmetry, random);
+			if(variant != null) {
+				return variant;
+			}
+		}
+		
+		final GeneratorResult result = isSeeded? generator.createNew(grading, symmetry, random.split(),
+				cancellationToken) : generator.createNew(grading, symmetry, cancellationToken);
+		if(result == null) {
+			return null;
+		}
+		seed = new Seed(result);
+		synchronized(seeds) {
+			seeds.put(key, seed);
+		}
+		//The seed itself is never handed out, so callers are free to modify the returned arrays
+		final GeneratorResult variant = createVariant(seed, grading, symmetry, random);
+		return variant != null? variant : copy(result);
+	}
+	
+	/*
+	 * Transform a seed, until the variant matches the target grading (if checked). Returns null
+	 * if no matching variant was found
+	 */
+	private GeneratorResult createVariant(final Seed seed, final Grading grading, final Symmetry symmetry,
+			final SplittableRandom random) {
+		for(int i = 0; i < MAX_TRANSFORM_ATTEMPTS; ++i) {
+			final GeneratorResult variant = puzzleTransformer.transform(seed.result, symmetry, random);
+			if(logicSolver == null) {
+				return variant;
+			}
+			//Same rule as ClassicGenerator, which only grades up to the target grading
+			logicSolver.setMaxGradingLevel(grading);
+			if(logicSolver.solve(variant.getGeneratedPuzzle().clone()) == LogicSolver.UNIQUE_SOLUTION &&
+					logicSolver.getGrading() == grading) {
+				return variant;
+			}
+		}
+		return null;
+	}
+	
+	private static GeneratorResult copy(final GeneratorResult result) {
+		return new GeneratorResult(result.getGeneratedPuzzle().clone(), result.getPuzzleSolution().clone());
+	}
+
+	/*
+	 * A generated puzzle, and how many puzzles were handed out from it so far
+	 */
+	private static class Seed {
+		final GeneratorResult result;
+		int variantCount;
+
+		Seed(final GeneratorResult result) {
+			this.result = result;
+			variantCount = 1;
+		}
+	}
+}
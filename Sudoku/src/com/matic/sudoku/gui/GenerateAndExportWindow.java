@@ -81,6 +81,7 @@ public final class GenerateAndExportWindow implements ActionListener, PropertyCh
 	private final JCheckBox showNumberingCheck;
 	
 	private final JComboBox<String> puzzlesPerPageCombo;
+	private final JComboBox<String> variantsPerPuzzleCombo;
 	private final JComboBox<String> puzzleOrderCombo;
 	private final JComboBox<String> puzzleTypeCombo;
 	private final JComboBox<String> symbolsCombo;
@@ -126,6 +127,8 @@ public final class GenerateAndExportWindow implements ActionListener, PropertyCh
 				Resources.getTranslation("generate.difficulty"), RANDOM_STRING});
 		puzzlesPerPageCombo = new JComboBox<>(new String[] {"4", "2", "1"});
 		puzzlesPerPageCombo.setSelectedIndex(0);
+		variantsPerPuzzleCombo = new JComboBox<>(new String[] {"1", "2", "4", "8"});
+		variantsPerPuzzleCombo.setSelectedIndex(0);
 		
 		difficultyCombo = new CheckBoxCombo<>(" " + Resources.getTranslation(
 				"export.select_label"));		
@@ -212,6 +215,8 @@ public final class GenerateAndExportWindow implements ActionListener, PropertyCh
 		exporterParameters.setShowNumbering(showNumberingCheck.isSelected());
 		exporterParameters.setPuzzlesPerPage(Integer.parseInt(
 				puzzlesPerPageCombo.getItemAt(puzzlesPerPageCombo.getSelectedIndex())));
+		exporterParameters.setVariantsPerPuzzle(Integer.parseInt(
+				variantsPerPuzzleCombo.getItemAt(variantsPerPuzzleCombo.getSelectedIndex())));
 		
 		return exporterParameters;
 	}
@@ -278,6 +283,7 @@ public final class GenerateAndExportWindow implements ActionListener, PropertyCh
 		difficultyCombo.setEnabled(enabled);
 		symbolsCombo.setEnabled(enabled);	
 		puzzleOrderCombo.setEnabled(enabled);
+		variantsPerPuzzleCombo.setEnabled(enabled);
 		showDifficultiesCheck.setEnabled(enabled);
 	}
 	
@@ -395,7 +401,7 @@ public final class GenerateAndExportWindow implements ActionListener, PropertyCh
 	}
 	
 	private JPanel buildGeneratorOptionsPanel() {
-		final JPanel panel = new JPanel(new GridLayout(5, 2, 5, 5));
+		final JPanel panel = new JPanel(new GridLayout(6, 2, 5, 5));
 		
 		panel.add(new JLabel(Resources.getTranslation("export.grid_type") + ": ",
 				SwingConstants.RIGHT));
@@ -403,6 +409,9 @@ public final class GenerateAndExportWindow implements ActionListener, PropertyCh
 		panel.add(new JLabel(Resources.getTranslation("export.puzzle_count") + ": ",
 				SwingConstants.RIGHT));
 		panel.add(puzzleCountField);
+		panel.add(new JLabel(Resources.getTranslation("export.variants_per_puzzle") + ": ",
+				SwingConstants.RIGHT));
+		panel.add(variantsPerPuzzleCombo);
 		panel.add(new JLabel(Resources.getTranslation("symbols.label") + ": ",
 				SwingConstants.RIGHT));
 		panel.add(symbolsCombo);
@@ -760,19 +760,6 @@ public class Board extends JPanel {
 		}
 	}
 
-	// Convert the board entries to an int matrix, as this is the input format the logic solver requires
-	public int[][] toIntMatrix() {		
-		final int[][] puzzle = new int[unit][unit];
-
-		for(int i = 0; i < unit; ++i) {
-			for(int j = 0; j < unit; ++j) {
-				puzzle[j][i] = cells[j][i].getDigit();
-			}
-		}
-
-		return puzzle;
-	}
-	
 	/*
 	 * Check if a symbol type is possible to use for this. For larger
 	 * boards (dimension > 3), there are simply not enough numbers to use, so
@@ -59,9 +59,8 @@ import com.matic.sudoku.io.export.ExportManager;
 import com.matic.sudoku.io.export.ExporterParameters;
 import com.matic.sudoku.io.export.ImageExporter;
 import com.matic.sudoku.io.export.PdfExporter;
-import com.matic.sudoku.solver.LogicSolver;
+import com.matic.sudoku.solver.CachedSolution;
 import com.matic.sudoku.solver.LogicSolver.Grading;
-import com.matic.sudoku.util.Algorithms;
 
 /**
  * An action handler for Game-menu options
@@ -177,13 +176,11 @@ class GameMenuActionHandler implements ActionListener, FileOpenHandler, ExportMa
 				}
 			}
 			
-			final int logicSolverSolution = mainWindow.logicSolver.solve(
-					Algorithms.fromIntArrayBoard(puzzle, mainWindow.unit));
-			if(logicSolverSolution == LogicSolver.UNIQUE_SOLUTION) {
-				final Grading grading = mainWindow.logicSolver.getGrading();
-				mainWindow.bruteForceSolver.solve(puzzle);
-				mainWindow.puzzle.setSolution(puzzle);
-				mainWindow.puzzle.setGrading(grading);
+			final CachedSolution cachedSolution = mainWindow.solutionCache.solve(puzzle, 
+					mainWindow.bruteForceSolver, mainWindow.logicSolver);
+			if(cachedSolution.getGrading() != null) {
+				mainWindow.puzzle.setSolution(cachedSolution.getSolution());
+				mainWindow.puzzle.setGrading(cachedSolution.getGrading());
 				//Enable aid tools only if puzzle has not already been solved
 				if(mainWindow.puzzle.checkSolution()) {
 					mainWindow.handlePuzzleSolved(false);
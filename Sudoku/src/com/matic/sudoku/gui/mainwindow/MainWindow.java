@@ -36,6 +36,7 @@ import java.io.File;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.swing.Action;
 import javax.swing.ActionMap;
@@ -59,8 +60,10 @@ import javax.swing.KeyStroke;
 import com.matic.sudoku.Resources;
 import com.matic.sudoku.Sudoku;
 import com.matic.sudoku.action.LanguageActionHandler;
-import com.matic.sudoku.generator.ClassicGenerator;
 import com.matic.sudoku.generator.Generator;
+import com.matic.sudoku.generator.ParallelGenerator;
+import com.matic.sudoku.generator.PooledGenerator;
+import com.matic.sudoku.generator.PuzzlePool;
 import com.matic.sudoku.gui.Puzzle;
 import com.matic.sudoku.gui.board.Board;
 import com.matic.sudoku.gui.board.Board.SymbolType;
@@ -71,8 +74,10 @@ import com.matic.sudoku.gui.undo.UndoableCellValueEntryAction;
 import com.matic.sudoku.gui.undo.UndoableColorEntryAction;
 import com.matic.sudoku.gui.undo.UndoablePencilmarkEntryAction;
 import com.matic.sudoku.solver.BruteForceSolver;
-import com.matic.sudoku.solver.DlxSolver;
 import com.matic.sudoku.solver.LogicSolver;
+import com.matic.sudoku.solver.SolutionCache;
+import com.matic.sudoku.solver.SolverProvider;
+import com.matic.sudoku.solver.SolverType;
 
 /**
  * The main window of the application.
@@ -130,14 +135,32 @@ public final class MainWindow {
 		
 	private static final int BOARD_DIMENSION_3x3 = 3;
 	
+	//Brute force solver implementation used by the game and the generator
+	private static final SolverType BRUTE_FORCE_SOLVER_TYPE = SolverType.BITBOARD;
+	
 	//How many times we let the generator try to create a new puzzle before failing
 	private static final int MAX_GENERATOR_ITERATIONS = 100;
 	
+	//The generator races this many attempts at once, the first one to succeed wins
+	private static final int GENERATOR_THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+	
+	//How many background threads keep the pool of ready-made puzzles filled
+	private static final int PUZZLE_POOL_THREAD_COUNT = 1;
+	
 	//How many recent file items can be displayed in recent file menu
 	private static final int RECENT_FILE_LIST_MAX_SIZE = 5;
+	
+	//Where solving and grading results, evicted from memory or left on exit, are stored
+	private static final String SOLUTION_CACHE_DIRECTORY = ".sudonkey" + File.separator + "cache";
+	
+	//Where ready-made puzzles, left in the pool on exit, are stored
+	private static final String PUZZLE_POOL_FILE = ".sudonkey" + File.separator + "puzzles.pool";
+	private static final String USER_HOME_PROPERTY_NAME = "user.home";
 			
 	protected final BruteForceSolver bruteForceSolver;
 	protected final LogicSolver logicSolver;
+	protected final SolutionCache solutionCache;
+	protected final PuzzlePool puzzlePool;
 	protected final Generator generator;
 	
 	protected final JCheckBoxMenuItem showSymbolsToolBarMenuItem;
@@ -191,12 +214,20 @@ public final class MainWindow {
 		
 		puzzle = new Puzzle(board);
 				
-		bruteForceSolver = new DlxSolver(BOARD_DIMENSION_3x3, BruteForceSolver.MULTIPLE_SOLUTIONS);
+		bruteForceSolver = BRUTE_FORCE_SOLVER_TYPE.create(BOARD_DIMENSION_3x3, BruteForceSolver.MULTIPLE_SOLUTIONS);
 		logicSolver = new LogicSolver(BOARD_DIMENSION_3x3);
+		solutionCache = new SolutionCache(SolutionCache.DEFAULT_MAX_ENTRIES, 
+				new File(System.getProperty(USER_HOME_PROPERTY_NAME), SOLUTION_CACHE_DIRECTORY));
+		
+		//Pool threads are daemon threads, so the pools don't need to be shut down on exit
+		final SolverProvider solverProvider = new SolverProvider(BRUTE_FORCE_SOLVER_TYPE);
+		puzzlePool = new PuzzlePool(solverProvider, PuzzlePool.DEFAULT_BUCKET_CAPACITY, PUZZLE_POOL_THREAD_COUNT,
+				new File(System.getProperty(USER_HOME_PROPERTY_NAME), PUZZLE_POOL_FILE));
+		puzzlePool.keepFilled(BOARD_DIMENSION_3x3);
 		
-		generator = new ClassicGenerator(BOARD_DIMENSION_3x3, MAX_GENERATOR_ITERATIONS);
-		generator.setBruteForceSolver(bruteForceSolver);
-		generator.setLogicSolver(logicSolver);
+		//New puzzles are taken from the pool, and only generated when none is ready
+		generator = new PooledGenerator(new ParallelGenerator(BOARD_DIMENSION_3x3, MAX_GENERATOR_ITERATIONS,
+				new ForkJoinPool(GENERATOR_THREAD_COUNT), GENERATOR_THREAD_COUNT, solverProvider), puzzlePool);
 		
 		showSymbolsToolBarMenuItem = new JCheckBoxMenuItem(Resources.getTranslation(SHOW_SYMBOLS_TOOLBAR_STRING));
 		showSymbolsToolBarMenuItem.setActionCommand(SHOW_SYMBOLS_TOOLBAR_STRING);
@@ -859,6 +890,8 @@ public final class MainWindow {
 			if(!handledByPlayer) {
 				return;
 			}
+			solutionCache.flush();
+			puzzlePool.save();
 			System.exit(0);
 		}
 		else {
@@ -868,6 +901,8 @@ public final class MainWindow {
 			final int choice = JOptionPane.showConfirmDialog(window, message,
 					title, JOptionPane.YES_NO_OPTION);
 			if(choice == JOptionPane.YES_OPTION) {
+				solutionCache.flush();
+				puzzlePool.save();
 				System.exit(0);			
 			}
 		}
@@ -32,8 +32,8 @@ import com.matic.sudoku.gui.undo.UndoableCellValueEntryAction;
 import com.matic.sudoku.logic.Candidates;
 import com.matic.sudoku.logic.strategy.LogicStrategy;
 import com.matic.sudoku.solver.BruteForceSolver;
+import com.matic.sudoku.solver.CachedSolution;
 import com.matic.sudoku.solver.Hint;
-import com.matic.sudoku.solver.LogicSolver;
 import com.matic.sudoku.solver.LogicSolver.Grading;
 import com.matic.sudoku.solver.Pair;
 
@@ -89,7 +89,7 @@ class PuzzleMenuActionHandler implements ActionListener {
 	 * Update all unfilled cells with possible candidate values for the correct puzzle
 	 */
 	protected void updatePencilmarks() {		
-		final Candidates candidates = new Candidates(mainWindow.dimension, board.toIntMatrix());
+		final Candidates candidates = new Candidates(mainWindow.dimension, board.getPuzzle());
 		board.setPencilmarks(candidates);		
 	}
 	
@@ -184,7 +184,7 @@ class PuzzleMenuActionHandler implements ActionListener {
 					JOptionPane.INFORMATION_MESSAGE);
 			return;
 		}
-		final Hint hint = mainWindow.logicSolver.getHint(board.toIntMatrix());
+		final Hint hint = mainWindow.logicSolver.getHint(board.getPuzzle());
 		
 		System.out.println("\n" + hint.getDescription());
 		System.out.println("\nThis technique is called " + hint.getStrategyName());		
@@ -201,7 +201,7 @@ class PuzzleMenuActionHandler implements ActionListener {
 					JOptionPane.INFORMATION_MESSAGE);
 			return;
 		}
-		final LogicStrategy strategy = mainWindow.logicSolver.nextStep(board.toIntMatrix(), true);
+		final LogicStrategy strategy = mainWindow.logicSolver.nextStep(board.getPuzzle(), true);
 		if(strategy == null) {
 			//Current puzzle is invalid, no clues could be found, display message
 			JOptionPane.showMessageDialog(mainWindow.window, 
@@ -266,7 +266,9 @@ class PuzzleMenuActionHandler implements ActionListener {
 		final String title = Resources.getTranslation("puzzle.verify.title");
 		
 		final int[] enteredPuzzle = board.getPuzzle();
-		final int bruteForceSolution = mainWindow.bruteForceSolver.solve(enteredPuzzle);
+		final CachedSolution cachedSolution = mainWindow.solutionCache.solve(enteredPuzzle, 
+				mainWindow.bruteForceSolver, mainWindow.logicSolver);
+		final int bruteForceSolution = cachedSolution.getSolutionCount();
 		
 		//TODO: Separate NO_SOLUTION and INVALID_PUZZLE cases (implement boolean LogicSolver.validate(int[] puzzle)
 		//First check if there is a unique solution
@@ -278,11 +280,10 @@ class PuzzleMenuActionHandler implements ActionListener {
 			return;
 		}
 		
-		//Then try to find a logic solution within (logic) solver constraints
-		final int[][] puzzleAsMatrix = board.toIntMatrix();			
-		final int logicSolverSolution = mainWindow.logicSolver.solve(puzzleAsMatrix);
+		//Then check whether a logic solution was found within (logic) solver constraints
+		final Grading grading = cachedSolution.getGrading();
 			
-		if(logicSolverSolution != LogicSolver.UNIQUE_SOLUTION) {
+		if(grading == null) {
 			//No logic solution could be found, notify player
 			switch(bruteForceSolution) {
 			case BruteForceSolver.UNIQUE_SOLUTION:
@@ -291,7 +292,7 @@ class PuzzleMenuActionHandler implements ActionListener {
 						Resources.getTranslation("puzzle.solution.bruteforce.message"), 
 						title, JOptionPane.YES_NO_OPTION);
 				if(showSolutionChoice == JOptionPane.YES_OPTION) {
-					board.setPuzzle(enteredPuzzle);
+					board.setPuzzle(cachedSolution.getSolution());
 				}
 				break;
 			case BruteForceSolver.MULTIPLE_SOLUTIONS:
@@ -304,7 +305,6 @@ class PuzzleMenuActionHandler implements ActionListener {
 			return;
 		}
 		
-		final Grading grading = mainWindow.logicSolver.getGrading();
 		final String message = Resources.getTranslation("puzzle.unique.solution.message") + 
 				": " + grading.getDescription();
 		
@@ -317,7 +317,7 @@ class PuzzleMenuActionHandler implements ActionListener {
 			board.recordGivens();
 			mainWindow.setPuzzleVerified(true);
 			
-			mainWindow.puzzle.setSolution(enteredPuzzle);
+			mainWindow.puzzle.setSolution(cachedSolution.getSolution());
 			mainWindow.puzzle.setGrading(grading);
 		}
 	}
@@ -332,14 +332,14 @@ class PuzzleMenuActionHandler implements ActionListener {
 			return;
 		}
 		
-		final int[] enteredPuzzle = board.getPuzzle();
-		final int solutionCount = mainWindow.bruteForceSolver.solve(enteredPuzzle);
+		final CachedSolution cachedSolution = mainWindow.solutionCache.solve(board.getPuzzle(), 
+				mainWindow.bruteForceSolver, mainWindow.logicSolver);
 		
-		switch(solutionCount) {
+		switch(cachedSolution.getSolutionCount()) {
 		case BruteForceSolver.UNIQUE_SOLUTION:
 			//Remove all incorrect board entry flags				
 			board.setBoardFontColor(Board.NORMAL_FONT_COLOR);
-			board.setPuzzle(enteredPuzzle);
+			board.setPuzzle(cachedSolution.getSolution());
 			
 			//Update puzzle modification states
 			mainWindow.gameMenuActionListener.onPuzzleStateChanged(true);
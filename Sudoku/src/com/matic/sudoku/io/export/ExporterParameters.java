@@ -57,6 +57,9 @@ public class ExporterParameters {
 	private int puzzlesPerPage;
 	private int puzzleCount;
 	
+	//How many equivalent variants to print of each generated puzzle, 1 to print only distinct puzzles
+	private int variantsPerPuzzle = 1;
+	
 	public Ordering getOrdering() {
 		return ordering;
 	}
@@ -136,4 +139,12 @@ public class ExporterParameters {
 	public void setPuzzleCount(final int puzzleCount) {
 		this.puzzleCount = puzzleCount;
 	}
+	
+	public int getVariantsPerPuzzle() {
+		return variantsPerPuzzle;
+	}
+	
+	public void setVariantsPerPuzzle(final int variantsPerPuzzle) {
+		this.variantsPerPuzzle = variantsPerPuzzle;
+	}
 }
\ No newline at end of file
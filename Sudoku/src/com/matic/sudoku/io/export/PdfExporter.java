@@ -31,6 +31,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import javax.swing.filechooser.FileFilter;
 import javax.swing.filechooser.FileNameExtensionFilter;
@@ -46,11 +47,14 @@ import com.matic.sudoku.Sudoku;
 import com.matic.sudoku.generator.Generator;
 import com.matic.sudoku.generator.Generator.Symmetry;
 import com.matic.sudoku.generator.GeneratorResult;
+import com.matic.sudoku.generator.TransformingGenerator;
 import com.matic.sudoku.gui.board.Board;
 import com.matic.sudoku.gui.board.Board.SymbolType;
 import com.matic.sudoku.io.FileSaveFilter;
 import com.matic.sudoku.io.export.ExporterParameters.ExportMode;
 import com.matic.sudoku.io.export.ExporterParameters.Ordering;
+import com.matic.sudoku.solver.CancellationToken;
+import com.matic.sudoku.solver.LogicSolver;
 import com.matic.sudoku.solver.LogicSolver.Grading;
 
 /**
@@ -69,6 +73,9 @@ public class PdfExporter implements FileSaveFilter {
 	private static final double LEGEND_FONT_PERCENTAGE = 0.1;
 	private static final int DOCUMENT_MARGIN = 20;
 	
+	//Give up exporting if a single puzzle can't be generated within this time
+	private static final long PUZZLE_GENERATION_TIMEOUT_SECONDS = 60;
+	
 	private static final char LEGEND_DOT = '.';
 	private static final char SEPARATOR = ' ';
 	
@@ -172,6 +179,13 @@ public class PdfExporter implements FileSaveFilter {
 		int puzzlesPrinted = 0;
 		
 		final PdfContentByte contentByte = pdfWriter.getDirectContent();
+		
+		//Print runs may reuse each generated puzzle, as transformed variants of it
+		Generator batchGenerator = generator;
+		if(exporterParameters.getVariantsPerPuzzle() > 1) {
+			batchGenerator = new TransformingGenerator(generator, exporterParameters.getVariantsPerPuzzle());
+			batchGenerator.setLogicSolver(new LogicSolver(boardDimension));
+		}
 		final Grading[] gradings = getGeneratedPuzzleGradings(exporterParameters.getGradings(), 
 				exporterParameters.getOrdering(), exporterParameters.getPuzzleCount());
 		
@@ -185,7 +199,7 @@ public class PdfExporter implements FileSaveFilter {
 					final Grading selectedGrading = exportMode == ExportMode.BLANK? null : 
 						gradings[puzzlesPrinted];
 					if(exportMode == ExportMode.GENERATE_NEW) {						
-						board.setPuzzle(generatePuzzle(generator, getSymmetry(exporterParameters.getSymmetries()), 
+						board.setPuzzle(generatePuzzle(batchGenerator, getSymmetry(exporterParameters.getSymmetries()), 
 								selectedGrading));
 						board.recordGivens();
 					}
@@ -275,12 +289,17 @@ public class PdfExporter implements FileSaveFilter {
 	}
 	
 	private int[] generatePuzzle(final Generator generator, final Symmetry symmetry, 
-			final Grading grading) {
+			final Grading grading) throws IOException {
+		final CancellationToken cancellationToken = new CancellationToken(
+				PUZZLE_GENERATION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
 		GeneratorResult result = null;
 		do {
-			result = generator.createNew(grading, symmetry);
-		} while(result == null);
+			result = generator.createNew(grading, symmetry, cancellationToken);
+		} while(result == null && !cancellationToken.isCancelled());
 		
+		if(result == null) {
+			throw new IOException("Timed out while generating a puzzle with grading " + grading);
+		}
 		return result.getGeneratedPuzzle();
 	}
 }
@@ -20,21 +20,62 @@
 
 package com.matic.sudoku.logic;
 
-import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Set;
 
+import com.matic.sudoku.util.Peers;
+
 /**
  * This class holds possible candidate values while applying logic strategy methods to solve
  * a puzzle. It also allows for candidate modification, such as filtering out a candidate from a region.
  * 
+ * Candidates of each cell are kept as a bit mask (bit k - 1 set for candidate k), all cells
+ * in a single flat array indexed by rowIndex * unit + colIndex.
+ * 
+ * An index of the positions where each candidate is still possible is kept for every
+ * row, column and box, and is updated along with the cell masks on each change. This lets
+ * the strategies find a candidate's cells within a house with a single read.
+ * 
+ * Each change also increments a modification count, which is recorded as the version of the
+ * changed cell's row, column and box and of the changed candidates. Strategies compare these
+ * versions to skip the houses they already checked, if the houses haven't changed since.
+ * Clearing a cell, which is done when it's value gets entered, is also recorded separately as
+ * the placement version of the cell's houses.
+ * 
  * @author vedran
  *
  */
 public class Candidates {
 	
-	private final BitSet[][] candidates;
+	private final int[] candidates;
+	
+	//Positions of each candidate per house, indexed by (candidate - 1) * unit + house
+	private final int[] rowPositions;
+	private final int[] columnPositions;
+	private final int[] boxPositions;
+	
+	//Modification count, and it's value at the last change of each house and candidate
+	private int version;
+	private final int[] rowVersions;
+	private final int[] columnVersions;
+	private final int[] boxVersions;
+	private final int[] candidateVersions;
+	private final int[] rowPlacementVersions;
+	private final int[] columnPlacementVersions;
+	private final int[] boxPlacementVersions;
+	
+	//Shared peer table of this dimension, indexed by cell
+	private final int[][] peers;
+	
+	//Box index and the cell's bit within that box, for each cell
+	private final int[] cellBox;
+	private final int[] cellBoxBit;
+	
 	private final int dimension;
+	private final int unit;
+	
+	//A mask with a bit set for each of the possible candidates
+	private final int allCandidates;
 
 	/**
 	 * Init candidates for an empty puzzle/board
@@ -42,8 +83,7 @@ public class Candidates {
 	 * @param dimension Puzzle dimension
 	 */
 	public Candidates(int dimension, boolean empty) {
-		this.dimension = dimension;
-		candidates = new BitSet[dimension * dimension][dimension * dimension];
+		this(dimension);
 		init(null, empty);		
 	}
 
@@ -51,15 +91,50 @@ public class Candidates {
 	 * Init candidates for a given puzzle
 	 * 
 	 * @param dimension Puzzle dimension
-	 * @param puzzle The puzzle
+	 * @param puzzle The puzzle, with the cell at (rowIndex, colIndex) at index rowIndex * unit + colIndex
 	 */
-	public Candidates(int dimension, final int[][] puzzle) {
-		this.dimension = dimension;
-		candidates = new BitSet[puzzle.length][puzzle.length];
+	public Candidates(int dimension, final int[] puzzle) {
+		this(dimension);
 		init(puzzle, false);
 		filter(puzzle);
 	}
 	
+	private Candidates(int dimension) {
+		this.dimension = dimension;
+		unit = dimension * dimension;
+		
+		if(unit > Integer.SIZE) {
+			throw new IllegalArgumentException("Unsupported puzzle dimension: " + dimension);
+		}
+		
+		allCandidates = unit == Integer.SIZE? -1 : (1 << unit) - 1;
+		candidates = new int[unit * unit];
+		
+		rowPositions = new int[unit * unit];
+		columnPositions = new int[unit * unit];
+		boxPositions = new int[unit * unit];
+		
+		version = 0;
+		rowVersions = new int[unit];
+		columnVersions = new int[unit];
+		boxVersions = new int[unit];
+		candidateVersions = new int[unit];
+		rowPlacementVersions = new int[unit];
+		columnPlacementVersions = new int[unit];
+		boxPlacementVersions = new int[unit];
+		
+		peers = Peers.getPeers(dimension);
+		
+		cellBox = new int[unit * unit];
+		cellBoxBit = new int[unit * unit];
+		for(int i = 0; i < unit; ++i) {
+			for(int j = 0; j < unit; ++j) {
+				cellBox[i * unit + j] = i / dimension * dimension + j / dimension;
+				cellBoxBit[i * unit + j] = 1 << (i % dimension * dimension + j % dimension);
+			}
+		}
+	}
+	
 	/**
 	 * Get candidate count for a cell
 	 * 
@@ -68,7 +143,7 @@ public class Candidates {
 	 * @return
 	 */
 	public int count(int rowIndex, int colIndex) {
-		return candidates[colIndex][rowIndex].cardinality();
+		return Integer.bitCount(candidates[rowIndex * unit + colIndex]);
 	}
 	
 	/**
@@ -80,7 +155,7 @@ public class Candidates {
 	 * @return
 	 */
 	public boolean contains(int candidate, int rowIndex, int colIndex) {		
-		return candidates[colIndex][rowIndex].get(candidate - 1);
+		return (candidates[rowIndex * unit + colIndex] & (getBit(candidate))) != 0;
 	}
 	
 	/**
@@ -90,7 +165,17 @@ public class Candidates {
 	 * @param colIndex Cell's column index
 	 */
 	public void clear(int rowIndex, int colIndex) {
-		candidates[colIndex][rowIndex].clear();
+		final int cell = rowIndex * unit + colIndex;
+		if(candidates[cell] != 0) {
+			setMask(cell, 0);
+		}
+		else {
+			//Nothing to remove, but the cell is usually being filled, which changes it's houses
+			updateVersions(cell);
+		}
+		rowPlacementVersions[rowIndex] = version;
+		columnPlacementVersions[colIndex] = version;
+		boxPlacementVersions[cellBox[cell]] = version;
 	}
 	
 	/**
@@ -101,7 +186,8 @@ public class Candidates {
 	 * @param colIndex Cell's column index
 	 */
 	public void add(int candidate, int rowIndex, int colIndex) {
-		candidates[colIndex][rowIndex].set(candidate - 1);
+		final int cell = rowIndex * unit + colIndex;
+		setMask(cell, candidates[cell] | getBit(candidate));
 	}
 	
 	/**
@@ -112,8 +198,8 @@ public class Candidates {
 	 * @return Candidate, if any exist, or -1 if none available
 	 */
 	public int getFirst(int rowIndex, int colIndex) {
-		final int result = candidates[colIndex][rowIndex].nextSetBit(0);
-		return result != -1? result + 1 : -1;				
+		final int mask = candidates[rowIndex * unit + colIndex];
+		return mask != 0? Integer.numberOfTrailingZeros(mask) + 1 : -1;				
 	}
 	
 	/**
@@ -125,10 +211,12 @@ public class Candidates {
 	 * @return Whether the candidate was removed
 	 */
 	public boolean remove(int candidate, int rowIndex, int colIndex) {
-		final boolean result = candidates[colIndex][rowIndex].get(candidate - 1);
+		final int cell = rowIndex * unit + colIndex;
+		final int bit = getBit(candidate);
+		final boolean result = (candidates[cell] & bit) != 0;
 		
 		if(result) {
-			candidates[colIndex][rowIndex].clear(candidate - 1);
+			setMask(cell, candidates[cell] & ~bit);
 		}
 		
 		return result;
@@ -142,18 +230,15 @@ public class Candidates {
 	 * @return Whether the candidate was removed
 	 */
 	public boolean removeFromRow(int candidate, int rowIndex) {		
-		boolean removed = false;
+		final int bit = getBit(candidate);
+		final int positions = rowPositions[(candidate - 1) * unit + rowIndex];
 		
-		for(int i = 0; i < candidates.length; ++i) {
-			// Check only empty cells, those have candidates
-			if(candidates[i][rowIndex].cardinality() > 0) {
-				final boolean exists = candidates[i][rowIndex].get(candidate - 1);
-				removed |= exists;
-				candidates[i][rowIndex].clear(candidate - 1);
-			}
+		for(int mask = positions; mask != 0; mask &= mask - 1) {
+			final int cell = rowIndex * unit + Integer.numberOfTrailingZeros(mask);
+			setMask(cell, candidates[cell] & ~bit);
 		}
 		
-		return removed;
+		return positions != 0;
 	}
 	
 	/**
@@ -164,18 +249,15 @@ public class Candidates {
 	 * @return Whether the candidate was removed
 	 */
 	public boolean removeFromColumn(int candidate, int colIndex) {			
-		boolean removed = false;
+		final int bit = getBit(candidate);
+		final int positions = columnPositions[(candidate - 1) * unit + colIndex];
 		
-		for(int i = 0; i < candidates.length; ++i) {
-			// Check only empty cells, those have candidates
-			if(candidates[colIndex][i].cardinality() > 0) {
-				final boolean exists = candidates[colIndex][i].get(candidate - 1);
-				removed |= exists;
-				candidates[colIndex][i].clear(candidate - 1);
-			}
+		for(int mask = positions; mask != 0; mask &= mask - 1) {
+			final int cell = Integer.numberOfTrailingZeros(mask) * unit + colIndex;
+			setMask(cell, candidates[cell] & ~bit);
 		}
 		
-		return removed;
+		return positions != 0;
 	}
 	
 	/**
@@ -187,22 +269,16 @@ public class Candidates {
 	 * @return Whether the candidate was removed
 	 */
 	public boolean removeFromBox(int candidate, int boxX, int boxY) {		
-		final int boxYLimit = boxY + dimension;
-		final int boxXLimit = boxX + dimension;
-		boolean removed = false;
-
-		for(int i = boxY; i < boxYLimit; ++i) {
-			for(int j = boxX; j < boxXLimit; ++j) {
-				// Check only empty cells, those have candidates
-				if(candidates[j][i].cardinality() > 0) {
-					final boolean exists = candidates[j][i].get(candidate - 1);
-					removed |= exists;
-					candidates[j][i].clear(candidate - 1);
-				}
-			}
+		final int bit = getBit(candidate);
+		final int positions = boxPositions[(candidate - 1) * unit + getBoxIndex(boxX, boxY)];
+		
+		for(int mask = positions; mask != 0; mask &= mask - 1) {
+			final int boxCell = Integer.numberOfTrailingZeros(mask);
+			final int cell = (boxY + boxCell / dimension) * unit + boxX + boxCell % dimension;
+			setMask(cell, candidates[cell] & ~bit);
 		}
 		
-		return removed;
+		return positions != 0;
 	}
 	
 	/**
@@ -216,17 +292,157 @@ public class Candidates {
 	 */
 	public boolean removeFromAllRegions(final int candidate, final int rowIndex,
 			final int colIndex) {
+		final int bit = getBit(candidate);
+		final int cell = rowIndex * unit + colIndex;
 		boolean removed = false;
-
-		removed |= removeFromRow(candidate, rowIndex);
-		removed |= removeFromColumn(candidate, colIndex);
-
-		final int boxStartX = colIndex / dimension * dimension;
-		final int boxStartY = rowIndex / dimension * dimension;
-
-		removed |= removeFromBox(candidate, boxStartX, boxStartY);
+		
+		if((candidates[cell] & bit) != 0) {
+			setMask(cell, candidates[cell] & ~bit);
+			removed = true;
+		}
+		
+		//A single pass over the cell's peers, visiting each of them only once
+		for(final int peer : peers[cell]) {
+			if((candidates[peer] & bit) != 0) {
+				setMask(peer, candidates[peer] & ~bit);
+				removed = true;
+			}
+		}
 
 		return removed;
+	}	
+	/**
+	 * Get the candidate mask of a cell, with bit (candidate - 1) set for each of it's candidates
+	 * 
+	 * @param rowIndex Cell's row index
+	 * @param colIndex Cell's column index
+	 * @return Cell's candidate mask
+	 */
+	public int getMask(int rowIndex, int colIndex) {
+		return candidates[rowIndex * unit + colIndex];
+	}
+	
+	/**
+	 * Get the cells of a row containing a candidate
+	 * 
+	 * @param candidate Candidate to look for
+	 * @param rowIndex Row index
+	 * @return A mask with bit colIndex set for each cell containing the candidate
+	 */
+	public int getRowMask(int candidate, int rowIndex) {
+		getBit(candidate);
+		return rowPositions[(candidate - 1) * unit + rowIndex];
+	}
+	
+	/**
+	 * Get the cells of a column containing a candidate
+	 * 
+	 * @param candidate Candidate to look for
+	 * @param colIndex Column index
+	 * @return A mask with bit rowIndex set for each cell containing the candidate
+	 */
+	public int getColumnMask(int candidate, int colIndex) {
+		getBit(candidate);
+		return columnPositions[(candidate - 1) * unit + colIndex];
+	}
+	
+	/**
+	 * Get the cells of a box containing a candidate
+	 * 
+	 * @param candidate Candidate to look for
+	 * @param boxX The x coordinate of the box
+	 * @param boxY The y coordinate of the box
+	 * @return A mask with a bit set for each cell containing the candidate, cells of the box
+	 * being numbered row by row (bit (i - boxY) * dimension + (j - boxX) for cell at row i, column j)
+	 */
+	public int getBoxMask(int candidate, int boxX, int boxY) {
+		getBit(candidate);
+		return boxPositions[(candidate - 1) * unit + getBoxIndex(boxX, boxY)];
+	}
+	
+	/**
+	 * Get the modification count of these candidates, increased on each change
+	 * 
+	 * @return Modification count
+	 */
+	public int getVersion() {
+		return version;
+	}
+	
+	/**
+	 * Get a row's version, the modification count at the time the row last changed
+	 * 
+	 * @param rowIndex Row index
+	 * @return Row version
+	 */
+	public int getRowVersion(int rowIndex) {
+		return rowVersions[rowIndex];
+	}
+	
+	/**
+	 * Get a column's version, the modification count at the time the column last changed
+	 * 
+	 * @param colIndex Column index
+	 * @return Column version
+	 */
+	public int getColumnVersion(int colIndex) {
+		return columnVersions[colIndex];
+	}
+	
+	/**
+	 * Get a box's version, the modification count at the time the box last changed
+	 * 
+	 * @param boxX The x coordinate of the box
+	 * @param boxY The y coordinate of the box
+	 * @return Box version
+	 */
+	public int getBoxVersion(int boxX, int boxY) {
+		return boxVersions[getBoxIndex(boxX, boxY)];
+	}
+	
+	/**
+	 * Get a candidate's version, the modification count at the time the candidate was last
+	 * added to or removed from any cell
+	 * 
+	 * @param candidate Candidate
+	 * @return Candidate version
+	 */
+	public int getCandidateVersion(int candidate) {
+		return candidateVersions[candidate - 1];
+	}
+	
+	/**
+	 * Get a row's placement version, the modification count at the time a cell of the row
+	 * was last cleared
+	 * 
+	 * @param rowIndex Row index
+	 * @return Row placement version
+	 */
+	public int getRowPlacementVersion(int rowIndex) {
+		return rowPlacementVersions[rowIndex];
+	}
+	
+	/**
+	 * Get a column's placement version, the modification count at the time a cell of the column
+	 * was last cleared
+	 * 
+	 * @param colIndex Column index
+	 * @return Column placement version
+	 */
+	public int getColumnPlacementVersion(int colIndex) {
+		return columnPlacementVersions[colIndex];
+	}
+	
+	/**
+	 * Get a box's placement version, the modification count at the time a cell of the box
+	 * was last cleared
+	 * 
+	 * @param boxX The x coordinate of the box
+	 * @param boxY The y coordinate of the box
+	 * @return Box placement version
+	 */
+	public int getBoxPlacementVersion(int boxX, int boxY) {
+		return boxPlacementVersions[getBoxIndex(boxX, boxY)];
 	}
 	
 	/**
@@ -239,9 +455,9 @@ public class Candidates {
 	public Set<Integer> getAsSet(int rowIndex, int colIndex) {
 		final Set<Integer> result = new HashSet<>();
 		
-		for (int i = candidates[colIndex][rowIndex].nextSetBit(0); i >= 0; i = candidates[colIndex][rowIndex].nextSetBit(i+1)) {
-		     result.add(i + 1);
-		 }
+		for(int mask = candidates[rowIndex * unit + colIndex]; mask != 0; mask &= mask - 1) {
+			result.add(Integer.numberOfTrailingZeros(mask) + 1);
+		}
 		
 		return result;
 	}
@@ -254,11 +470,12 @@ public class Candidates {
 	 * @return Cell's candidate set
 	 */
 	public int[] getAsArray(int rowIndex, int colIndex) {
-		final int[] result = new int[candidates[colIndex][rowIndex].cardinality()];
+		int mask = candidates[rowIndex * unit + colIndex];
+		final int[] result = new int[Integer.bitCount(mask)];
 		
-		for (int i = candidates[colIndex][rowIndex].nextSetBit(0), j = 0; i >= 0; ++j, i = candidates[colIndex][rowIndex].nextSetBit(i+1)) {
-		     result[j] = i + 1;
-		 }
+		for(int j = 0; mask != 0; ++j, mask &= mask - 1) {
+			result[j] = Integer.numberOfTrailingZeros(mask) + 1;
+		}
 		
 		return result;
 	}
@@ -268,18 +485,17 @@ public class Candidates {
 	 * 
 	 * @param puzzle Puzzle to print
 	 */
-	public void print(final int[][] puzzle) {
+	public void print(final int[] puzzle) {
 		System.out.println();
-		for (int i = 0; i < candidates.length; ++i) {
-			for (int j = 0; j < candidates[i].length; ++j) {
-				if (candidates[j][i].isEmpty()) {
-					System.out.print("[" + puzzle[j][i] + "]");
+		for (int i = 0; i < unit; ++i) {
+			for (int j = 0; j < unit; ++j) {
+				final int mask = candidates[i * unit + j];
+				if (mask == 0) {
+					System.out.print("[" + puzzle[i * unit + j] + "]");
 
 				} 
 				else {
-					for(int k = candidates[j][i].nextSetBit(0); k >= 0; k = candidates[j][i].nextSetBit(k + 1)) {
-						System.out.print(k + 1);
-					}
+					System.out.print(maskToString(mask));
 				}
 				System.out.print("\t");
 			}
@@ -308,57 +524,111 @@ public class Candidates {
 		return result;
 	}
 	
-	private void init(final int[][] puzzle, boolean empty) {
-		for(int i = 0; i < candidates.length; ++i) {
-			for(int j = 0; j < candidates[i].length; ++j) {
-				candidates[j][i] = new BitSet(candidates.length);
-				if((puzzle != null && puzzle[j][i] == 0) || (puzzle == null && !empty)) {					
-					candidates[j][i].set(0, candidates.length, true);					
+	private void init(final int[] puzzle, boolean empty) {
+		for(int i = 0; i < unit; ++i) {
+			for(int j = 0; j < unit; ++j) {
+				if((puzzle != null && puzzle[i * unit + j] == 0) || (puzzle == null && !empty)) {					
+					setMask(i * unit + j, allCandidates);					
 				}				
 			}
 		}
 	}
 	
-	private void filter(final int[][] puzzle) {
-		for(int i = 0; i < puzzle.length; i += dimension) {
-			for(int j = 0; j < puzzle[i].length; j += dimension) {	
+	private void filter(final int[] puzzle) {
+		for(int i = 0; i < unit; i += dimension) {
+			for(int j = 0; j < unit; j += dimension) {	
 				filterBox(puzzle, j, i);
 			}
 		}
 	}
 	
-	private void filterBox(final int[][] puzzle, int boxX, int boxY) {
+	private void filterBox(final int[] puzzle, int boxX, int boxY) {
 		final int boxYLimit = boxY + dimension;
 		final int boxXLimit = boxX + dimension;
 
 		for (int i = boxY; i < boxYLimit; ++i) {
 			for (int j = boxX; j < boxXLimit; ++j) {
 				// Remove a filled single as a candidate from it's regions (row, column and box)
-				if (puzzle[j][i] > 0) {	
+				if (puzzle[i * unit + j] > 0) {	
 					clear(i,j);
-					removeFromRow(puzzle[j][i], i);					
-					removeFromColumn(puzzle[j][i], j);
-					removeFromBox(puzzle[j][i], boxX, boxY);
+					removeFromRow(puzzle[i * unit + j], i);					
+					removeFromColumn(puzzle[i * unit + j], j);
+					removeFromBox(puzzle[i * unit + j], boxX, boxY);
 				}
 			}
 		}
 	}
 	
+	/*
+	 * Change a cell's candidate mask, updating the house position index for each candidate
+	 * that was added or removed
+	 */
+	private void setMask(final int cell, final int mask) {
+		final int changed = candidates[cell] ^ mask;
+		if(changed == 0) {
+			return;
+		}
+		candidates[cell] = mask;
+		
+		final int rowIndex = cell / unit;
+		final int colIndex = cell % unit;
+		final int rowBit = 1 << colIndex;
+		final int columnBit = 1 << rowIndex;
+		final int box = cellBox[cell];
+		final int boxBit = cellBoxBit[cell];
+		
+		updateVersions(cell);
+		
+		for(int bits = changed; bits != 0; bits &= bits - 1) {
+			final int candidateIndex = Integer.numberOfTrailingZeros(bits);
+			final int houseStart = candidateIndex * unit;
+			rowPositions[houseStart + rowIndex] ^= rowBit;
+			columnPositions[houseStart + colIndex] ^= columnBit;
+			boxPositions[houseStart + box] ^= boxBit;
+			candidateVersions[candidateIndex] = version;
+		}
+	}
+	
+	private void updateVersions(final int cell) {
+		++version;
+		rowVersions[cell / unit] = version;
+		columnVersions[cell % unit] = version;
+		boxVersions[cellBox[cell]] = version;
+	}
+	
+	private int getBoxIndex(final int boxX, final int boxY) {
+		return boxY / dimension * dimension + boxX / dimension;
+	}
+	
+	private int getBit(final int candidate) {
+		if(candidate < 1 || candidate > unit) {
+			throw new IndexOutOfBoundsException("Invalid candidate: " + candidate);
+		}
+		return 1 << (candidate - 1);
+	}
+	
+	private static String maskToString(int mask) {
+		final StringBuilder sb = new StringBuilder();
+		for(; mask != 0; mask &= mask - 1) {
+			sb.append(Integer.numberOfTrailingZeros(mask) + 1);
+		}
+		return sb.toString();
+	}
+	
 	@Override
 	public String toString() {
 		final StringBuilder sb = new StringBuilder();
 		
 		sb.append("\n");
-		for (int i = 0; i < candidates.length; ++i) {
-			for (int j = 0; j < candidates[i].length; ++j) {
-				if (candidates[j][i].isEmpty()) {
+		for (int i = 0; i < unit; ++i) {
+			for (int j = 0; j < unit; ++j) {
+				final int mask = candidates[i * unit + j];
+				if (mask == 0) {
 					sb.append("-");
 
 				} 
 				else {
-					for(int k = candidates[j][i].nextSetBit(0); k >= 0; k = candidates[j][i].nextSetBit(k + 1)) {
-						sb.append(k + 1);
-					}
+					sb.append(maskToString(mask));
 				}
 				sb.append("\t");
 			}
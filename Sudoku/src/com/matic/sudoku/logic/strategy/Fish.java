@@ -20,10 +20,11 @@
 
 package com.matic.sudoku.logic.strategy;
 
+import java.util.ArrayList;
 import java.util.List;
 
-import com.matic.sudoku.logic.Candidates;
 import com.matic.sudoku.solver.Pair;
+import com.matic.sudoku.util.Algorithms;
 
 /**
  * A generic implementation of n-fish pattern. The individual patterns are:
@@ -31,163 +32,219 @@ import com.matic.sudoku.solver.Pair;
  * n = 3 (Swordfish)
  * n = 4 (Jellyfish)
  * 
+ * For each candidate, n base lines (rows or columns) are searched for, such that the candidate's
+ * positions in them are covered by n lines crossing them. The search is done on the candidate's
+ * position masks, the cover lines being the union of the base lines' masks.
+ * 
+ * A finned fish also has extra candidates (fins) in the base lines, outside of the cover lines,
+ * all within a single box. Candidates of the cover lines can then only be eliminated within that
+ * box. Sashimi fishes, where some of the base lines have no candidates in the cover lines outside
+ * of the fin box, are found as finned ones. The finned variants are not among LogicSolver's
+ * strategies, as they would change which puzzles it can solve and how they are graded.
+ * 
  * @author vedran
  *
  */
 public abstract class Fish extends LogicStrategy {
 	
-	protected static final int NAKED_STRATEGY = 0;
-	protected static final int HIDDEN_STRATEGY = 1;
+	private final int size;
+	private final boolean finned;
+	
+	//Candidate positions in the lines that can be base lines, and these lines' indexes
+	private final int[] basePositions;
+	private final int[] baseLines;
+	private int baseLineCount;
 
 	/**
 	 * Create a new n-fish strategy
 	 * 	
-	 * @param dimension Dimension of the puzzle and complementary matrix.
+	 * @param dimension Dimension of the puzzle
+	 * @param size Number of base lines (n)
+	 * @param finned Whether to search for finned, instead of basic fishes
 	 */
-	public Fish(int dimension) {
+	public Fish(int dimension, int size, boolean finned) {
 		super(dimension);
+		this.size = size;
+		this.finned = finned;
+		
+		basePositions = new int[unit];
+		baseLines = new int[unit];
+	}
+	
+	/**
+	 * Whether this strategy searches for finned fishes
+	 * @return true for finned fishes, false for basic ones
+	 */
+	public boolean isFinned() {
+		return finned;
 	}
 
 	@Override
-	protected boolean iterate(final int[][] puzzle) {			
-		//First, check for x-wing in rows using only naked subsets
-		Candidates fishRowCandidates = getCandidates(puzzle, true);	
-		
-		//Set to an appropriate subset by implementing classes, based on type of n-Fish
-		Subset subsetStrategy = getSubset(Fish.NAKED_STRATEGY);
-		boolean success = goFishing(subsetStrategy,fishRowCandidates, true);
-		
-		if(success) {	
-			return true;
-		}
-		
-		//Then check for x-wing in columns using only naked subsets
-		Candidates fishColumnCandidates = getCandidates(puzzle, false);			
-		success = goFishing(subsetStrategy, fishColumnCandidates, false);
-		
-		if(success) {
-			return true;
-		}
-		
-		//Then check for x-wing in rows using hidden subsets
-		subsetStrategy = getSubset(Fish.HIDDEN_STRATEGY);
-		success = goFishing(subsetStrategy, fishRowCandidates, true);
-		
-		if(success) {	
-			return true;
+	protected boolean iterate(final int[] puzzle) {
+		//First, check for fishes with rows as base lines, then with columns
+		for(int pass = 0; pass < 2; ++pass) {
+			for(int candidate = 1; candidate <= unit; ++candidate) {
+				if(!isCandidateUnchanged(candidate) && findFish(candidate, pass == 0)) {
+					return true;
+				}
+			}
 		}
 		
-		//Then check for x-wing in columns using hidden subsets
-		success = goFishing(subsetStrategy, fishColumnCandidates, false);
-		
-		if(success) {	
-			return true;
+		for(int candidate = 1; candidate <= unit; ++candidate) {
+			setCandidateChecked(candidate);
 		}
-						
 		return false;
 	}
-
+	
 	/**
-	 * Search for subsets in a n-fish's complementary matrix.
-	 * Depending on value of n, the following strategies are possible:
-	 * n = 2 (Naked/Hidden Pairs)
-	 * n = 3 (Naked/Hidden Triples)
-	 * n = 4 (Naked/Hidden Quads)
+	 * Search for a fish of a candidate, and eliminate the candidate from the cover lines.
 	 * 
-	 * @param subsetStrategy Strategy to apply when searching the fish candidates
-	 * @param fishCandidates Candidates for complimentary (fish) board
-	 * @param row Whether the search is performed in rows or columns	 
+	 * @param candidate Candidate to search
+	 * @param rows Whether the base lines are rows or columns
 	 * @return Whether candidates were eliminated
 	 */
-	protected boolean goFishing(final Subset subsetStrategy, final Candidates fishCandidates, boolean rows) {
-		subsetStrategy.setCandidates(fishCandidates);
+	private boolean findFish(final int candidate, final boolean rows) {
+		baseLineCount = 0;
+		for(int i = 0; i < unit; ++i) {
+			final int positions = getPositions(candidate, i, rows);
+			if(positions != 0) {
+				basePositions[baseLineCount] = positions;
+				baseLines[baseLineCount++] = i;
+			}
+		}
 		
-		boolean pairsFound = subsetStrategy.iterateRows();
+		//Only the lines outside of the fish can hold candidates to eliminate
+		if(baseLineCount <= size) {
+			return false;
+		}
 		
-		if(pairsFound) {			
-			//Either columns (if rows == true) or rows (if rows == false) to filter the candidate from
-			final int[] subsetValues = subsetStrategy.getValues();
-			
-			//Locations of the found subset
-			final List<Pair> locationPoints = subsetStrategy.getLocationPoints();
-			
-			//final int candidate = locationPoints[0][Resources.Y] + 1;
-			final int candidate = locationPoints.get(0).getRow() + 1;
-			
-			final int[] sectionIndexes = new int[subsetValues.length];			
-			for(int i = 0; i < subsetValues.length; ++i) {
-				sectionIndexes[i] = subsetValues[i] - 1;
+		for(int subset = (1 << size) - 1; subset != 0; 
+				subset = Algorithms.nextCombination(subset, baseLineCount)) {
+			int cover = 0;
+			for(int mask = subset; mask != 0; mask &= mask - 1) {
+				cover |= basePositions[Integer.numberOfTrailingZeros(mask)];
 			}
+			final int coverCount = Integer.bitCount(cover);
 			
-			final boolean[] dontFilterMask = new boolean[unit];			
-			for(final Pair row : locationPoints) {
-				dontFilterMask[row.getColumn()] = true;
-			}
-									
-			final boolean success = remove(candidate, sectionIndexes, dontFilterMask, !rows);
+			final boolean success = finned? 
+					coverCount > size && filterFinned(candidate, subset, rows) :
+					coverCount == size && filter(candidate, subset, cover, rows);
 			if(success) {
-				//Store the found value and it's locations
-				setValuesAndLocations(new int[] {candidate}, locationPoints);
+				setFishValuesAndLocations(candidate, subset, rows);
 				return true;
-			}						
-		}		
+			}
+		}
 		return false;
 	}
 	
 	/**
-	 * Implementing classes return an appropriate subset strategy to use when searching for n-Fishes
-	 * @param strategy Either a naked or a hidden strategy
-	 * @return An appropriate strategy implementation matching the input parameter
+	 * Remove a candidate from the cover lines, outside of the base lines.
+	 * 
+	 * @param candidate Candidate to remove
+	 * @param subset Base lines, as a mask of their numbers
+	 * @param cover Cover lines, as a mask of their indexes
+	 * @param rows Whether the base lines are rows or columns
+	 * @return True, if any candidate elimination took place, otherwise false
 	 */
-	protected abstract Subset getSubset(int strategy);
+	private boolean filter(final int candidate, final int subset, final int cover, final boolean rows) {
+		boolean result = false;
+		for(int i = 0; i < baseLineCount; ++i) {
+			if((subset & (1 << i)) == 0) {
+				result |= remove(candidate, baseLines[i], basePositions[i] & cover, rows);
+			}
+		}
+		return result;
+	}
 	
 	/**
-	 * Remove a candidate from a section (row or column).
+	 * Try each box as the fin box of the base lines. The fins must be the only candidates of the 
+	 * base lines left outside of the cover lines, so all of the base lines' positions outside of
+	 * the fin box have to be covered. When fewer than n lines are needed for that, any line
+	 * crossing the fin box can be a cover line.
+	 * 
 	 * @param candidate Candidate to remove
-	 * @param sectionIndexes Indexes of sections (rows or columns) to filter the candidate out from
-	 * @param dontFilterMask Skip these indexes within the sections (indicate location of found n-Fish)
-	 * @param fromRow If true, sectionIndexes denote rows, otherwise columns
+	 * @param subset Base lines, as a mask of their numbers
+	 * @param rows Whether the base lines are rows or columns
 	 * @return True, if any candidate elimination took place, otherwise false
 	 */
-	protected boolean remove(final int candidate, final int[] sectionIndexes, final boolean[] dontFilterMask, final boolean fromRow) {
-		boolean result = false;
-		for(int i = 0; i < unit; ++i) {
-			if(dontFilterMask[i]) {
+	private boolean filterFinned(final int candidate, final int subset, final boolean rows) {
+		for(int lineBand = 0; lineBand < unit; lineBand += dimension) {
+			int lineMask = 0;
+			int inside = 0;
+			int outside = 0;
+			for(int mask = subset; mask != 0; mask &= mask - 1) {
+				final int i = Integer.numberOfTrailingZeros(mask);
+				if(baseLines[i] >= lineBand && baseLines[i] < lineBand + dimension) {
+					lineMask |= 1 << baseLines[i];
+					inside |= basePositions[i];
+				}
+				else {
+					outside |= basePositions[i];
+				}
+			}
+			//The fins can only be in the boxes crossed by the base lines
+			if(lineMask == 0 || Integer.bitCount(outside) > size) {
 				continue;
 			}
-			for(int j : sectionIndexes) {
-				if(fromRow) {
-					result |= candidates.remove(candidate, j, i);
+			for(int positionBand = 0; positionBand < unit; positionBand += dimension) {
+				final int boxPositions = ((1 << dimension) - 1) << positionBand;
+				final int required = outside | (inside & ~boxPositions);
+				final int requiredCount = Integer.bitCount(required);
+				if(requiredCount > size) {
+					continue;
 				}
-				else {
-					result |= candidates.remove(candidate, i, j);
+				final int targets = requiredCount < size? boxPositions : boxPositions & required;
+				
+				boolean result = false;
+				for(int line = lineBand; line < lineBand + dimension; ++line) {
+					if((lineMask & (1 << line)) == 0) {
+						result |= remove(candidate, line, getPositions(candidate, line, rows) & targets, rows);
+					}
+				}
+				if(result) {
+					return true;
 				}
 			}
 		}
+		return false;
+	}
+	
+	/**
+	 * Remove a candidate from a line (row or column).
+	 * @param candidate Candidate to remove
+	 * @param line Index of the line
+	 * @param positions Positions within the line to remove the candidate from
+	 * @param row If true, line denotes a row, otherwise a column
+	 * @return True, if any candidate elimination took place, otherwise false
+	 */
+	private boolean remove(final int candidate, final int line, final int positions, final boolean row) {
+		boolean result = false;
+		for(int mask = positions; mask != 0; mask &= mask - 1) {
+			final int position = Integer.numberOfTrailingZeros(mask);
+			if(row) {
+				result |= candidates.remove(candidate, line, position);
+			}
+			else {
+				result |= candidates.remove(candidate, position, line);
+			}
+		}
 		return result;
 	}
 	
-	private Candidates getCandidates(final int[][] puzzle, boolean isRow) {
-		final Candidates fishCandidates = new Candidates(dimension, true);
-		
-		for(int i = 0; i < puzzle.length; ++i) {
-			for(int j = 0; j < puzzle[i].length; ++j) {
-				//Get all empty cell's candidates
-				if(puzzle[j][i] == 0) {
-					//Loop through all candidates and add them to fishCandidates
-					for(int k = 1; k <= unit; ++k) {
-						if(candidates.contains(k, i, j)) {
-							if(isRow) {
-								fishCandidates.add(j + 1, k - 1, i);
-							}
-							else {
-								fishCandidates.add(i + 1, k - 1, j);
-							}
-						}
-					}
-				}
+	//Store the found value and the locations of it's candidates in the base lines
+	private void setFishValuesAndLocations(final int candidate, final int subset, final boolean rows) {
+		final List<Pair> locations = new ArrayList<>();
+		for(int mask = subset; mask != 0; mask &= mask - 1) {
+			final int i = Integer.numberOfTrailingZeros(mask);
+			for(int positions = basePositions[i]; positions != 0; positions &= positions - 1) {
+				final int position = Integer.numberOfTrailingZeros(positions);
+				locations.add(rows? new Pair(baseLines[i], position) : new Pair(position, baseLines[i]));
 			}
-		}		
-		return fishCandidates;
+		}
+		setValuesAndLocations(new int[] {candidate}, locations);
+	}
+	
+	private int getPositions(final int candidate, final int line, final boolean rows) {
+		return rows? candidates.getRowMask(candidate, line) : candidates.getColumnMask(candidate, line);
 	}
 }
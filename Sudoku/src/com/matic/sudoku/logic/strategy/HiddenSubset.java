@@ -20,15 +20,6 @@
 
 package com.matic.sudoku.logic.strategy;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Set;
-
-import com.matic.sudoku.solver.Pair;
-import com.matic.sudoku.util.Algorithms;
-
 public class HiddenSubset extends Subset {
 
 	public static final int HIDDEN_PAIRS = 2;
@@ -47,21 +38,6 @@ public class HiddenSubset extends Subset {
 		super(dimension, subsetSize);
 	}
 	
-	@Override
-	protected boolean findAndFilterRowSubset(final int row, final List<Pair> emptyCells) {
-		return findAndFilterSubset(emptyCells);
-	}
-	
-	@Override
-	protected boolean findAndFilterColumnSubset(final int column, final List<Pair> emptyCells) {
-		return findAndFilterSubset(emptyCells);
-	}
-	
-	@Override
-	protected boolean findAndFilterBoxSubset(final int boxX, final int boxY, final List<Pair> emptyCells) {
-		return findAndFilterSubset(emptyCells);
-	}
-	
 	@Override
 	public String getName() {
 		switch(subsetSize) {
@@ -86,70 +62,34 @@ public class HiddenSubset extends Subset {
 		}
 	}
 	
-	private boolean findAndFilterSubset(final List<Pair> emptyCells) {
-		final List<List<Pair>> cellSubsets = Algorithms.findAllSubsets(emptyCells, subsetSize);
+	@Override
+	protected boolean findAndFilterSubset(final int subset) {
+		int subsetCandidates = 0;
+		int nonSubsetCandidates = 0;
 		
-		for(final List<Pair> subset : cellSubsets) {
-			final Set<Integer> subsetCandidates = new HashSet<Integer>();
-			final Set<Integer> nonSubsetCandidates = new HashSet<Integer>();
-			final List<Integer> eliminationCandidates = new ArrayList<Integer>();
-			
-			for(final Pair emptyCell : emptyCells) {			
-				if(belongsToSubset(emptyCell.getRow(), emptyCell.getColumn(), subset)) {
-					subsetCandidates.addAll(candidates.getAsSet(emptyCell.getRow(), emptyCell.getColumn()));
-				}
-				else {
-					nonSubsetCandidates.addAll(candidates.getAsSet(emptyCell.getRow(), emptyCell.getColumn()));
-				}
+		for(int i = 0; i < emptyCellCount; ++i) {
+			if((subset & (1 << i)) != 0) {
+				subsetCandidates |= emptyCellMasks[i];
 			}
-			
-			final boolean eliminationSuccess = checkForEliminations(subset, subsetCandidates, 
-				nonSubsetCandidates, eliminationCandidates);
-			
-			if(eliminationSuccess) {				
-				return true;
+			else {
+				nonSubsetCandidates |= emptyCellMasks[i];
 			}
 		}
 		
-		return false;
-	}
-	
-	private boolean checkForEliminations(final List<Pair> subset,final Set<Integer> subsetCandidates, 
-		final Set<Integer> nonSubsetCandidates, final List<Integer> eliminationCandidates) {
-		final Iterator<Integer> iter = subsetCandidates.iterator();
+		final int hiddenCandidates = subsetCandidates & ~nonSubsetCandidates;
+		final int eliminationCandidates = subsetCandidates & nonSubsetCandidates;
 		
-		while(iter.hasNext()) {
-			int currentCandidate = iter.next();
-			if(nonSubsetCandidates.contains(currentCandidate)) {
-				eliminationCandidates.add(currentCandidate);
-				iter.remove();
-			}
+		//Hidden subset found in this set, see if we can eliminate candidates from it
+		if(Integer.bitCount(hiddenCandidates) != subsetSize || eliminationCandidates == 0) {
+			return false;
 		}
 		
-		if(subsetCandidates.size() == subsetSize) {
-			//Hidden subset found in this set, see if we can eliminate candidates from it
-			if(eliminationCandidates.isEmpty()) {
-				return false;
-			}
-			//SUCCESS
-			//Store the values for the found hidden subset			
-			setValues(toArray(subsetCandidates));
-
-			//Store the locations for the found hidden subset			
-			setLocationPoints(subset);
-			
-			eliminateCandidates(eliminationCandidates, subset);
-			return true;
-		}
+		//SUCCESS
+		//Store the values and locations for the found hidden subset
+		setSubsetValuesAndLocations(hiddenCandidates, subset);
 		
-		return false;
-	}
-	
-	private void eliminateCandidates(final List<Integer> eliminationCandidates, final List<Pair> subset) {
-		for(final Pair pair : subset) {
-			for(int candidate : eliminationCandidates) {
-				candidates.remove(candidate, pair.getRow(), pair.getColumn());
-			}
-		}
+		//Remove the other candidates from the subset cells
+		removeFromCells(eliminationCandidates, ~subset);
+		return true;
 	}
 }
\ No newline at end of file
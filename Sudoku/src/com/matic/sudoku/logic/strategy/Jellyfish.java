@@ -21,29 +21,26 @@
 package com.matic.sudoku.logic.strategy;
 
 public class Jellyfish extends Fish {
-
+	
 	private static final String STRATEGY_NAME = "Jellyfish";
+	private static final String FINNED_STRATEGY_NAME = "Finned Jellyfish";
 	private static final int SCORE = 20000;
 
 	public Jellyfish(int dimension) {
-		super(dimension);		
+		this(dimension, false);
 	}
 	
-	@Override
-	public int getScore() {		
-		return SCORE;
+	public Jellyfish(int dimension, boolean finned) {
+		super(dimension, 4, finned);
 	}
 
 	@Override
-	protected Subset getSubset(int strategy) {
-		final Subset subsetStrategy = strategy == Fish.NAKED_STRATEGY?
-				new NakedSubset(dimension, NakedSubset.NAKED_QUADS) :
-				new HiddenSubset(dimension, HiddenSubset.HIDDEN_QUADS);	
-		return subsetStrategy;
+	public String getName() {
+		return isFinned()? FINNED_STRATEGY_NAME : STRATEGY_NAME;
 	}
-
+	
 	@Override
-	public String getName() {
-		return STRATEGY_NAME;
+	public int getScore() {		
+		return SCORE;
 	}
 }
@@ -26,8 +26,13 @@ public class LockedCandidates extends LogicStrategy {
 	private static final int NOT_LOCKED_IN = -1;
 	private static final int SCORE = 200;
 	
+	//A mask of dimension bits, covering one box row (or column) in a box mask,
+	//or one box in a row (or column) mask
+	private final int lineMask;
+	
 	public LockedCandidates(final int dimension) {
 		super(dimension);
+		lineMask = (1 << dimension) - 1;
 	}
 
 	@Override
@@ -41,20 +46,27 @@ public class LockedCandidates extends LogicStrategy {
 	}
 	
 	@Override
-	protected boolean iterateBoxes(final int[][] puzzle, final int boxX, final int boxY) {
+	protected boolean iterateBoxes(final int[] puzzle, final int boxX, final int boxY) {
+		//Interactions of the box with the rows and columns crossing it
+		if(isBoxAndLinesUnchanged(boxX, boxY)) {
+			return false;
+		}
+		if(checkInteractions(boxX, boxY)) {
+			return true;
+		}
+		setBoxAndLinesChecked(boxX, boxY);
+		return false;
+	}
+	
+	private boolean checkInteractions(final int boxX, final int boxY) {
 		//Box-Row/Column interactions
-		for(int i = boxY; i < boxY + dimension; ++i) {
-			for(int j = boxX; j < boxX + dimension; ++j) {
-				//Iterate through candidates
-				for(int k = 1; k <= unit; ++k) {
-					if(checkColumns(k, boxX, boxY)) {
-						return true;
-					}
-					if(checkRows(k, boxX, boxY)) {
-						return true;
-					}								
-				}				
+		for(int k = 1; k <= unit; ++k) {
+			if(checkColumns(k, boxX, boxY)) {
+				return true;
 			}
+			if(checkRows(k, boxX, boxY)) {
+				return true;
+			}								
 		}	
 		//Box-Box interactions (columns)				
 		if(boxY == 0) {
@@ -84,150 +96,99 @@ public class LockedCandidates extends LogicStrategy {
 	}
 	
 	private boolean filterBoxForColumn(int candidate, int column, int boxX, int boxY) {
-		int removedCount = 0;
-		for(int i = boxY; i < boxY + dimension; ++i) {
-			for(int j = boxX; j < boxX + dimension; ++j) {
-				if(j == column) {
-					continue;
-				}
-				if(candidates.remove(candidate, i, j)) {					
-					++removedCount;
-				}
+		final int positions = candidates.getBoxMask(candidate, boxX, boxY);
+		boolean removed = false;
+		for(int mask = positions; mask != 0; mask &= mask - 1) {
+			final int boxCell = Integer.numberOfTrailingZeros(mask);
+			final int j = boxX + boxCell % dimension;
+			if(j != column) {
+				removed |= candidates.remove(candidate, boxY + boxCell / dimension, j);
 			}
 		}
-		if(removedCount > 0) {
-			return true;
-		}
-		return false;
+		return removed;
 	}
 	
 	private boolean filterBoxForRow(int candidate, int row, int boxX, int boxY) {
-		int removedCount = 0;
-		for(int i = boxY; i < boxY + dimension; ++i) {
-			for(int j = boxX; j < boxX + dimension; ++j) {
-				if(i == row) {
-					continue;
-				}
-				if(candidates.remove(candidate, i, j)) {					
-					++removedCount;
-				}
+		final int positions = candidates.getBoxMask(candidate, boxX, boxY);
+		boolean removed = false;
+		for(int mask = positions; mask != 0; mask &= mask - 1) {
+			final int boxCell = Integer.numberOfTrailingZeros(mask);
+			final int i = boxY + boxCell / dimension;
+			if(i != row) {
+				removed |= candidates.remove(candidate, i, boxX + boxCell % dimension);
 			}
 		}
-		if(removedCount > 0) {
-			return true;
-		}
-		return false;
+		return removed;
 	}
 	
 	private int getLockedInBoxX(int candidate, int row) {
-		int lockedInCount = 0;
-		int lockedInX = 0;
-		for(int i = 0; i < unit; i += dimension) {			
-			for(int j = i; j < i + dimension; ++j) {
-				if(candidates.contains(candidate, row, j)) {
-					++lockedInCount;
-					lockedInX = i;
-					break;
-				}
-			}			
-		}
-		if(lockedInCount == 1) {
-			return lockedInX;
-		}
-		return NOT_LOCKED_IN;
+		return getLockedInBox(candidates.getRowMask(candidate, row));
 	}
 	
 	private int getLockedInBoxY(int candidate, int column) {
+		return getLockedInBox(candidates.getColumnMask(candidate, column));
+	}
+	
+	//Find the only box a row (or column) mask has candidates in
+	private int getLockedInBox(final int positions) {
 		int lockedInCount = 0;
-		int lockedInY = 0;
+		int lockedIn = 0;
 		for(int i = 0; i < unit; i += dimension) {
-			for(int j = i; j < i + dimension; ++j) {
-				if(candidates.contains(candidate, j, column)) {
-					++lockedInCount;
-					lockedInY = i;
-					break;
-				}
+			if(((positions >>> i) & lineMask) != 0) {
+				++lockedInCount;
+				lockedIn = i;
 			}
 		}
 		if(lockedInCount == 1) {
-			return lockedInY;
+			return lockedIn;
 		}
 		return NOT_LOCKED_IN;
 	}
 	
 	private boolean checkRows(int candidate, int boxX, int boxY) {
+		final int boxPositions = candidates.getBoxMask(candidate, boxX, boxY);
+		
 		//Check in how many rows the candidate occurs
 		int appearsInRowsCount = 0;
 		int matchRowIndex = 0;		
-		for(int m = boxY; m < boxY + dimension; ++m) {
-			//Iterate through the rows within this box
-			int oldRowCount = appearsInRowsCount;
-			//Iterate through a row
-			for(int n = boxX; n < boxX + dimension; ++n) {
-				if(candidates.contains(candidate,m,n)) {
-					++appearsInRowsCount;
-					break;
-				}
-			}
-			if(oldRowCount != appearsInRowsCount) {
-				matchRowIndex = m;
+		for(int m = 0; m < dimension; ++m) {
+			if(((boxPositions >>> (m * dimension)) & lineMask) != 0) {
+				++appearsInRowsCount;
+				matchRowIndex = boxY + m;
 			}
 		}
 		//Check if the candidate only appears in single row
 		if(appearsInRowsCount == 1) {
 			//Remove the candidate from the part of the row outside the box
-			int removedCount = 0;
-			for(int column = 0; column < unit; ++column) {
-				if(column == boxX) {
-					column = column + dimension - 1;
-					continue;
-				}
-				if(candidates.remove(candidate, matchRowIndex, column)) {					
-					++removedCount;
-				}
+			final int outsideBox = candidates.getRowMask(candidate, matchRowIndex) & ~(lineMask << boxX);
+			for(int mask = outsideBox; mask != 0; mask &= mask - 1) {
+				candidates.remove(candidate, matchRowIndex, Integer.numberOfTrailingZeros(mask));
 			}
 			//Check for success
-			if(removedCount > 0) {
-				return true;
-			}
+			return outsideBox != 0;
 		}
 		return false;
 	}
 	
 	private boolean checkColumns(int candidate, int boxX, int boxY) {
-		//Check in how many columns the candidate occurs		
-		int appearsInColumnsCount = 0;
-		int matchColumnIndex = 0;
-		for(int m = boxX; m < boxX + dimension; ++m) {								
-			int oldColumnCount = appearsInColumnsCount; 
-			//Iterate through a column
-			for(int n = boxY; n < boxY + dimension; ++n) {
-				if(candidates.contains(candidate,n,m)) {
-					++appearsInColumnsCount;
-					break;
-				}
-			}
-			if(oldColumnCount != appearsInColumnsCount) {
-				matchColumnIndex = m;
-			}
+		final int boxPositions = candidates.getBoxMask(candidate, boxX, boxY);
+		
+		//Fold the box rows onto each other, leaving a bit for each column the candidate occurs in
+		int columns = 0;
+		for(int m = 0; m < dimension; ++m) {
+			columns |= (boxPositions >>> (m * dimension)) & lineMask;
 		}
 		//Check if the candidate only appears in single column
-		if(appearsInColumnsCount == 1) {
+		if(Integer.bitCount(columns) == 1) {
+			final int matchColumnIndex = boxX + Integer.numberOfTrailingZeros(columns);
+			
 			//Remove the candidate from the part of the column outside the box
-			int removedCount = 0;
-			for(int row = 0; row < unit; ++row) {
-				if(row == boxY) {
-					row = row + dimension - 1;
-					continue;
-				}
-				if(candidates.remove(candidate, row, matchColumnIndex)) {										
-					++removedCount;
-				}
+			final int outsideBox = candidates.getColumnMask(candidate, matchColumnIndex) & ~(lineMask << boxY);
+			for(int mask = outsideBox; mask != 0; mask &= mask - 1) {
+				candidates.remove(candidate, Integer.numberOfTrailingZeros(mask), matchColumnIndex);
 			}
 			//Check for success
-			if(removedCount > 0) {
-				return true;
-			}
+			return outsideBox != 0;
 		}
 		return false;
 	}
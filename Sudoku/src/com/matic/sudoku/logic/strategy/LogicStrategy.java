@@ -20,12 +20,13 @@
 
 package com.matic.sudoku.logic.strategy;
 
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
 
 import com.matic.sudoku.logic.Candidates;
 import com.matic.sudoku.solver.Pair;
+import com.matic.sudoku.solver.Step;
 
 /**
  * Declares an interface for a logic puzzle solution method/strategy implementations
@@ -34,9 +35,19 @@ import com.matic.sudoku.solver.Pair;
  */
 public abstract class LogicStrategy {
 	
+	//Marks a unit of work (a house, a box with it's rows and columns, or a candidate) as not checked yet
+	private static final int NOT_CHECKED = -1;
+	
 	private List<Pair> locationPairs;
 	private int[] values;
 	
+	/*
+	 * Candidates version at the time this strategy last found nothing in a unit of work, 
+	 * boxes first, followed by the boxes with their rows and columns, then rows, columns and candidates.
+	 * A unit that hasn't changed since can be skipped, as the strategy would find nothing again.
+	 */
+	private final int[] checkedVersions;
+	
 	protected Candidates candidates;		
 		
 	protected boolean singleFound;
@@ -53,6 +64,9 @@ public abstract class LogicStrategy {
 		
 		singleFound = false;
 		
+		checkedVersions = new int[5 * unit];
+		Arrays.fill(checkedVersions, NOT_CHECKED);
+		
 		//Will be initiated by implementing classes when needed
 		candidates = null;
 	}
@@ -132,28 +146,168 @@ public abstract class LogicStrategy {
 		setLocationPoints(locations);
 	}
 	
-	protected int[] toArray(final Set<Integer> subset) {
-		final int[] subsetArray = new int[subset.size()];
-		final Iterator<Integer> subsetIter = subset.iterator();
-		for(int i = 0; i < subsetArray.length; ++i) {
-			subsetArray[i] = subsetIter.next();
-		}
-		return subsetArray;
-	}
-	
 	/**
 	 * Applies the logic method on the puzzle.
-	 * @param puzzle A puzzle to apply the strategy on
+	 * 
+	 * When applied repeatedly with the same candidates, houses that haven't changed since the
+	 * strategy last found nothing in them are skipped. The puzzle must then only be changed 
+	 * along with the candidates (filling a cell also clears it's candidates).
+	 * 
+	 * @param puzzle A puzzle to apply the strategy on, with the cell at (row, column) at 
+	 * index row * unit + column
 	 * @param Candidates to update and work on
 	 * @return true, if the method successfully finds either new entries or eliminates candidates,
 		false otherwise
 	 */
-	public boolean apply(final int[][] puzzle, final Candidates candidates) {
-		this.candidates = candidates;
+	public boolean apply(final int[] puzzle, final Candidates candidates) {
+		setCandidates(candidates);
 				
 		return iterate(puzzle);		
 	}
 	
+	/**
+	 * Applies the logic method on the puzzle repeatedly, until it finds nothing more. Unlike apply(),
+	 * which stops at the first success, this applies all of the steps the strategy can find in one go.
+	 * 
+	 * @param puzzle A puzzle to apply the strategy on
+	 * @param candidates Candidates to update and work on
+	 * @return The applied steps, in order, or an empty list if nothing was found
+	 */
+	public List<Step> applyAll(final int[] puzzle, final Candidates candidates) {
+		final List<Step> steps = new ArrayList<>();
+		
+		//Houses already found to hold nothing are skipped by the subsequent iterations
+		while(true) {
+			//Not all strategies store the values and locations, don't report the previous ones
+			setValuesAndLocations(null, null);
+			if(!apply(puzzle, candidates)) {
+				break;
+			}
+			//Locations may be reused by the strategy, keep a copy
+			final List<Pair> locations = new ArrayList<>();
+			if(locationPairs != null) {
+				for(final Pair pair : locationPairs) {
+					locations.add(new Pair(pair.getRow(), pair.getColumn()));
+				}
+			}
+			steps.add(new Step(getName(), values, locations, singleFound));
+			singleFound = false;
+		}
+		
+		return steps;
+	}
+	
+	//Useful method when only a portion of a strategy's interface is used
+	protected void setCandidates(final Candidates candidates) {
+		if(this.candidates != candidates) {
+			//Checks made on other candidates tell nothing about these ones
+			Arrays.fill(checkedVersions, NOT_CHECKED);
+		}
+		this.candidates = candidates;
+	}
+	
+	/**
+	 * Whether the strategy only looks at the entered values, and not at the candidates.
+	 * Such strategies only need to check a house again after a value was entered in it.
+	 * @return true if the strategy ignores the candidates
+	 */
+	protected boolean usesValuesOnly() {
+		return false;
+	}
+	
+	/**
+	 * Whether this strategy found nothing in a box, and the box hasn't changed since
+	 * @param boxX The x coordinate of the box
+	 * @param boxY The y coordinate of the box
+	 * @return true if the box can be skipped
+	 */
+	protected boolean isBoxUnchanged(final int boxX, final int boxY) {
+		return checkedVersions[getBoxIndex(boxX, boxY)] >= getBoxVersion(boxX, boxY);
+	}
+	
+	protected void setBoxChecked(final int boxX, final int boxY) {
+		checkedVersions[getBoxIndex(boxX, boxY)] = candidates.getVersion();
+	}
+	
+	/**
+	 * Whether this strategy found nothing in a box and the rows and columns crossing it, 
+	 * and none of these have changed since
+	 * @param boxX The x coordinate of the box
+	 * @param boxY The y coordinate of the box
+	 * @return true if the box and it's lines can be skipped
+	 */
+	protected boolean isBoxAndLinesUnchanged(final int boxX, final int boxY) {
+		final int checkedVersion = checkedVersions[unit + getBoxIndex(boxX, boxY)];
+		if(checkedVersion < getBoxVersion(boxX, boxY)) {
+			return false;
+		}
+		for(int i = 0; i < dimension; ++i) {
+			if(checkedVersion < getRowVersion(boxY + i) || checkedVersion < getColumnVersion(boxX + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	protected void setBoxAndLinesChecked(final int boxX, final int boxY) {
+		checkedVersions[unit + getBoxIndex(boxX, boxY)] = candidates.getVersion();
+	}
+	
+	/**
+	 * Whether this strategy found nothing in a row, and the row hasn't changed since
+	 * @param rowIndex Row index
+	 * @return true if the row can be skipped
+	 */
+	protected boolean isRowUnchanged(final int rowIndex) {
+		return checkedVersions[2 * unit + rowIndex] >= getRowVersion(rowIndex);
+	}
+	
+	protected void setRowChecked(final int rowIndex) {
+		checkedVersions[2 * unit + rowIndex] = candidates.getVersion();
+	}
+	
+	/**
+	 * Whether this strategy found nothing in a column, and the column hasn't changed since
+	 * @param colIndex Column index
+	 * @return true if the column can be skipped
+	 */
+	protected boolean isColumnUnchanged(final int colIndex) {
+		return checkedVersions[3 * unit + colIndex] >= getColumnVersion(colIndex);
+	}
+	
+	protected void setColumnChecked(final int colIndex) {
+		checkedVersions[3 * unit + colIndex] = candidates.getVersion();
+	}
+	
+	/**
+	 * Whether this strategy found nothing for a candidate, and none of the candidate's 
+	 * positions have changed since
+	 * @param candidate Candidate
+	 * @return true if the candidate can be skipped
+	 */
+	protected boolean isCandidateUnchanged(final int candidate) {
+		return checkedVersions[4 * unit + candidate - 1] >= candidates.getCandidateVersion(candidate);
+	}
+	
+	protected void setCandidateChecked(final int candidate) {
+		checkedVersions[4 * unit + candidate - 1] = candidates.getVersion();
+	}
+	
+	private int getBoxVersion(final int boxX, final int boxY) {
+		return usesValuesOnly()? candidates.getBoxPlacementVersion(boxX, boxY) : 
+			candidates.getBoxVersion(boxX, boxY);
+	}
+	
+	private int getRowVersion(final int rowIndex) {
+		return usesValuesOnly()? candidates.getRowPlacementVersion(rowIndex) : 
+			candidates.getRowVersion(rowIndex);
+	}
+	
+	private int getColumnVersion(final int colIndex) {
+		return usesValuesOnly()? candidates.getColumnPlacementVersion(colIndex) : 
+			candidates.getColumnVersion(colIndex);
+	}
+	
 	/**
 	 * Apply the strategy to a cell. Implementing classes should override this method and define how that
 	 * particular strategy is applied to a cell
@@ -164,13 +318,13 @@ public abstract class LogicStrategy {
 	 * @param colIndex
 	 * @return if singles found
 	 */
-	protected boolean applyToCell(final int[][] puzzle, int boxX, int boxY, int rowIndex, int colIndex) {
+	protected boolean applyToCell(final int[] puzzle, int boxX, int boxY, int rowIndex, int colIndex) {
 		return false;
 	}
 	
-	protected boolean iterate(final int[][] puzzle) {
-		for(int i = 0; i < puzzle.length; i += dimension) {
-			for(int j = 0; j < puzzle.length; j += dimension) {
+	protected boolean iterate(final int[] puzzle) {
+		for(int i = 0; i < unit; i += dimension) {
+			for(int j = 0; j < unit; j += dimension) {
 				if(iterateBoxes(puzzle, j, i)) {
 					return true;
 				}
@@ -179,7 +333,7 @@ public abstract class LogicStrategy {
 		return false;
 	}
 	
-	protected boolean iterateBoxes(final int[][] puzzle, int boxX, int boxY) {
+	protected boolean iterateBoxes(final int[] puzzle, int boxX, int boxY) {
 		final int boxYLimit = boxY + dimension;
 		final int boxXLimit = boxX + dimension;
 
@@ -193,9 +347,12 @@ public abstract class LogicStrategy {
 		return false;
 	}
 	
+	private int getBoxIndex(final int boxX, final int boxY) {
+		return boxY / dimension * dimension + boxX / dimension;
+	}
 	
-	protected void singleFound(final int[][] puzzle, int rowIndex, int colIndex, int single) {
-		puzzle[colIndex][rowIndex] = single;
+	protected void singleFound(final int[] puzzle, int rowIndex, int colIndex, int single) {
+		puzzle[rowIndex * unit + colIndex] = single;
 		singleFound = true;
 	
 		candidates.clear(rowIndex, colIndex);
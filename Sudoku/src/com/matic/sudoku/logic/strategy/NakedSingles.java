@@ -35,10 +35,22 @@ public class NakedSingles extends LogicStrategy {
 	}
 
 	@Override
-	protected boolean applyToCell(final int[][] puzzle, final int boxX, final int boxY,
+	protected boolean iterateBoxes(final int[] puzzle, final int boxX, final int boxY) {
+		if(isBoxUnchanged(boxX, boxY)) {
+			return false;
+		}
+		if(super.iterateBoxes(puzzle, boxX, boxY)) {
+			return true;
+		}
+		setBoxChecked(boxX, boxY);
+		return false;
+	}
+
+	@Override
+	protected boolean applyToCell(final int[] puzzle, final int boxX, final int boxY,
 			final int rowIndex, final int colIndex) {		
 		//Check if the cell contains a single candidate (naked single)
-		if(puzzle[colIndex][rowIndex] == 0 && candidates.count(rowIndex, colIndex) == 1) {
+		if(puzzle[rowIndex * unit + colIndex] == 0 && candidates.count(rowIndex, colIndex) == 1) {
 			final int single = candidates.getFirst(rowIndex, colIndex);
 			
 			//Store the found single value and it's location
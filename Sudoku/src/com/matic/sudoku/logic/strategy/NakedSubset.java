@@ -20,12 +20,6 @@
 
 package com.matic.sudoku.logic.strategy;
 
-import java.util.List;
-import java.util.Set;
-
-import com.matic.sudoku.solver.Pair;
-import com.matic.sudoku.util.Algorithms;
-
 public class NakedSubset extends Subset {
 
 	public static final int NAKED_PAIRS = 2;
@@ -69,123 +63,20 @@ public class NakedSubset extends Subset {
 	}
 	
 	@Override
-	protected boolean findAndFilterBoxSubset(final int boxX, final int boxY, final List<Pair> emptyCells) {
-		final List<List<Pair>> cellSubsets = Algorithms.findAllSubsets(emptyCells, subsetSize);
-		
-		for(final List<Pair> subset : cellSubsets) {
-			final Set<Integer> subsetCandidates = getCandidatesInSubset(subset);
-			if(subsetCandidates.size() == subsetSize) {
-				if(filterBox(boxX, boxY, subset, subsetCandidates)) {
-					return true;
-				}
-			}
+	protected boolean findAndFilterSubset(final int subset) {
+		int subsetCandidates = 0;
+		for(int mask = subset; mask != 0; mask &= mask - 1) {
+			subsetCandidates |= emptyCellMasks[Integer.numberOfTrailingZeros(mask)];
 		}
-		
-		return false;
-	}
-	
-	@Override
-	protected boolean findAndFilterColumnSubset(final int column, final List<Pair> emptyCells) {
-		final List<List<Pair>> cellSubsets = Algorithms.findAllSubsets(emptyCells, subsetSize);
-		
-		for(final List<Pair> subset : cellSubsets) {
-			final Set<Integer> subsetCandidates = getCandidatesInSubset(subset);
-			if(subsetCandidates.size() == subsetSize) {
-				if(filterColumn(column, subset, subsetCandidates)) {
-					return true;
-				}
-			}
+		if(Integer.bitCount(subsetCandidates) != subsetSize) {
+			return false;
 		}
 		
-		return false;
-	}
-	
-	@Override
-	protected boolean findAndFilterRowSubset(final int row, final List<Pair> emptyCells) {
-		final List<List<Pair>> cellSubsets = Algorithms.findAllSubsets(emptyCells, subsetSize);
-		
-		for(final List<Pair> subset : cellSubsets) {
-			final Set<Integer> subsetCandidates = getCandidatesInSubset(subset);
-			if(subsetCandidates.size() == subsetSize) {
-				if(filterRow(row, subset, subsetCandidates)) {
-					return true;
-				}
-			}
-		}
-		
-		return false;
-	}
-		
-	private boolean filterColumn(final int column,
-			final List<Pair> subset,
-			final Set<Integer> subsetCandidates) {
-
-		boolean success = false;
-
-		for (int i = 0; i < unit; ++i) {
-			/* 	Check that the cell does not contain the subset, in order to avoid
-				removing the candidates from their own subset */
-			if (belongsToSubset(i, column, subset)) {
-				continue;
-			}
-			// Try removing subset candidates from this cell, set success flag
-			for (int candidate : subsetCandidates) {
-				success |= candidates.remove(candidate, i, column);
-			}
-		}
-		
-		if (success) {
-			setValuesAndLocations(toArray(subsetCandidates), subset);
-		}
-
-		return success;
-	}
-		
-	private boolean filterRow(final int row, final List<Pair> subset, 
-		final Set<Integer> subsetCandidates) {
-		
-		boolean success = false;
-		
-		for(int i = 0; i < unit; ++i) {
-			/* 	Check that the cell does not contain the subset, in order to avoid
-				removing the candidates from their own subset */
-			if(belongsToSubset(row, i, subset)) {
-				continue;
-			}
-			//Try removing subset candidates from this cell, set success flag
-			for(int candidate : subsetCandidates) {
-				success |= candidates.remove(candidate, row, i);
-			}
-		}
-		
-		if (success) {
-			setValuesAndLocations(toArray(subsetCandidates), subset);
-		}
-		
-		return success;
-	}
-	
-	private boolean filterBox(final int boxX, final int boxY, final List<Pair> subset, 
-		final Set<Integer> subsetCandidates) {
-		
-		boolean success = false;
-		
-		for(int i = boxY; i < boxY + dimension; ++i) {
-			for(int j = boxX; j < boxX + dimension; ++j) {
-				//Check that the cell does not contain the subset, in order to avoid
-				//removing the candidates from their own subset
-				if(belongsToSubset(i,j,subset)) {
-					continue;
-				}
-				//Try removing subset candidates from this cell, set success flag
-				for(int candidate : subsetCandidates) {
-					success |= candidates.remove(candidate, i, j);
-				}
-			}
-		}
+		//Remove the subset candidates from all other cells in the house
+		final boolean success = removeFromCells(subsetCandidates, subset);
 		
 		if(success) {
-			setValuesAndLocations(toArray(subsetCandidates), subset);
+			setSubsetValuesAndLocations(subsetCandidates, subset);
 		}
 		
 		return success;
@@ -63,16 +63,34 @@ public class SimpleSingles extends LogicStrategy {
 	}
 	
 	@Override
-	protected boolean applyToCell(final int[][] puzzle, final int boxX, final int boxY, 
+	protected boolean usesValuesOnly() {
+		return true;
+	}
+	
+	@Override
+	protected boolean iterateBoxes(final int[] puzzle, final int boxX, final int boxY) {
+		//The box's cells are checked against their rows, columns and the box itself
+		if(isBoxAndLinesUnchanged(boxX, boxY)) {
+			return false;
+		}
+		if(super.iterateBoxes(puzzle, boxX, boxY)) {
+			return true;
+		}
+		setBoxAndLinesChecked(boxX, boxY);
+		return false;
+	}
+	
+	@Override
+	protected boolean applyToCell(final int[] puzzle, final int boxX, final int boxY, 
 			final int rowIndex, final int colIndex) {		
-		if(puzzle[colIndex][rowIndex] != 0) {			
+		if(puzzle[rowIndex * unit + colIndex] != 0) {			
 			return false;
 		}
 		
 		return applyToRegions(puzzle, boxX, boxY, rowIndex, colIndex);
 	}
 	
-	protected boolean applyToRegions(final int[][] puzzle, final int boxX, final int boxY, 
+	protected boolean applyToRegions(final int[] puzzle, final int boxX, final int boxY, 
 			final int rowIndex, final int colIndex) {
 		//Check row
 		if(applyToRow(puzzle, rowIndex, colIndex)) {
@@ -99,51 +117,51 @@ public class SimpleSingles extends LogicStrategy {
 	}
 	
 	// Return true if a single is found, false otherwise
-	protected boolean applyToRow(final int[][] puzzle, final int rowIndex,
+	protected boolean applyToRow(final int[] puzzle, final int rowIndex,
 			final int colIndex) {
 		int singlesInRow = 0;
 		int singlesSum = 0;
 		for (int i = 0; i < unit; ++i) {
-			if (puzzle[i][rowIndex] > 0) {
+			if (puzzle[rowIndex * unit + i] > 0) {
 				++singlesInRow;
 			}
-			singlesSum += puzzle[i][rowIndex];
+			singlesSum += puzzle[rowIndex * unit + i];
 		}
 		return fillSingle(puzzle, singlesInRow, singlesSum, colIndex, rowIndex);
 	}
 	
 	// Return true if a single is found, false otherwise
-	protected boolean applyToColumn(final int[][] puzzle, final int rowIndex,
+	protected boolean applyToColumn(final int[] puzzle, final int rowIndex,
 			final int colIndex) {
 		int singlesInColumn = 0;
 		int singlesSum = 0;
 		for (int i = 0; i < unit; ++i) {
-			if (puzzle[colIndex][i] > 0) {
+			if (puzzle[i * unit + colIndex] > 0) {
 				++singlesInColumn;
 			}
-			singlesSum += puzzle[colIndex][i];
+			singlesSum += puzzle[i * unit + colIndex];
 		}
 		return fillSingle(puzzle, singlesInColumn, singlesSum, colIndex,
 				rowIndex);
 	}
 	
 	// Return true if a single is found, false otherwise
-	protected boolean applyToBox(final int[][] puzzle, final int boxStartX,
+	protected boolean applyToBox(final int[] puzzle, final int boxStartX,
 			final int boxStartY, final int rowIndex, final int colIndex) {		
 		int singlesInBox = 0;
 		int singlesSum = 0;
 		for (int i = boxStartX; i < boxStartX + dimension; ++i) {
 			for (int j = boxStartY; j < boxStartY + dimension; ++j) {
-				if (puzzle[i][j] > 0) {
+				if (puzzle[j * unit + i] > 0) {
 					++singlesInBox;
 				}
-				singlesSum += puzzle[i][j];
+				singlesSum += puzzle[j * unit + i];
 			}
 		}
 		return fillSingle(puzzle, singlesInBox, singlesSum, colIndex, rowIndex);
 	}
 		
-	private boolean fillSingle(final int[][] puzzle, final int singlesInRegion, 
+	private boolean fillSingle(final int[] puzzle, final int singlesInRegion, 
 			final int singlesSum, final int colIndex, final int rowIndex) {
 		if(singlesInRegion == unit - 1) {			
 			final int single = entriesSum - singlesSum;	
@@ -45,17 +45,34 @@ public class SlicingAndSlotting extends LogicStrategy {
 	public int getScore() {		
 		return SCORE;
 	}
+	
+	@Override
+	protected boolean usesValuesOnly() {
+		return true;
+	}
 
 	@Override	
-	protected boolean iterateBoxes(final int[][] puzzle, final int boxX, final int boxY) {
+	protected boolean iterateBoxes(final int[] puzzle, final int boxX, final int boxY) {
+		//The box is sliced by the rows and columns crossing it
+		if(isBoxAndLinesUnchanged(boxX, boxY)) {
+			return false;
+		}
+		if(sliceAndSlot(puzzle, boxX, boxY)) {
+			return true;
+		}
+		setBoxAndLinesChecked(boxX, boxY);
+		return false;
+	}
+	
+	private boolean sliceAndSlot(final int[] puzzle, final int boxX, final int boxY) {
 		final Set<Integer> boxSingles = new HashSet<Integer>();		
 		final List<Pair> emptyCells = new ArrayList<>();
 		
 		//Store all singles in the box
 		for(int i = boxX; i < boxX + dimension; ++i) {
 			for(int j = boxY; j < boxY + dimension; ++j) {
-				if(puzzle[i][j] > 0) {
-					boxSingles.add(puzzle[i][j]);
+				if(puzzle[j * unit + i] > 0) {
+					boxSingles.add(puzzle[j * unit + i]);
 				}
 				else {
 					//Store empty cells' coordinates so we don't need another iteration
@@ -122,7 +139,7 @@ public class SlicingAndSlotting extends LogicStrategy {
 		}
 	}
 	
-	private void coverRow(final int[][] puzzle, final Set<Integer>[] slicingRows,
+	private void coverRow(final int[] puzzle, final Set<Integer>[] slicingRows,
 			final boolean[][] coveredCells, final int boxX, final int boxY, final int digit) {
 		//Check if the digit is part of any or all slicing rows
 		for(int i = 0; i < slicingRows.length; ++i) {
@@ -134,7 +151,7 @@ public class SlicingAndSlotting extends LogicStrategy {
 			//Not part of the slicing row, find covering cells containing filled singles
 			else {
 				for(int k = boxX; k < boxX + dimension; ++k) {
-					if(puzzle[k][boxY + i] > 0) {
+					if(puzzle[(boxY + i) * unit + k] > 0) {
 						coveredCells[k - boxX][i] = true;
 					}
 				}
@@ -142,7 +159,7 @@ public class SlicingAndSlotting extends LogicStrategy {
 		}
 	}
 	
-	private void coverColumn(final int[][] puzzle, final Set<Integer>[] slicingColumns,
+	private void coverColumn(final int[] puzzle, final Set<Integer>[] slicingColumns,
 			final boolean[][] coveredCells, final int boxX, final int boxY, final int digit) {
 		//Check if the digit is part of any or all slicing columns
 		for(int i = 0; i < slicingColumns.length; ++i) {
@@ -154,7 +171,7 @@ public class SlicingAndSlotting extends LogicStrategy {
 			//Not part of the slicing column, find covering cells containing filled singles
 			else {
 				for(int k = boxY; k < boxY + dimension; ++k) {
-					if(puzzle[boxX + i][k] > 0) {
+					if(puzzle[k * unit + boxX + i] > 0) {
 						coveredCells[i][k - boxY] = true;
 					}
 				}
@@ -182,7 +199,7 @@ public class SlicingAndSlotting extends LogicStrategy {
 	}
 	
 	@SuppressWarnings("unchecked")
-	private Set<Integer>[] getSlicingRows(final int[][] puzzle, final int boxX, 
+	private Set<Integer>[] getSlicingRows(final int[] puzzle, final int boxX, 
 			final int boxY) {
 		//Loop through slicing rows
 		final Set<Integer>[] slicingRows = new HashSet[dimension];
@@ -197,8 +214,8 @@ public class SlicingAndSlotting extends LogicStrategy {
 					continue;
 				}
 				//Add slicing single
-				if(puzzle[k][j] > 0) {
-					slicingRows[i].add(puzzle[k][j]); 
+				if(puzzle[j * unit + k] > 0) {
+					slicingRows[i].add(puzzle[j * unit + k]); 
 				}
 			}
 		}
@@ -207,7 +224,7 @@ public class SlicingAndSlotting extends LogicStrategy {
 	}
 	
 	@SuppressWarnings("unchecked")
-	private Set<Integer>[] getSlicingColumns(final int[][] puzzle, final int boxX, 
+	private Set<Integer>[] getSlicingColumns(final int[] puzzle, final int boxX, 
 			final int boxY) {
 		//Loop through slicing columns
 		final Set<Integer>[] slicingColumns = new HashSet[dimension];
@@ -222,8 +239,8 @@ public class SlicingAndSlotting extends LogicStrategy {
 					continue;
 				}
 				//Add slicing single
-				if(puzzle[j][k] > 0) {
-					slicingColumns[i].add(puzzle[j][k]); 
+				if(puzzle[k * unit + j] > 0) {
+					slicingColumns[i].add(puzzle[k * unit + j]); 
 				}
 			}
 		}
@@ -21,24 +21,32 @@
 package com.matic.sudoku.logic.strategy;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import com.matic.sudoku.logic.Candidates;
 import com.matic.sudoku.solver.Pair;
+import com.matic.sudoku.util.Algorithms;
 
 /**
  * Abstract representation of a subset (either naked or hidden). Methods common
  * to both subset techniques are provided by this class, while subset specific
  * ones are abstract and expected to be implemented by subclasses.
  * 
+ * The empty cells of a house are numbered in the order they appear in it, and a
+ * subset of them is a bit mask of these numbers. Subsets are enumerated with
+ * Algorithms.nextCombination(), without allocating any objects.
+ * 
  * @author vedran
  * 
  */
 public abstract class Subset extends LogicStrategy {
 
-	protected final List<Pair> pairs;
+	// Candidate masks and locations of the empty cells in the current house
+	protected final int[] emptyCellMasks;
+	private final int[] emptyCellRows;
+	private final int[] emptyCellColumns;
+
+	protected int emptyCellCount;
 
 	protected int subsetSize;
 
@@ -46,78 +54,70 @@ public abstract class Subset extends LogicStrategy {
 		super(dimension);
 		this.subsetSize = subsetSize;
 
-		//TODO: Try avoiding creating pairs until apply() is first called.
-		pairs = initPairs();
+		emptyCellMasks = new int[unit];
+		emptyCellRows = new int[unit];
+		emptyCellColumns = new int[unit];
 	}
 
-	// Overriden by subclasses in order to implement specific row filtering for
-	// naked and hidden subsets
-	protected abstract boolean findAndFilterRowSubset(final int row,
-			final List<Pair> emptyCells);
-
-	// Overriden by subclasses in order to implement specific column filtering
-	// for naked and hidden subsets
-	protected abstract boolean findAndFilterColumnSubset(final int column,
-			final List<Pair> emptyCells);
-
-	// Overriden by subclasses in order to implement specific box filtering for
-	// naked and hidden subsets
-	protected abstract boolean findAndFilterBoxSubset(final int boxX, final int boxY,
-			final List<Pair> emptyCells);
-	
-	//Useful method when only a portion of Subset's interface is used, by n-fishes for instance 
-	protected void setCandidates(final Candidates candidates) {
-		this.candidates = candidates;
-	}
+	/**
+	 * Overriden by subclasses in order to implement naked and hidden subset
+	 * search and filtering, within the empty cells of a house
+	 * 
+	 * @param subset A subset of the empty cells, as a mask of their numbers
+	 * @return Whether any candidates were eliminated
+	 */
+	protected abstract boolean findAndFilterSubset(final int subset);
 
 	@Override
-	public boolean apply(final int[][] puzzle, final Candidates candidates) {
+	public boolean apply(final int[] puzzle, final Candidates candidates) {
 		return super.apply(puzzle, candidates) || iterateRows()
 				|| iterateColumns();
 	}
 
 	@Override
-	protected boolean iterateBoxes(final int[][] puzzle, final int boxX, final int boxY) {
-		final List<Pair> emptyCells = new ArrayList<>();
-		int emptyCellCount = 0;
+	protected boolean iterateBoxes(final int[] puzzle, final int boxX, final int boxY) {
+		if (isBoxUnchanged(boxX, boxY)) {
+			return false;
+		}
+		emptyCellCount = 0;
 
 		// Find all empty cells in this box
 		for (int i = boxY; i < boxY + dimension; ++i) {
 			for (int j = boxX; j < boxX + dimension; ++j) {
-				if (puzzle[j][i] == 0) {
-					addEmptyCell(emptyCells, j, i, emptyCellCount++);
+				if (puzzle[i * unit + j] == 0) {
+					addEmptyCell(i, j);
 				}
 			}
 		}
-		// Return immediately if not enough empty cells to build subsets
-		if (emptyCells.size() < subsetSize) {
-			return false;
+
+		if (findAndFilterSubsets()) {
+			return true;
 		}
 
-		return findAndFilterBoxSubset(boxX, boxY, emptyCells);
+		setBoxChecked(boxX, boxY);
+		return false;
 	}
 
 	protected boolean iterateRows() {
 		// Iterate through all rows
 		for (int i = 0; i < unit; ++i) {
-			final List<Pair> emptyCells = new ArrayList<>();
-			int emptyCellCount = 0;
+			if (isRowUnchanged(i)) {
+				continue;
+			}
+			emptyCellCount = 0;
 
 			// Find all empty cells in this row
 			for (int j = 0; j < unit; ++j) {
 				if (candidates.count(i, j) > 0) {
-					addEmptyCell(emptyCells, j, i, emptyCellCount++);
+					addEmptyCell(i, j);
 				}
 			}
 
-			// Continue to next row if not enough empty cells to build subsets
-			if (emptyCells.size() < subsetSize) {
-				continue;
-			}
-
-			if (findAndFilterRowSubset(i, emptyCells)) {
+			if (findAndFilterSubsets()) {
 				return true;
 			}
+
+			setRowChecked(i);
 		}
 
 		return false;
@@ -126,75 +126,78 @@ public abstract class Subset extends LogicStrategy {
 	protected boolean iterateColumns() {
 		// Iterate through all columns
 		for (int i = 0; i < unit; ++i) {
-			final List<Pair> emptyCells = new ArrayList<>();
-			int emptyCellCount = 0;
+			if (isColumnUnchanged(i)) {
+				continue;
+			}
+			emptyCellCount = 0;
 
 			// Find all empty cells in this column
 			for (int j = 0; j < unit; ++j) {				
 				if (candidates.count(j, i) > 0) {
-					addEmptyCell(emptyCells, i, j, emptyCellCount++);
+					addEmptyCell(j, i);
 				}
 			}
 
-			// Continue to next column if not enough empty cells to build
-			// subsets
-			if (emptyCells.size() < subsetSize) {
-				continue;
-			}
-
-			if (findAndFilterColumnSubset(i, emptyCells)) {
+			if (findAndFilterSubsets()) {
 				return true;
 			}
+
+			setColumnChecked(i);
 		}
 
 		return false;
 	}
 
-	// Checks whether a cell (at row, col) is part of a cell subset
-	protected boolean belongsToSubset(final int row, final int col,
-			final List<Pair> subset) {
-		for (final Pair cellCoord : subset) {
-			if (cellCoord.getColumn() == col && cellCoord.getRow() == row) {
-				return true;
+	// Remove candidates (a mask) from the empty cells, except for the skipped ones
+	protected boolean removeFromCells(final int candidateMask, final int skippedCells) {
+		boolean success = false;
+		for (int i = 0; i < emptyCellCount; ++i) {
+			if ((skippedCells & (1 << i)) != 0) {
+				continue;
+			}
+			for (int mask = candidateMask & emptyCellMasks[i]; mask != 0; mask &= mask - 1) {
+				success |= candidates.remove(Integer.numberOfTrailingZeros(mask) + 1,
+						emptyCellRows[i], emptyCellColumns[i]);
 			}
 		}
-		return false;
+		return success;
 	}
 
-	// Get a set of candidates contained by a subset
-	protected Set<Integer> getCandidatesInSubset(
-			final List<Pair> subset) {
-		final Set<Integer> subsetCandidates = new HashSet<>();
-		for (final Pair pair : subset) {
-			final int[] cellCandidates = candidates.getAsArray(pair.getRow(),
-					pair.getColumn());
-			for (int cand : cellCandidates) {
-				subsetCandidates.add(cand);
-			}
+	// Store the values and locations of a found subset
+	protected void setSubsetValuesAndLocations(final int candidateMask, final int subset) {
+		final int[] values = new int[Integer.bitCount(candidateMask)];
+		for (int i = 0, mask = candidateMask; mask != 0; ++i, mask &= mask - 1) {
+			values[i] = Integer.numberOfTrailingZeros(mask) + 1;
 		}
-		return subsetCandidates;
-	}
 
-	private void addEmptyCell(final List<Pair> emptyCells,
-			final int x, final int y, final int pairIndex) {
-		final Pair cell = pairs.get(pairIndex);
-		cell.setColumn(x);
-		cell.setRow(y);
-		emptyCells.add(cell);
-	}
+		final List<Pair> locations = new ArrayList<>(subsetSize);
+		for (int mask = subset; mask != 0; mask &= mask - 1) {
+			final int i = Integer.numberOfTrailingZeros(mask);
+			locations.add(new Pair(emptyCellRows[i], emptyCellColumns[i]));
+		}
 
-	/*
-	 * The pairs representing a cell's x and y coordinates. For representing
-	 * empty cells Will be re-used while iterating over boxes, rows and columns,
-	 * avoiding new object creation for each of these
-	 */
-	private List<Pair> initPairs() {
-		final List<Pair> pairs = new ArrayList<>(unit);
+		setValuesAndLocations(values, locations);
+	}
 
-		for (int i = 0; i < unit; ++i) {
-			pairs.add(new Pair(0, 0));
+	// Enumerate the subsets of the empty cells, in lexicographic order
+	private boolean findAndFilterSubsets() {
+		// Not enough empty cells to build subsets
+		if (emptyCellCount < subsetSize) {
+			return false;
 		}
+		for (int subset = (1 << subsetSize) - 1; subset != 0; 
+				subset = Algorithms.nextCombination(subset, emptyCellCount)) {
+			if (findAndFilterSubset(subset)) {
+				return true;
+			}
+		}
+		return false;
+	}
 
-		return pairs;
+	private void addEmptyCell(final int row, final int column) {
+		emptyCellMasks[emptyCellCount] = candidates.getMask(row, column);
+		emptyCellRows[emptyCellCount] = row;
+		emptyCellColumns[emptyCellCount] = column;
+		++emptyCellCount;
 	}
 }
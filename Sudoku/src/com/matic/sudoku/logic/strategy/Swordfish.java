@@ -23,27 +23,24 @@ package com.matic.sudoku.logic.strategy;
 public class Swordfish extends Fish {
 	
 	private static final String STRATEGY_NAME = "Swordfish";
+	private static final String FINNED_STRATEGY_NAME = "Finned Swordfish";
 	private static final int SCORE = 20000;
 
 	public Swordfish(int dimension) {
-		super(dimension);		
+		this(dimension, false);
 	}
 	
-	@Override
-	public int getScore() {		
-		return SCORE;
+	public Swordfish(int dimension, boolean finned) {
+		super(dimension, 3, finned);
 	}
 
 	@Override
-	protected Subset getSubset(int strategy) {
-		final Subset subsetStrategy = strategy == Fish.NAKED_STRATEGY?
-				new NakedSubset(dimension, NakedSubset.NAKED_TRIPLES) :
-				new HiddenSubset(dimension, HiddenSubset.HIDDEN_TRIPLES);	
-		return subsetStrategy;
+	public String getName() {
+		return isFinned()? FINNED_STRATEGY_NAME : STRATEGY_NAME;
 	}
-
+	
 	@Override
-	public String getName() {
-		return STRATEGY_NAME;
+	public int getScore() {		
+		return SCORE;
 	}
 }
@@ -23,23 +23,20 @@ package com.matic.sudoku.logic.strategy;
 public class XWing extends Fish {
 	
 	private static final String STRATEGY_NAME = "X-Wing";
+	private static final String FINNED_STRATEGY_NAME = "Finned X-Wing";
 	private static final int SCORE = 20000;
 
 	public XWing(int dimension) {
-		super(dimension);
+		this(dimension, false);
 	}
-
-	@Override
-	protected Subset getSubset(int strategy) {			
-		final Subset subsetStrategy = strategy == Fish.NAKED_STRATEGY?
-				new NakedSubset(dimension, NakedSubset.NAKED_PAIRS) :
-				new HiddenSubset(dimension, HiddenSubset.HIDDEN_PAIRS);	
-		return subsetStrategy;
+	
+	public XWing(int dimension, boolean finned) {
+		super(dimension, 2, finned);
 	}
 
 	@Override
 	public String getName() {
-		return STRATEGY_NAME;
+		return isFinned()? FINNED_STRATEGY_NAME : STRATEGY_NAME;
 	}
 	
 	@Override
@@ -0,0 +1,726 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.solver;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sudoku solver based on the exact cover problem solution, using Donald Knuth's "Dancing Links".
+ * Unlike DlxSolver, the exact cover matrix is stored in parallel primitive arrays instead of a
+ * graph of node objects, and the search is iterative instead of recursive. Both solvers choose
+ * columns and rows in the same order, so they always return the same results.
+ *
+ * In addition to solving, the solver can lazily enumerate all solutions of a puzzle
+ * or count them without storing any.
+ *
+ * @author vedran
+ *
+ */
+public class ArrayDlxSolver implements BruteForceSolver {
+
+	//Each option (a candidate placed in a cell) satisfies exactly four constraints
+	private static final int CONSTRAINT_COUNT = 4;
+
+	//Index of the root node, which links all uncovered columns
+	private static final int HEAD = 0;
+
+	//How often (in search steps) to check for cancellation and the shared solution counter,
+	//must be a power of 2 minus 1
+	private static final int SEARCH_CHECK_MASK = 0xFF;
+
+	//Node links, indexed by node. Nodes 1..columnCount are the column headers
+	private final int[] left;
+	private final int[] right;
+	private final int[] up;
+	private final int[] down;
+
+	//The column header each node belongs to
+	private final int[] column;
+
+	//The option (matrix row) each node belongs to, -1 for the column headers
+	private final int[] option;
+
+	//Number of nodes in each column, indexed by the column header node
+	private final int[] size;
+
+	//Whether a column is currently covered, indexed by the column header node
+	private final boolean[] covered;
+
+	//Search stacks, holding the chosen column and the currently tried row node per level
+	private final int[] columnStack;
+	private final int[] rowStack;
+
+	//Options of the given clues, in the order they were covered
+	private final int[] givenOptions;
+
+	//Holds the first found solution until the search completes
+	private final int[] firstSolution;
+
+	private final int maxSolutions;
+	private final int gridSize;
+	private final int unitSize;
+	private final int boxSize;
+
+	//Search state, kept between calls so that a search can be resumed
+	private SolutionIterator activeIterator;
+	private Session activeSession;
+	private int givenCount;
+	private int depth;
+	private int baseDepth;
+	private boolean descend;
+	private boolean timedOut;
+	private CancellationToken cancellationToken;
+	private int searchStepCount;
+
+	//Optional solution counter shared with searches running on other threads
+	private AtomicInteger sharedSolutionCount;
+
+	/**
+	 * Initialize the solver for a specific puzzle dimension
+	 * @param puzzleDimension The size/dimension of the puzzle
+	 * @param maxSolutions How many solutions are acceptable
+	 */
+	public ArrayDlxSolver(final int puzzleDimension, final int maxSolutions) {
+		this.maxSolutions = maxSolutions;
+
+		boxSize = puzzleDimension;
+		unitSize = boxSize * boxSize;
+		gridSize = unitSize * unitSize;
+
+		final int columnCount = gridSize * CONSTRAINT_COUNT;
+		final int optionCount = gridSize * unitSize;
+		final int nodeCount = 1 + columnCount + optionCount * CONSTRAINT_COUNT;
+
+		left = new int[nodeCount];
+		right = new int[nodeCount];
+		up = new int[nodeCount];
+		down = new int[nodeCount];
+		column = new int[nodeCount];
+		option = new int[nodeCount];
+		size = new int[columnCount + 1];
+		covered = new boolean[columnCount + 1];
+
+		columnStack = new int[gridSize];
+		rowStack = new int[gridSize];
+		givenOptions = new int[gridSize];
+		firstSolution = new int[gridSize];
+
+		//Initialize the root and the column headers as a circular list
+		for(int node = 0; node <= columnCount; ++node) {
+			left[node] = node == 0? columnCount : node - 1;
+			right[node] = node == columnCount? 0 : node + 1;
+			up[node] = node;
+			down[node] = node;
+			column[node] = node;
+			option[node] = -1;
+		}
+
+		//Initialize the option nodes, appending each one to the bottom of it's column
+		for(int optionIndex = 0, node = columnCount + 1; optionIndex < optionCount; ++optionIndex) {
+			final int cell = optionIndex / unitSize;
+			final int row = cell / unitSize;
+			final int col = cell % unitSize;
+			final int value = optionIndex % unitSize;
+			final int box = row / boxSize * boxSize + col / boxSize;
+
+			final int firstNode = node;
+			for(int constraint = 0; constraint < CONSTRAINT_COUNT; ++constraint, ++node) {
+				int header = 1 + gridSize * constraint;
+				switch(constraint) {
+				case 0:	// row-col
+					header += cell;
+					break;
+				case 1:	// row-value
+					header += row * unitSize + value;
+					break;
+				case 2:	// col-value
+					header += col * unitSize + value;
+					break;
+				case 3:	// box-value
+					header += box * unitSize + value;
+					break;
+				}
+
+				left[node] = constraint == 0? firstNode + CONSTRAINT_COUNT - 1 : node - 1;
+				right[node] = constraint == CONSTRAINT_COUNT - 1? firstNode : node + 1;
+				column[node] = header;
+				option[node] = optionIndex;
+
+				up[node] = up[header];
+				down[node] = header;
+				down[up[header]] = node;
+				up[header] = node;
+				++size[header];
+			}
+		}
+	}
+
+	/**
+	 * Create a copy of another solver, including the state of it's current search.
+	 * The copy can continue the search independently of the original
+	 * @param other Solver to copy
+	 */
+	ArrayDlxSolver(final ArrayDlxSolver other) {
+		maxSolutions = other.maxSolutions;
+		boxSize = other.boxSize;
+		unitSize = other.unitSize;
+		gridSize = other.gridSize;
+
+		left = other.left.clone();
+		right = other.right.clone();
+		up = other.up.clone();
+		down = other.down.clone();
+		size = other.size.clone();
+		covered = other.covered.clone();
+		columnStack = other.columnStack.clone();
+		rowStack = other.rowStack.clone();
+		givenOptions = other.givenOptions.clone();
+		firstSolution = new int[gridSize];
+
+		//Never modified after construction, so these can be shared
+		column = other.column;
+		option = other.option;
+
+		givenCount = other.givenCount;
+		depth = other.depth;
+		baseDepth = other.baseDepth;
+		descend = other.descend;
+		timedOut = other.timedOut;
+		cancellationToken = other.cancellationToken;
+	}
+
+	/**
+	 * Solve a given puzzle (updates the puzzle with the solution)
+	 * @param puzzle Puzzle to be solved
+	 * @return Number of possible solutions for the puzzle or INVALID_PUZZLE if puzzle has
+	 * wrong dimension
+	 */
+	@Override
+	public int solve(final int[] puzzle) {
+		return solve(puzzle, CancellationToken.NONE);
+	}
+
+	/**
+	 * Solve a given puzzle (updates the puzzle with the solution, unless timed out)
+	 * @param puzzle Puzzle to be solved
+	 * @param cancellationToken Token to check for cancellation while searching
+	 * @return Number of possible solutions for the puzzle, INVALID_PUZZLE if puzzle has
+	 * wrong dimension or TIMED_OUT if the token got cancelled before the search completed
+	 */
+	@Override
+	public int solve(final int[] puzzle, final CancellationToken cancellationToken) {
+		if(puzzle.length != gridSize) {
+			return BruteForceSolver.INVALID_PUZZLE;
+		}
+
+		int solutionCount = 0;
+		if(startSearch(puzzle, cancellationToken)) {
+			while(solutionCount < maxSolutions && nextSolution()) {
+				if(solutionCount++ == 0) {
+					storeSolution(firstSolution);
+				}
+			}
+		}
+		endSearch();
+
+		if(timedOut) {
+			return BruteForceSolver.TIMED_OUT;
+		}
+		if(solutionCount > 0) {
+			System.arraycopy(firstSolution, 0, puzzle, 0, gridSize);
+		}
+		return solutionCount;
+	}
+
+	/**
+	 * Count the solutions of a puzzle, without storing any of them. The puzzle is left unchanged.
+	 * @param puzzle Puzzle to count the solutions for
+	 * @param limit Stop counting when this many solutions have been found
+	 * @return Number of solutions found (at most limit), or INVALID_PUZZLE if puzzle has
+	 * wrong dimension
+	 */
+	public long countSolutions(final int[] puzzle, final long limit) {
+		if(puzzle.length != gridSize) {
+			return BruteForceSolver.INVALID_PUZZLE;
+		}
+
+		long solutionCount = 0;
+		if(startSearch(puzzle, CancellationToken.NONE)) {
+			while(solutionCount < limit && nextSolution()) {
+				++solutionCount;
+			}
+		}
+		endSearch();
+		return solutionCount;
+	}
+
+	/**
+	 * Enumerate all solutions of a puzzle. Solutions are searched for one at a time, as the
+	 * returned iterator is consumed. The puzzle is left unchanged.
+	 *
+	 * This solver can't be used for anything else while the enumeration is in progress.
+	 * Solving another puzzle (or starting another enumeration) cancels the current enumeration.
+	 *
+	 * @param puzzle Puzzle to enumerate the solutions for
+	 * @return Iterator over all of the puzzle's solutions
+	 * @throws IllegalArgumentException If the puzzle has wrong dimension
+	 */
+	public SolutionIterator enumerateSolutions(final int[] puzzle) {
+		if(puzzle.length != gridSize) {
+			throw new IllegalArgumentException("Invalid puzzle size: " + puzzle.length);
+		}
+		final boolean hasSolutions = startSearch(puzzle, CancellationToken.NONE);
+		final SolutionIterator iterator = new SolutionIterator();
+		activeIterator = iterator;
+		if(!hasSolutions) {
+			iterator.cancel();
+		}
+		return iterator;
+	}
+
+	/**
+	 * A lazy iterator over puzzle solutions. Each call to next() resumes the search
+	 * where it stopped when the previous solution was found.
+	 */
+	public class SolutionIterator implements Iterator<int[]> {
+
+		private boolean solutionFound = false;
+		private boolean finished = false;
+
+		private SolutionIterator() {}
+
+		@Override
+		public boolean hasNext() {
+			if(!solutionFound && !finished) {
+				solutionFound = nextSolution();
+				if(!solutionFound) {
+					cancel();
+				}
+			}
+			return solutionFound;
+		}
+
+		@Override
+		public int[] next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			solutionFound = false;
+
+			final int[] solution = new int[gridSize];
+			storeSolution(solution);
+			return solution;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * Stop the enumeration and release the solver. Any further calls to hasNext() return false
+		 */
+		public void cancel() {
+			if(!finished) {
+				finished = true;
+				solutionFound = false;
+				endSearch();
+			}
+		}
+	}
+
+	/**
+	 * Cover the columns of all given clues and prepare for searching.
+	 * @param puzzle Puzzle to be solved
+	 * @param cancellationToken Token to check for cancellation while searching
+	 * @return false if the clues are conflicting, true otherwise
+	 */
+	boolean startSearch(final int[] puzzle, final CancellationToken cancellationToken) {
+		if(activeIterator != null) {
+			activeIterator.cancel();
+		}
+		if(activeSession != null) {
+			activeSession.close();
+		}
+		this.cancellationToken = cancellationToken;
+		timedOut = false;
+		depth = 0;
+		baseDepth = 0;
+		descend = true;
+		givenCount = 0;
+
+		for(int i = 0; i < gridSize; ++i) {
+			if(puzzle[i] > 0 && !coverGiven(i * unitSize + puzzle[i] - 1)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Uncover everything covered by the search and the given clues, restoring the matrix.
+	 */
+	void endSearch() {
+		backtrackSearch();
+		while(givenCount > 0) {
+			uncoverGiven();
+		}
+		activeIterator = null;
+	}
+
+	/**
+	 * DLX algorithm search(k)-function implementation, using explicit stacks instead of recursion.
+	 * The search stops whenever a solution is found and continues from the same place on the next call.
+	 * @return true if another solution was found, false if there are no more solutions
+	 */
+	boolean nextSolution() {
+		while(true) {
+			if((++searchStepCount & SEARCH_CHECK_MASK) == 0) {
+				if(sharedSolutionCount != null && sharedSolutionCount.get() >= maxSolutions) {
+					//Enough solutions have been found by other searches
+					return false;
+				}
+				if(cancellationToken.isCancelled()) {
+					timedOut = true;
+					return false;
+				}
+			}
+			if(descend) {
+				if(right[HEAD] == HEAD) {
+					//All columns are covered, a solution has been found
+					descend = false;
+					return true;
+				}
+				final int min = chooseColumn();
+				if(size[min] == 0) {
+					descend = false;
+					continue;
+				}
+				cover(min);
+				columnStack[depth] = min;
+				rowStack[depth] = down[min];
+			}
+			else {
+				//Backtrack, undoing the row tried at the previous level
+				if(depth == baseDepth) {
+					return false;
+				}
+				--depth;
+				final int row = rowStack[depth];
+				for(int j = left[row]; j != row; j = left[j]) {
+					uncover(column[j]);
+				}
+				rowStack[depth] = down[row];
+			}
+
+			//Try the next row at the current level, if any left
+			final int row = rowStack[depth];
+			if(row == columnStack[depth]) {
+				uncover(columnStack[depth]);
+				descend = false;
+				continue;
+			}
+			for(int j = right[row]; j != row; j = right[j]) {
+				cover(column[j]);
+			}
+			++depth;
+			descend = true;
+		}
+	}
+
+	/**
+	 * Choose the column with the fewest rows. Must only be called if there are uncovered columns
+	 * @return Header node of the chosen column
+	 */
+	int chooseColumn() {
+		int min = right[HEAD];
+		for(int col = right[HEAD]; col != HEAD; col = right[col]) {
+			if(size[col] < size[min]) {
+				min = col;
+			}
+			if(size[min] == 0) {
+				break;
+			}
+		}
+		return min;
+	}
+
+	/**
+	 * Check whether all columns are covered, meaning the current partial solution is complete
+	 * @return true if a solution has been found, false otherwise
+	 */
+	boolean isSolved() {
+		return right[HEAD] == HEAD;
+	}
+
+	/**
+	 * Get the number of cells in the puzzles solved by this solver
+	 * @return Puzzle grid size
+	 */
+	int getGridSize() {
+		return gridSize;
+	}
+
+	/**
+	 * Get the number of rows in a column
+	 * @param col Header node of the column
+	 * @return Row count
+	 */
+	int getColumnSize(final int col) {
+		return size[col];
+	}
+
+	/**
+	 * Get all row nodes of a column, in search order
+	 * @param col Header node of the column
+	 * @return Row nodes
+	 */
+	int[] getColumnRows(final int col) {
+		final int[] rows = new int[size[col]];
+		for(int i = 0, row = down[col]; row != col; row = down[row]) {
+			rows[i++] = row;
+		}
+		return rows;
+	}
+
+	/**
+	 * Place a row of a column into the partial solution. Any search continued after this
+	 * call only explores solutions containing the row, and never backtracks above it.
+	 * @param col Header node of the column to cover
+	 * @param row Row node (in the column) to place
+	 */
+	void branch(final int col, final int row) {
+		cover(col);
+		for(int j = right[row]; j != row; j = right[j]) {
+			cover(column[j]);
+		}
+		columnStack[depth] = col;
+		rowStack[depth] = row;
+		baseDepth = ++depth;
+		descend = true;
+	}
+
+	/**
+	 * Stop searching as soon as a counter shared with other searches reaches maxSolutions.
+	 * The counter is read every few hundred search steps only
+	 * @param sharedSolutionCount Shared solution counter
+	 */
+	void setSharedSolutionCount(final AtomicInteger sharedSolutionCount) {
+		this.sharedSolutionCount = sharedSolutionCount;
+	}
+
+	/**
+	 * Check whether the last search was stopped because the cancellation token got cancelled
+	 * @return true if the search timed out, false otherwise
+	 */
+	boolean isTimedOut() {
+		return timedOut;
+	}
+
+	/**
+	 * Write the currently found solution to a puzzle
+	 * @param puzzle Target puzzle
+	 */
+	void storeSolution(final int[] puzzle) {
+		for(int i = 0; i < givenCount; ++i) {
+			puzzle[givenOptions[i] / unitSize] = givenOptions[i] % unitSize + 1;
+		}
+		for(int i = 0; i < depth; ++i) {
+			final int optionIndex = option[rowStack[i]];
+			puzzle[optionIndex / unitSize] = optionIndex % unitSize + 1;
+		}
+	}
+
+	/**
+	 * Open an incremental session for a puzzle. The clues stay covered between counts, only
+	 * the changed clues are covered or uncovered when clues are removed or added.
+	 * @param puzzle Puzzle with the initial clues, left unchanged
+	 * @return The opened session
+	 * @throws IllegalArgumentException If the puzzle has wrong dimension or conflicting clues
+	 */
+	@Override
+	public SolverSession openSession(final int[] puzzle) {
+		if(puzzle.length != gridSize) {
+			throw new IllegalArgumentException("Invalid puzzle size: " + puzzle.length);
+		}
+		if(!startSearch(puzzle, CancellationToken.NONE)) {
+			endSearch();
+			throw new IllegalArgumentException("The puzzle has conflicting clues");
+		}
+		activeSession = new Session();
+		return activeSession;
+	}
+
+	/*
+	 * A session keeping the current clues covered. Clues can only be uncovered in reverse
+	 * order of covering, so removing a clue uncovers and covers again those covered after it.
+	 */
+	private class Session implements SolverSession {
+
+		private boolean closed = false;
+
+		@Override
+		public void removeClue(final int cell) {
+			checkOpen();
+			int index = givenCount - 1;
+			while(index >= 0 && givenOptions[index] / unitSize != cell) {
+				--index;
+			}
+			if(index < 0) {
+				throw new IllegalArgumentException("No clue at cell: " + cell);
+			}
+			final int coveredCount = givenCount;
+			while(givenCount > index) {
+				uncoverGiven();
+			}
+			for(int i = index + 1; i < coveredCount; ++i) {
+				coverGiven(givenOptions[i]);
+			}
+		}
+
+		@Override
+		public void addClue(final int cell, final int value) {
+			checkOpen();
+			if(value < 1 || value > unitSize) {
+				throw new IllegalArgumentException("Invalid clue value: " + value);
+			}
+			if(!coverGiven(cell * unitSize + value - 1)) {
+				throw new IllegalArgumentException("Clue " + value + " conflicts at cell: " + cell);
+			}
+		}
+
+		@Override
+		public int countSolutions(final CancellationToken cancellationToken) {
+			checkOpen();
+			ArrayDlxSolver.this.cancellationToken = cancellationToken;
+			timedOut = false;
+			depth = 0;
+			baseDepth = 0;
+			descend = true;
+
+			int solutionCount = 0;
+			while(solutionCount < maxSolutions && nextSolution()) {
+				++solutionCount;
+			}
+			backtrackSearch();
+			return timedOut? BruteForceSolver.TIMED_OUT : solutionCount;
+		}
+
+		@Override
+		public void close() {
+			if(!closed) {
+				closed = true;
+				activeSession = null;
+				endSearch();
+			}
+		}
+
+		private void checkOpen() {
+			if(closed) {
+				throw new IllegalStateException("The session is closed");
+			}
+		}
+	}
+
+	/**
+	 * Cover the columns of a given clue, unless it conflicts with the clues covered so far
+	 * @param optionIndex Option of the clue
+	 * @return false if the clue conflicts with the covered clues, true otherwise
+	 */
+	private boolean coverGiven(final int optionIndex) {
+		final int firstNode = getFirstNode(optionIndex);
+		if(covered[column[firstNode]] || covered[column[firstNode + 1]]
+				|| covered[column[firstNode + 2]] || covered[column[firstNode + 3]]) {
+			return false;
+		}
+		for(int j = firstNode; j < firstNode + CONSTRAINT_COUNT; ++j) {
+			cover(column[j]);
+		}
+		givenOptions[givenCount++] = optionIndex;
+		return true;
+	}
+
+	/**
+	 * Uncover the columns of the most recently covered clue
+	 */
+	private void uncoverGiven() {
+		final int firstNode = getFirstNode(givenOptions[--givenCount]);
+		for(int j = firstNode + CONSTRAINT_COUNT - 1; j >= firstNode; --j) {
+			uncover(column[j]);
+		}
+	}
+
+	/**
+	 * Undo all rows tried by the search, leaving only the clues covered
+	 */
+	private void backtrackSearch() {
+		while(depth > 0) {
+			--depth;
+			final int row = rowStack[depth];
+			for(int j = left[row]; j != row; j = left[j]) {
+				uncover(column[j]);
+			}
+			uncover(columnStack[depth]);
+		}
+	}
+
+	/**
+	 * Cover a given column
+	 * @param col Header node of the column to cover
+	 */
+	private void cover(final int col) {
+		covered[col] = true;
+
+		left[right[col]] = left[col];
+		right[left[col]] = right[col];
+		for(int i = down[col]; i != col; i = down[i]) {
+			for(int j = right[i]; j != i; j = right[j]) {
+				up[down[j]] = up[j];
+				down[up[j]] = down[j];
+				--size[column[j]];
+			}
+		}
+	}
+
+	/**
+	 * Uncover a given column
+	 * @param col Header node of the column to uncover
+	 */
+	private void uncover(final int col) {
+		covered[col] = false;
+		for(int i = up[col]; i != col; i = up[i]) {
+			for(int j = left[i]; j != i; j = left[j]) {
+				++size[column[j]];
+				down[up[j]] = j;
+				up[down[j]] = j;
+			}
+		}
+		right[left[col]] = col;
+		left[right[col]] = col;
+	}
+
+	//Option nodes are laid out consecutively, right after the column headers
+	private int getFirstNode(final int optionIndex) {
+		return 1 + gridSize * CONSTRAINT_COUNT + optionIndex * CONSTRAINT_COUNT;
+	}
+}
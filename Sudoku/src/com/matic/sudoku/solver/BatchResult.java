@@ -0,0 +1,87 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.solver;
+
+import com.matic.sudoku.solver.LogicSolver.Grading;
+
+/**
+ * Outcome of solving and grading a single puzzle by the BatchSolver.
+ *
+ * @author vedran
+ *
+ */
+public class BatchResult {
+
+	private final long index;
+	private final int[] puzzle;
+	private final int[] solution;
+	private final int solutionCount;
+	private final Grading grading;
+
+	public BatchResult(final long index, final int[] puzzle, final int[] solution,
+			final int solutionCount, final Grading grading) {
+		this.index = index;
+		this.puzzle = puzzle;
+		this.solution = solution;
+		this.solutionCount = solutionCount;
+		this.grading = grading;
+	}
+
+	/**
+	 * Get the position of the puzzle in the batch input
+	 * @return Zero-based input index
+	 */
+	public long getIndex() {
+		return index;
+	}
+
+	/**
+	 * Get the solved puzzle, as it was passed to the solver
+	 * @return The puzzle
+	 */
+	public int[] getPuzzle() {
+		return puzzle;
+	}
+
+	/**
+	 * Get the (first found) solution
+	 * @return Puzzle solution, or null if the puzzle has no solution
+	 */
+	public int[] getSolution() {
+		return solution;
+	}
+
+	/**
+	 * Get the number of solutions found by the brute force solver
+	 * @return One of the BruteForceSolver solution count constants
+	 */
+	public int getSolutionCount() {
+		return solutionCount;
+	}
+
+	/**
+	 * Get the puzzle grading
+	 * @return Puzzle grading, or null if the puzzle could not be solved using logic only
+	 */
+	public Grading getGrading() {
+		return grading;
+	}
+}
@@ -0,0 +1,200 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.solver;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+
+import com.matic.sudoku.solver.LogicSolver.Grading;
+import com.matic.sudoku.solver.LogicSolver.Mode;
+
+/**
+ * Solves and grades collections of puzzles in parallel, without any user interface involved.
+ * Puzzles are pulled lazily from an input iterator and handed to an executor (either a
+ * ForkJoinPool or any other ExecutorService). Only a limited number of puzzles is in progress
+ * at any time, so arbitrarily large collections can be processed.
+ *
+ * Each puzzle is solved with a brute force solver (for the solution count and the solution)
+ * and, if it has a unique solution, graded with a logic solver. Solvers are obtained per
+ * worker thread from a SolverProvider.
+ *
+ * @author vedran
+ *
+ */
+public class BatchSolver {
+
+	/**
+	 * The order in which the results are delivered
+	 */
+	public enum Ordering {
+		//Results are delivered in the order the puzzles were read from input
+		INPUT,
+		//Results are delivered as soon as they are available
+		COMPLETION
+	}
+
+	//How many puzzles per worker thread can be in progress or awaiting delivery
+	private static final int PUZZLES_PER_THREAD = 16;
+
+	private final ExecutorService executor;
+	private final SolverProvider solverProvider;
+	private final int dimension;
+	private final int maxPuzzlesInProgress;
+
+	/**
+	 * Create a new batch solver
+	 *
+	 * @param dimension Dimension of the puzzles to solve
+	 * @param executor Executor to run solving tasks on. It is not shut down by this class
+	 * @param threadCount Number of threads used by the executor
+	 * @param solverProvider Provider of solvers for the worker threads
+	 */
+	public BatchSolver(final int dimension, final ExecutorService executor, final int threadCount,
+			final SolverProvider solverProvider) {
+		this.dimension = dimension;
+		this.executor = executor;
+		this.solverProvider = solverProvider;
+
+		maxPuzzlesInProgress = Math.max(1, threadCount) * PUZZLES_PER_THREAD;
+	}
+
+	/**
+	 * Solve and grade all puzzles provided by an iterator. Puzzles are submitted for solving
+	 * as the returned iterator is consumed.
+	 *
+	 * @param puzzles Puzzles to solve. Each puzzle array is left unchanged
+	 * @param ordering Order in which to deliver the results
+	 * @return Lazily computed results
+	 */
+	public Iterator<BatchResult> solve(final Iterator<int[]> puzzles, final Ordering ordering) {
+		return new ResultIterator(puzzles, ordering);
+	}
+
+	/*
+	 * Solve and grade a single puzzle on the calling thread
+	 */
+	private BatchResult solve(final long index, final int[] puzzle) {
+		final int[] solution = puzzle.clone();
+		final int solutionCount = solverProvider.getBruteForceSolver(dimension,
+				BruteForceSolver.MULTIPLE_SOLUTIONS).solve(solution);
+
+		Grading grading = null;
+		if(solutionCount == BruteForceSolver.UNIQUE_SOLUTION) {
+			final LogicSolver logicSolver = solverProvider.getLogicSolver(dimension);
+			logicSolver.setMaxGradingLevel(Grading.DIABOLIC);
+			logicSolver.setMode(Mode.SINGLE_STEP);
+			if(logicSolver.solve(puzzle.clone()) == LogicSolver.UNIQUE_SOLUTION) {
+				grading = logicSolver.getGrading();
+			}
+		}
+
+		return new BatchResult(index, puzzle, solutionCount > 0? solution : null, solutionCount, grading);
+	}
+
+	/*
+	 * Submits puzzles as results are consumed, keeping at most maxPuzzlesInProgress
+	 * puzzles being solved or waiting to be delivered.
+	 */
+	private class ResultIterator implements Iterator<BatchResult> {
+
+		private final CompletionService<BatchResult> completionService;
+		private final Map<Long, BatchResult> completedResults;
+		private final Iterator<int[]> puzzles;
+		private final Ordering ordering;
+
+		private long submittedCount;
+		private long deliveredCount;
+
+		ResultIterator(final Iterator<int[]> puzzles, final Ordering ordering) {
+			this.puzzles = puzzles;
+			this.ordering = ordering;
+
+			completionService = new ExecutorCompletionService<>(executor);
+			completedResults = new HashMap<>();
+		}
+
+		@Override
+		public boolean hasNext() {
+			submitPuzzles();
+			return submittedCount > deliveredCount;
+		}
+
+		@Override
+		public BatchResult next() {
+			if(!hasNext()) {
+				throw new NoSuchElementException();
+			}
+
+			BatchResult result;
+			if(ordering == Ordering.COMPLETION) {
+				result = takeCompleted();
+			}
+			else {
+				while((result = completedResults.remove(deliveredCount)) == null) {
+					final BatchResult completed = takeCompleted();
+					completedResults.put(completed.getIndex(), completed);
+				}
+			}
+
+			++deliveredCount;
+			submitPuzzles();
+			return result;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		private void submitPuzzles() {
+			while(submittedCount - deliveredCount < maxPuzzlesInProgress && puzzles.hasNext()) {
+				final long index = submittedCount++;
+				final int[] puzzle = puzzles.next();
+				completionService.submit(new Callable<BatchResult>() {
+					@Override
+					public BatchResult call() {
+						return solve(index, puzzle);
+					}
+				});
+			}
+		}
+
+		private BatchResult takeCompleted() {
+			try {
+				return completionService.take().get();
+			}
+			catch(final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for a puzzle to be solved", e);
+			}
+			catch(final ExecutionException e) {
+				throw new IllegalStateException("Solving a puzzle failed", e.getCause());
+			}
+		}
+	}
+}
@@ -0,0 +1,469 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.solver;
+
+/**
+ * A back-tracking solver keeping the digits used by each row, column and box as bit masks.
+ * Naked and hidden singles are filled in before each guess, and guesses are always made in the
+ * most constrained cell. All working memory is allocated up front, so solving a puzzle doesn't
+ * allocate anything.
+ *
+ * The solver handles puzzles with up to 32 symbols per unit (dimensions 2 to 5).
+ *
+ * @author vedran
+ *
+ */
+public class BitboardSolver implements BruteForceSolver {
+
+	private static final int ROW_HOUSE = 0;
+	private static final int COLUMN_HOUSE = 1;
+	private static final int BOX_HOUSE = 2;
+
+	//How often (in search steps) to check for cancellation, must be a power of 2 minus 1
+	private static final int CANCELLATION_CHECK_MASK = 0xFF;
+
+	private final int maxSolutions;
+	private final int gridSize;
+	private final int unitSize;
+	private final int boxSize;
+
+	//A mask with a bit set for each of the possible digits
+	private final int allDigits;
+
+	//Row, column and box index of each cell
+	private final int[] rowOf;
+	private final int[] columnOf;
+	private final int[] boxOf;
+
+	//Cell indexes contained by each house (all rows, then all columns, then all boxes)
+	private final int[][] houseCells;
+
+	//Digits already used in each row, column and box
+	private final int[] rowUsed;
+	private final int[] columnUsed;
+	private final int[] boxUsed;
+
+	//Current cell values, 0 for empty cells
+	private final int[] cells;
+	private final int[] firstSolution;
+
+	//Cells filled in so far, in the order they were filled in (used for undoing)
+	private final int[] trail;
+	private int trailSize;
+
+	//Guess stack, holding the guessed cell, the digits left to try and the trail size per level
+	private final int[] guessCell;
+	private final int[] guessDigits;
+	private final int[] guessTrailMark;
+
+	private int solutionCount;
+
+	private CancellationToken cancellationToken;
+	private boolean timedOut;
+	private int searchStepCount;
+
+	private Session activeSession;
+
+	/**
+	 * Initialize the solver for a specific puzzle dimension
+	 * @param puzzleDimension The size/dimension of the puzzle
+	 * @param maxSolutions How many solutions are acceptable
+	 */
+	public BitboardSolver(final int puzzleDimension, final int maxSolutions) {
+		this.maxSolutions = maxSolutions;
+
+		boxSize = puzzleDimension;
+		unitSize = boxSize * boxSize;
+		gridSize = unitSize * unitSize;
+
+		if(unitSize > Integer.SIZE) {
+			throw new IllegalArgumentException("Unsupported puzzle dimension: " + puzzleDimension);
+		}
+
+		allDigits = unitSize == Integer.SIZE? -1 : (1 << unitSize) - 1;
+
+		rowOf = new int[gridSize];
+		columnOf = new int[gridSize];
+		boxOf = new int[gridSize];
+		houseCells = new int[unitSize * 3][unitSize];
+
+		final int[] houseSizes = new int[houseCells.length];
+		for(int cell = 0; cell < gridSize; ++cell) {
+			rowOf[cell] = cell / unitSize;
+			columnOf[cell] = cell % unitSize;
+			boxOf[cell] = rowOf[cell] / puzzleDimension * puzzleDimension + columnOf[cell] / puzzleDimension;
+
+			final int rowHouse = ROW_HOUSE * unitSize + rowOf[cell];
+			final int columnHouse = COLUMN_HOUSE * unitSize + columnOf[cell];
+			final int boxHouse = BOX_HOUSE * unitSize + boxOf[cell];
+
+			houseCells[rowHouse][houseSizes[rowHouse]++] = cell;
+			houseCells[columnHouse][houseSizes[columnHouse]++] = cell;
+			houseCells[boxHouse][houseSizes[boxHouse]++] = cell;
+		}
+
+		rowUsed = new int[unitSize];
+		columnUsed = new int[unitSize];
+		boxUsed = new int[unitSize];
+
+		cells = new int[gridSize];
+		firstSolution = new int[gridSize];
+		trail = new int[gridSize];
+
+		guessCell = new int[gridSize];
+		guessDigits = new int[gridSize];
+		guessTrailMark = new int[gridSize];
+	}
+
+	/**
+	 * Solve a given puzzle (updates the puzzle with the solution)
+	 * @param puzzle Puzzle to be solved
+	 * @return Number of possible solutions for the puzzle or INVALID_PUZZLE if puzzle has
+	 * wrong dimension
+	 */
+	@Override
+	public int solve(final int[] puzzle) {
+		return solve(puzzle, CancellationToken.NONE);
+	}
+
+	/**
+	 * Solve a given puzzle (updates the puzzle with the solution, unless timed out)
+	 * @param puzzle Puzzle to be solved
+	 * @param cancellationToken Token to check for cancellation while searching
+	 * @return Number of possible solutions for the puzzle, INVALID_PUZZLE if puzzle has
+	 * wrong dimension or TIMED_OUT if the token got cancelled before the search completed
+	 */
+	@Override
+	public int solve(final int[] puzzle, final CancellationToken cancellationToken) {
+		if(puzzle.length != gridSize) {
+			return BruteForceSolver.INVALID_PUZZLE;
+		}
+
+		reset();
+		this.cancellationToken = cancellationToken;
+
+		if(!placeClues(puzzle)) {
+			return BruteForceSolver.NO_SOLUTION;
+		}
+
+		search();
+
+		if(timedOut) {
+			return BruteForceSolver.TIMED_OUT;
+		}
+		if(solutionCount > 0) {
+			System.arraycopy(firstSolution, 0, puzzle, 0, gridSize);
+		}
+		return solutionCount;
+	}
+
+	/**
+	 * Open an incremental session for a puzzle. The clues stay placed in the digit masks
+	 * between counts, so removing or adding a clue only updates the masks of it's row,
+	 * column and box.
+	 * @param puzzle Puzzle with the initial clues, left unchanged
+	 * @return The opened session
+	 * @throws IllegalArgumentException If the puzzle has wrong dimension or conflicting clues
+	 */
+	@Override
+	public SolverSession openSession(final int[] puzzle) {
+		if(puzzle.length != gridSize) {
+			throw new IllegalArgumentException("Invalid puzzle size: " + puzzle.length);
+		}
+		reset();
+		if(!placeClues(puzzle)) {
+			throw new IllegalArgumentException("The puzzle has conflicting clues");
+		}
+		activeSession = new Session();
+		return activeSession;
+	}
+
+	/*
+	 * A session keeping the current clues placed. The clues fill the start of the trail,
+	 * and each count undoes the trail back to them once the search is done.
+	 */
+	private class Session implements SolverSession {
+
+		private boolean closed = false;
+
+		@Override
+		public void removeClue(final int cell) {
+			checkOpen();
+			int index = trailSize - 1;
+			while(index >= 0 && trail[index] != cell) {
+				--index;
+			}
+			if(index < 0) {
+				throw new IllegalArgumentException("No clue at cell: " + cell);
+			}
+			//The masks don't depend on the order of placing, so the last clue can fill the gap
+			trail[index] = trail[--trailSize];
+			clear(cell);
+		}
+
+		@Override
+		public void addClue(final int cell, final int value) {
+			checkOpen();
+			if(value < 1 || value > unitSize) {
+				throw new IllegalArgumentException("Invalid clue value: " + value);
+			}
+			if(cells[cell] != 0) {
+				throw new IllegalArgumentException("Cell already has a clue: " + cell);
+			}
+			if(!placeClue(cell, 1 << (value - 1))) {
+				throw new IllegalArgumentException("Clue " + value + " conflicts at cell: " + cell);
+			}
+		}
+
+		@Override
+		public int countSolutions(final CancellationToken cancellationToken) {
+			checkOpen();
+			BitboardSolver.this.cancellationToken = cancellationToken;
+			solutionCount = 0;
+			timedOut = false;
+
+			final int clueCount = trailSize;
+			search();
+			undo(clueCount);
+			return timedOut? BruteForceSolver.TIMED_OUT : solutionCount;
+		}
+
+		@Override
+		public void close() {
+			if(!closed) {
+				closed = true;
+				activeSession = null;
+			}
+		}
+
+		private void checkOpen() {
+			if(closed) {
+				throw new IllegalStateException("The session is closed");
+			}
+		}
+	}
+
+	private void reset() {
+		if(activeSession != null) {
+			activeSession.close();
+		}
+		for(int i = 0; i < unitSize; ++i) {
+			rowUsed[i] = 0;
+			columnUsed[i] = 0;
+			boxUsed[i] = 0;
+		}
+		for(int i = 0; i < gridSize; ++i) {
+			cells[i] = 0;
+		}
+		trailSize = 0;
+		solutionCount = 0;
+		timedOut = false;
+	}
+
+	private void search() {
+		if(!propagate()) {
+			return;
+		}
+
+		int depth = 0;
+		boolean descend = true;
+
+		while(true) {
+			if((++searchStepCount & CANCELLATION_CHECK_MASK) == 0 && cancellationToken.isCancelled()) {
+				timedOut = true;
+				return;
+			}
+			if(descend) {
+				final int cell = getMostConstrainedCell();
+				if(cell == -1) {
+					//No empty cells left, a solution has been found
+					if(++solutionCount == 1) {
+						System.arraycopy(cells, 0, firstSolution, 0, gridSize);
+					}
+					descend = false;
+					continue;
+				}
+				guessCell[depth] = cell;
+				guessDigits[depth] = getCandidates(cell);
+				guessTrailMark[depth] = trailSize;
+			}
+			else {
+				if(depth == 0) {
+					return;
+				}
+				--depth;
+			}
+
+			//Try the remaining digits at the current level, until one of them doesn't lead to a contradiction
+			descend = false;
+			while(guessDigits[depth] != 0 && solutionCount < maxSolutions) {
+				undo(guessTrailMark[depth]);
+				final int digit = guessDigits[depth] & -guessDigits[depth];
+				guessDigits[depth] ^= digit;
+
+				place(guessCell[depth], digit);
+				if(propagate()) {
+					++depth;
+					descend = true;
+					break;
+				}
+			}
+		}
+	}
+
+	/*
+	 * Fill in all naked and hidden singles, until no more can be found.
+	 * Returns false if a contradiction was found (a cell or a house digit without candidates)
+	 */
+	private boolean propagate() {
+		boolean changed = true;
+		while(changed) {
+			changed = false;
+
+			//Naked singles
+			for(int cell = 0; cell < gridSize; ++cell) {
+				if(cells[cell] != 0) {
+					continue;
+				}
+				final int candidates = getCandidates(cell);
+				if(candidates == 0) {
+					return false;
+				}
+				if((candidates & (candidates - 1)) == 0) {
+					place(cell, candidates);
+					changed = true;
+				}
+			}
+
+			//Hidden singles
+			for(int house = 0; house < houseCells.length; ++house) {
+				final int[] members = houseCells[house];
+				int once = 0;
+				int twice = 0;
+				for(int i = 0; i < members.length; ++i) {
+					if(cells[members[i]] == 0) {
+						final int candidates = getCandidates(members[i]);
+						twice |= once & candidates;
+						once |= candidates;
+					}
+				}
+				final int used = getUsed(house);
+				if((once | used) != allDigits) {
+					//A digit can't be placed anywhere in this house
+					return false;
+				}
+				int singles = once & ~twice & ~used;
+				while(singles != 0) {
+					final int digit = singles & -singles;
+					singles ^= digit;
+					for(int i = 0; i < members.length; ++i) {
+						final int cell = members[i];
+						if(cells[cell] == 0 && (getCandidates(cell) & digit) != 0) {
+							place(cell, digit);
+							changed = true;
+							break;
+						}
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * Find an empty cell with fewest candidates, or -1 if all cells are filled in
+	 */
+	private int getMostConstrainedCell() {
+		int bestCell = -1;
+		int bestCount = Integer.MAX_VALUE;
+		for(int cell = 0; cell < gridSize; ++cell) {
+			if(cells[cell] != 0) {
+				continue;
+			}
+			final int count = Integer.bitCount(getCandidates(cell));
+			if(count < bestCount) {
+				bestCount = count;
+				bestCell = cell;
+				if(count <= 2) {
+					break;
+				}
+			}
+		}
+		return bestCell;
+	}
+
+	private int getCandidates(final int cell) {
+		return allDigits & ~(rowUsed[rowOf[cell]] | columnUsed[columnOf[cell]] | boxUsed[boxOf[cell]]);
+	}
+
+	private int getUsed(final int house) {
+		final int index = house % unitSize;
+		switch(house / unitSize) {
+		case ROW_HOUSE:
+			return rowUsed[index];
+		case COLUMN_HOUSE:
+			return columnUsed[index];
+		default:
+			return boxUsed[index];
+		}
+	}
+
+	//Place all clues of a puzzle, returns false if any of them conflict
+	private boolean placeClues(final int[] puzzle) {
+		for(int i = 0; i < gridSize; ++i) {
+			if(puzzle[i] > 0 && !placeClue(i, 1 << (puzzle[i] - 1))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean placeClue(final int cell, final int digit) {
+		if(((rowUsed[rowOf[cell]] | columnUsed[columnOf[cell]] | boxUsed[boxOf[cell]]) & digit) != 0) {
+			return false;
+		}
+		place(cell, digit);
+		return true;
+	}
+
+	private void place(final int cell, final int digit) {
+		cells[cell] = Integer.numberOfTrailingZeros(digit) + 1;
+		rowUsed[rowOf[cell]] |= digit;
+		columnUsed[columnOf[cell]] |= digit;
+		boxUsed[boxOf[cell]] |= digit;
+		trail[trailSize++] = cell;
+	}
+
+	//Empty all cells filled in after the trail had a given size
+	private void undo(final int trailMark) {
+		while(trailSize > trailMark) {
+			clear(trail[--trailSize]);
+		}
+	}
+
+	private void clear(final int cell) {
+		final int digit = ~(1 << (cells[cell] - 1));
+		rowUsed[rowOf[cell]] &= digit;
+		columnUsed[columnOf[cell]] &= digit;
+		boxUsed[boxOf[cell]] &= digit;
+		cells[cell] = 0;
+	}
+}
@@ -21,8 +21,8 @@
 package com.matic.sudoku.solver;
 
 /**
- * A brute force solver should implement this interface. Currently, only DlxSolver does this,
- * but other back-tracking solvers might be added in the future.
+ * A brute force solver should implement this interface. Available implementations
+ * are listed by SolverType.
  * @author vedran
  *
  */
@@ -33,5 +33,25 @@ public interface BruteForceSolver {
 	public static final int UNIQUE_SOLUTION = 1;
 	public static final int MULTIPLE_SOLUTIONS = 2;
 
+	//The search was cancelled or it's deadline passed before it completed
+	public static final int TIMED_OUT = -2;
+
 	int solve(final int[] puzzle);
-}
\ No newline at end of file
+
+	/**
+	 * Solve a given puzzle, giving up when the cancellation token gets cancelled
+	 * @param puzzle Puzzle to be solved, updated with the solution unless TIMED_OUT is returned
+	 * @param cancellationToken Token to check for cancellation while searching
+	 * @return Number of possible solutions, INVALID_PUZZLE or TIMED_OUT
+	 */
+	int solve(final int[] puzzle, final CancellationToken cancellationToken);
+
+	/**
+	 * Open an incremental session for a puzzle, for counting it's solutions repeatedly while
+	 * clues are removed and added. Opening a session closes any session opened before.
+	 * @param puzzle Puzzle with the initial clues, left unchanged
+	 * @return The opened session
+	 * @throws IllegalArgumentException If the puzzle has wrong dimension or conflicting clues
+	 */
+	SolverSession openSession(final int[] puzzle);
+}
@@ -0,0 +1,77 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.solver;
+
+import com.matic.sudoku.solver.LogicSolver.Grading;
+
+/**
+ * Solving and grading outcome of a puzzle, as stored by the SolutionCache.
+ *
+ * @author vedran
+ *
+ */
+public class CachedSolution {
+
+	private final int[] solution;
+	private final int solutionCount;
+	private final Grading grading;
+	private final int score;
+
+	public CachedSolution(final int[] solution, final int solutionCount,
+			final Grading grading, final int score) {
+		this.solution = solution;
+		this.solutionCount = solutionCount;
+		this.grading = grading;
+		this.score = score;
+	}
+
+	/**
+	 * Get the puzzle solution
+	 * @return A copy of the solution, or null if the puzzle has no unique solution
+	 */
+	public int[] getSolution() {
+		return solution == null? null : solution.clone();
+	}
+
+	/**
+	 * Get the brute force solver result for the puzzle
+	 * @return Number of solutions found or BruteForceSolver.INVALID_PUZZLE
+	 */
+	public int getSolutionCount() {
+		return solutionCount;
+	}
+
+	/**
+	 * Get the puzzle grading
+	 * @return Puzzle grading, or null if the puzzle can't be solved using logic only
+	 */
+	public Grading getGrading() {
+		return grading;
+	}
+
+	/**
+	 * Get the puzzle difficulty score
+	 * @return Difficulty score, or 0 if the puzzle can't be solved using logic only
+	 */
+	public int getScore() {
+		return score;
+	}
+}
@@ -0,0 +1,95 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.solver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signals solvers and generators to stop working, either when cancelled explicitly
+ * (possibly from another thread) or when an optional deadline has passed.
+ *
+ * Solvers poll the token every few hundred search steps and report TIMED_OUT when it is
+ * cancelled, so the cost of checking it is negligible.
+ *
+ * @author vedran
+ *
+ */
+public class CancellationToken {
+
+	/**
+	 * A token that is never cancelled, used when no cancellation is needed
+	 */
+	public static final CancellationToken NONE = new CancellationToken() {
+		@Override
+		public void cancel() {
+			throw new UnsupportedOperationException("The NONE token can't be cancelled");
+		}
+	};
+
+	private final long deadline;
+	private final boolean hasDeadline;
+
+	private volatile boolean cancelled;
+
+	/**
+	 * Create a token without a deadline, that is only cancelled by calling cancel()
+	 */
+	public CancellationToken() {
+		deadline = 0;
+		hasDeadline = false;
+		cancelled = false;
+	}
+
+	/**
+	 * Create a token that is cancelled automatically after the given timeout
+	 *
+	 * @param timeout How long until the token is cancelled, starting now
+	 * @param unit Time unit of the timeout
+	 */
+	public CancellationToken(final long timeout, final TimeUnit unit) {
+		deadline = System.nanoTime() + unit.toNanos(timeout);
+		hasDeadline = true;
+		cancelled = false;
+	}
+
+	/**
+	 * Cancel any work using this token
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Check whether the work using this token should stop
+	 *
+	 * @return true if cancelled or past the deadline, false otherwise
+	 */
+	public boolean isCancelled() {
+		if(cancelled) {
+			return true;
+		}
+		if(hasDeadline && System.nanoTime() - deadline >= 0) {
+			cancelled = true;
+			return true;
+		}
+		return false;
+	}
+}
@@ -28,6 +28,9 @@ package com.matic.sudoku.solver;
  */
 public class DlxSolver implements BruteForceSolver {
 	
+	//How often (in search steps) to check for cancellation, must be a power of 2 minus 1
+	private static final int CANCELLATION_CHECK_MASK = 0xFF;
+	
 	private final int[] puzzleSolution;
 	private final Node[][] matrixNodes;
 	private final Column[] columns;	
@@ -39,6 +42,10 @@ public class DlxSolver implements BruteForceSolver {
 	
 	private int solutionCount;
 	
+	private CancellationToken cancellationToken;
+	private boolean timedOut;
+	private int searchStepCount;
+	
 	private Column headColumn;
 	
 	/**
@@ -145,6 +152,18 @@ public class DlxSolver implements BruteForceSolver {
 	 */
 	@Override
 	public int solve(final int[] puzzle) {
+		return solve(puzzle, CancellationToken.NONE);
+	}
+	
+	/**
+	 * Solve a given puzzle (updates the puzzle with the solution, unless timed out)
+	 * @param puzzle Puzzle to be solved
+	 * @param cancellationToken Token to check for cancellation while searching
+	 * @return Number of possible solutions for the puzzle, INVALID_PUZZLE if puzzle has
+	 * wrong dimension or TIMED_OUT if the token got cancelled before the search completed
+	 */
+	@Override
+	public int solve(final int[] puzzle, final CancellationToken cancellationToken) {
 		if(puzzle.length != gridSize) {
 			return BruteForceSolver.INVALID_PUZZLE;
 		}
@@ -152,6 +171,8 @@ public class DlxSolver implements BruteForceSolver {
 		int k = 0;		
 		boolean noSolution = false;
 		solutionCount = 0;
+		timedOut = false;
+		this.cancellationToken = cancellationToken;
 
 		for(int i = 0; i < gridSize; ++i) {
 			if (puzzle[i] > 0) {
@@ -171,7 +192,7 @@ public class DlxSolver implements BruteForceSolver {
 		if(!noSolution) {
 			search(k);
 		}
-		if(solutionCount > 0) {
+		if(solutionCount > 0 && !timedOut) {
 			for (int i = 0; i < gridSize; ++i) {
 				int pos = puzzleSolution[i] / unitSize;
 				puzzle[pos] = puzzleSolution[i] % unitSize + 1;
@@ -182,7 +203,17 @@ public class DlxSolver implements BruteForceSolver {
 				uncover(matrixNodes[puzzleSolution[i]][j].column);
 			}
 		}
-		return solutionCount;
+		return timedOut? BruteForceSolver.TIMED_OUT : solutionCount;
+	}
+	
+	/**
+	 * Open a session that solves the whole puzzle again on each count
+	 * @param puzzle Puzzle with the initial clues, left unchanged
+	 * @return The opened session
+	 */
+	@Override
+	public SolverSession openSession(final int[] puzzle) {
+		return new RestartingSession(this, puzzle, boxSize);
 	}
 	
 	/**
@@ -207,6 +238,12 @@ public class DlxSolver implements BruteForceSolver {
 	 * @param k
 	 */
 	private void search(final int k) {
+		if((++searchStepCount & CANCELLATION_CHECK_MASK) == 0 && cancellationToken.isCancelled()) {
+			timedOut = true;
+		}
+		if(timedOut) {
+			return;
+		}
 		if(headColumn.rightColumn == headColumn) {
 			++solutionCount;
 			return;
@@ -221,7 +258,7 @@ public class DlxSolver implements BruteForceSolver {
 			}
 		}
 		cover(min);
-		for(Node r = min.down; r != min && solutionCount < maxSolutions; r = r.down) {
+		for(Node r = min.down; r != min && solutionCount < maxSolutions && !timedOut; r = r.down) {
 			if (solutionCount == 0) {
 				puzzleSolution[k] = r.row;
 			}
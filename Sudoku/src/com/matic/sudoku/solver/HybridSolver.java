@@ -0,0 +1,520 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.solver;
+
+import com.matic.sudoku.util.Peers;
+
+/**
+ * A back-tracking solver that runs cheap logic as constraint propagation after each guess.
+ * Each cell keeps it's candidates as a bit mask. Placing a digit eliminates it from the cell's
+ * peers, and naked singles, hidden singles and locked candidates (pointing and claiming) are
+ * applied until nothing more can be found. Guesses are made in the most constrained cell.
+ *
+ * Every candidate change is recorded in a trail, so backtracking only undoes the changes made
+ * after a guess and no state is ever copied. Solution counting follows the other brute force
+ * solvers (counting stops at maxSolutions).
+ *
+ * The number of guesses and the deepest guess nesting of the last search are available, and
+ * can be used as a fast (if coarse) secondary difficulty metric. Puzzles solvable with the
+ * applied logic alone need no guesses at all.
+ *
+ * The solver handles puzzles with up to 32 symbols per unit (dimensions 2 to 5).
+ *
+ * @author vedran
+ *
+ */
+public class HybridSolver implements BruteForceSolver {
+
+	//How often (in search steps) to check for cancellation, must be a power of 2 minus 1
+	private static final int CANCELLATION_CHECK_MASK = 0xFF;
+
+	private final int maxSolutions;
+	private final int gridSize;
+	private final int unitSize;
+	private final int boxSize;
+
+	//A mask with a bit set for each of the possible digits
+	private final int allDigits;
+
+	private final int[][] peers;
+
+	//Cell indexes contained by each house (all rows, then all columns, then all boxes)
+	private final int[][] houseCells;
+
+	//Current cell values (0 for empty cells) and candidates (0 for filled cells)
+	private final int[] cells;
+	private final int[] candidates;
+	private final int[] firstSolution;
+
+	//Candidates of each row (column) within each box it crosses, used for locked candidates
+	private final int[] rowSegments;
+	private final int[] columnSegments;
+
+	//Filled cells whose digit hasn't been eliminated from their peers yet
+	private final int[] pendingCells;
+	private int pendingCount;
+
+	/*
+	 * Changed cells and their previous candidates, in order of change (used for undoing).
+	 * A filled cell is stored as it's complemented index
+	 */
+	private final int[] trailCells;
+	private final int[] trailCandidates;
+	private int trailSize;
+
+	//Guess stack, holding the guessed cell, the digits left to try and the trail size per level
+	private final int[] guessCell;
+	private final int[] guessDigits;
+	private final int[] guessTrailMark;
+
+	private int solutionCount;
+	private int guessCount;
+	private int maxDepth;
+
+	private CancellationToken cancellationToken;
+	private boolean timedOut;
+	private int searchStepCount;
+
+	/**
+	 * Initialize the solver for a specific puzzle dimension
+	 * @param puzzleDimension The size/dimension of the puzzle
+	 * @param maxSolutions How many solutions are acceptable
+	 */
+	public HybridSolver(final int puzzleDimension, final int maxSolutions) {
+		this.maxSolutions = maxSolutions;
+
+		boxSize = puzzleDimension;
+		unitSize = boxSize * boxSize;
+		gridSize = unitSize * unitSize;
+
+		if(unitSize > Integer.SIZE) {
+			throw new IllegalArgumentException("Unsupported puzzle dimension: " + puzzleDimension);
+		}
+
+		allDigits = unitSize == Integer.SIZE? -1 : (1 << unitSize) - 1;
+		peers = Peers.getPeers(puzzleDimension);
+
+		houseCells = new int[unitSize * 3][unitSize];
+		for(int row = 0; row < unitSize; ++row) {
+			for(int column = 0; column < unitSize; ++column) {
+				final int cell = row * unitSize + column;
+				final int box = row / boxSize * boxSize + column / boxSize;
+				final int boxPosition = row % boxSize * boxSize + column % boxSize;
+
+				houseCells[row][column] = cell;
+				houseCells[unitSize + column][row] = cell;
+				houseCells[2 * unitSize + box][boxPosition] = cell;
+			}
+		}
+
+		cells = new int[gridSize];
+		candidates = new int[gridSize];
+		firstSolution = new int[gridSize];
+
+		rowSegments = new int[unitSize * boxSize];
+		columnSegments = new int[unitSize * boxSize];
+
+		pendingCells = new int[gridSize];
+
+		//Each empty cell loses a candidate at most unitSize - 1 times before it gets filled
+		trailCells = new int[gridSize * unitSize];
+		trailCandidates = new int[trailCells.length];
+
+		guessCell = new int[gridSize];
+		guessDigits = new int[gridSize];
+		guessTrailMark = new int[gridSize];
+	}
+
+	/**
+	 * Solve a given puzzle (updates the puzzle with the solution)
+	 * @param puzzle Puzzle to be solved
+	 * @return Number of possible solutions for the puzzle or INVALID_PUZZLE if puzzle has
+	 * wrong dimension
+	 */
+	@Override
+	public int solve(final int[] puzzle) {
+		return solve(puzzle, CancellationToken.NONE);
+	}
+
+	/**
+	 * Solve a given puzzle (updates the puzzle with the solution, unless timed out)
+	 * @param puzzle Puzzle to be solved
+	 * @param cancellationToken Token to check for cancellation while searching
+	 * @return Number of possible solutions for the puzzle, INVALID_PUZZLE if puzzle has
+	 * wrong dimension or TIMED_OUT if the token got cancelled before the search completed
+	 */
+	@Override
+	public int solve(final int[] puzzle, final CancellationToken cancellationToken) {
+		if(puzzle.length != gridSize) {
+			return BruteForceSolver.INVALID_PUZZLE;
+		}
+
+		reset();
+		this.cancellationToken = cancellationToken;
+
+		for(int i = 0; i < gridSize; ++i) {
+			if(puzzle[i] > 0) {
+				if(Peers.hasConflict(puzzle, boxSize, i, puzzle[i])) {
+					return BruteForceSolver.NO_SOLUTION;
+				}
+				place(i, 1 << (puzzle[i] - 1));
+			}
+		}
+
+		search();
+
+		if(timedOut) {
+			return BruteForceSolver.TIMED_OUT;
+		}
+		if(solutionCount > 0) {
+			System.arraycopy(firstSolution, 0, puzzle, 0, gridSize);
+		}
+		return solutionCount;
+	}
+
+	/**
+	 * Open a session that solves the whole puzzle again on each count, as setting up
+	 * a puzzle only takes a single pass over it's cells
+	 * @param puzzle Puzzle with the initial clues, left unchanged
+	 * @return The opened session
+	 */
+	@Override
+	public SolverSession openSession(final int[] puzzle) {
+		return new RestartingSession(this, puzzle, boxSize);
+	}
+
+	/**
+	 * Get the number of guesses made by the last search. Each digit tried in a guessed
+	 * cell counts as a guess
+	 * @return Guess count, 0 if the puzzle was solved by propagation alone
+	 */
+	public int getGuessCount() {
+		return guessCount;
+	}
+
+	/**
+	 * Get the deepest nesting of guesses reached by the last search
+	 * @return Maximum guess depth, 0 if the puzzle was solved by propagation alone
+	 */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	private void reset() {
+		for(int i = 0; i < gridSize; ++i) {
+			cells[i] = 0;
+			candidates[i] = allDigits;
+		}
+		pendingCount = 0;
+		trailSize = 0;
+		solutionCount = 0;
+		guessCount = 0;
+		maxDepth = 0;
+		timedOut = false;
+	}
+
+	private void search() {
+		if(!propagate()) {
+			return;
+		}
+
+		int depth = 0;
+		boolean descend = true;
+
+		while(true) {
+			if((++searchStepCount & CANCELLATION_CHECK_MASK) == 0 && cancellationToken.isCancelled()) {
+				timedOut = true;
+				return;
+			}
+			if(descend) {
+				final int cell = getMostConstrainedCell();
+				if(cell == -1) {
+					//No empty cells left, a solution has been found
+					if(++solutionCount == 1) {
+						System.arraycopy(cells, 0, firstSolution, 0, gridSize);
+					}
+					descend = false;
+					continue;
+				}
+				guessCell[depth] = cell;
+				guessDigits[depth] = candidates[cell];
+				guessTrailMark[depth] = trailSize;
+			}
+			else {
+				if(depth == 0) {
+					return;
+				}
+				--depth;
+			}
+
+			//Try the remaining digits at the current level, until one of them doesn't lead to a contradiction
+			descend = false;
+			while(guessDigits[depth] != 0 && solutionCount < maxSolutions) {
+				undo(guessTrailMark[depth]);
+				final int digit = guessDigits[depth] & -guessDigits[depth];
+				guessDigits[depth] ^= digit;
+
+				++guessCount;
+				place(guessCell[depth], digit);
+				if(propagate()) {
+					if(++depth > maxDepth) {
+						maxDepth = depth;
+					}
+					descend = true;
+					break;
+				}
+			}
+		}
+	}
+
+	/*
+	 * Eliminate the filled digits from their peers and apply hidden singles and locked candidates,
+	 * until no more changes can be made. Returns false if a contradiction was found
+	 */
+	private boolean propagate() {
+		while(true) {
+			while(pendingCount > 0) {
+				final int cell = pendingCells[--pendingCount];
+				final int value = cells[cell];
+				final int digit = 1 << (value - 1);
+				for(final int peer : peers[cell]) {
+					if(cells[peer] == value || !eliminate(peer, digit)) {
+						pendingCount = 0;
+						return false;
+					}
+				}
+			}
+
+			if(!applyHiddenSingles()) {
+				pendingCount = 0;
+				return false;
+			}
+			if(pendingCount > 0) {
+				continue;
+			}
+
+			final int trailMark = trailSize;
+			if(!applyLockedCandidates()) {
+				return false;
+			}
+			if(pendingCount == 0 && trailSize == trailMark) {
+				return true;
+			}
+		}
+	}
+
+	/*
+	 * Fill in the digits having a single possible cell in a house. Returns false if a digit
+	 * can't be placed anywhere in a house
+	 */
+	private boolean applyHiddenSingles() {
+		for(int house = 0; house < houseCells.length; ++house) {
+			final int[] members = houseCells[house];
+			int once = 0;
+			int twice = 0;
+			int used = 0;
+			for(final int cell : members) {
+				if(cells[cell] == 0) {
+					twice |= once & candidates[cell];
+					once |= candidates[cell];
+				}
+				else {
+					used |= 1 << (cells[cell] - 1);
+				}
+			}
+			if((once | used) != allDigits) {
+				return false;
+			}
+			int singles = once & ~twice & ~used;
+			while(singles != 0) {
+				final int digit = singles & -singles;
+				singles ^= digit;
+				final int cell = findCell(members, digit);
+				if(cell == -1) {
+					//The only possible cell was filled with another single of this house
+					return false;
+				}
+				place(cell, digit);
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * Eliminate candidates locked to a row or a column within a box (pointing) from the rest of
+	 * the line, and candidates locked to a box within a row or a column (claiming) from the rest
+	 * of the box. Returns false if a contradiction was found
+	 */
+	private boolean applyLockedCandidates() {
+		for(int line = 0; line < unitSize; ++line) {
+			for(int segment = 0; segment < boxSize; ++segment) {
+				int rowSegment = 0;
+				int columnSegment = 0;
+				for(int i = segment * boxSize; i < (segment + 1) * boxSize; ++i) {
+					rowSegment |= candidates[line * unitSize + i];
+					columnSegment |= candidates[i * unitSize + line];
+				}
+				rowSegments[line * boxSize + segment] = rowSegment;
+				columnSegments[line * boxSize + segment] = columnSegment;
+			}
+		}
+
+		for(int line = 0; line < unitSize; ++line) {
+			for(int segment = 0; segment < boxSize; ++segment) {
+				if(!applyLockedCandidates(rowSegments, line, segment, true)
+						|| !applyLockedCandidates(columnSegments, line, segment, false)) {
+					pendingCount = 0;
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private boolean applyLockedCandidates(final int[] segments, final int line, final int segment,
+			final boolean isRow) {
+		final int digits = segments[line * boxSize + segment];
+		if(digits == 0) {
+			return true;
+		}
+
+		int lineRest = 0;
+		for(int i = 0; i < boxSize; ++i) {
+			if(i != segment) {
+				lineRest |= segments[line * boxSize + i];
+			}
+		}
+		int boxRest = 0;
+		final int firstLine = line / boxSize * boxSize;
+		for(int i = firstLine; i < firstLine + boxSize; ++i) {
+			if(i != line) {
+				boxRest |= segments[i * boxSize + segment];
+			}
+		}
+
+		//Digits locked to this line within the box are eliminated from the rest of the line
+		final int pointing = digits & ~boxRest;
+		if(pointing != 0) {
+			for(int i = 0; i < unitSize; ++i) {
+				if(i / boxSize != segment && !eliminate(getCell(line, i, isRow), pointing)) {
+					return false;
+				}
+			}
+		}
+
+		//Digits locked to the box within this line are eliminated from the rest of the box
+		final int claiming = digits & ~lineRest;
+		if(claiming != 0) {
+			for(int i = firstLine; i < firstLine + boxSize; ++i) {
+				if(i == line) {
+					continue;
+				}
+				for(int j = segment * boxSize; j < (segment + 1) * boxSize; ++j) {
+					if(!eliminate(getCell(i, j, isRow), claiming)) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	private int getCell(final int line, final int position, final boolean isRow) {
+		return isRow? line * unitSize + position : position * unitSize + line;
+	}
+
+	private int findCell(final int[] members, final int digit) {
+		for(final int cell : members) {
+			if((candidates[cell] & digit) != 0) {
+				return cell;
+			}
+		}
+		return -1;
+	}
+
+	/*
+	 * Find an empty cell with fewest candidates, or -1 if all cells are filled in
+	 */
+	private int getMostConstrainedCell() {
+		int bestCell = -1;
+		int bestCount = Integer.MAX_VALUE;
+		for(int cell = 0; cell < gridSize; ++cell) {
+			if(cells[cell] != 0) {
+				continue;
+			}
+			final int count = Integer.bitCount(candidates[cell]);
+			if(count < bestCount) {
+				bestCount = count;
+				bestCell = cell;
+				if(count <= 2) {
+					break;
+				}
+			}
+		}
+		return bestCell;
+	}
+
+	/*
+	 * Remove digits from a cell's candidates, filling in the cell if a single candidate is left.
+	 * Returns false if no candidates are left
+	 */
+	private boolean eliminate(final int cell, final int digits) {
+		final int oldCandidates = candidates[cell];
+		if((oldCandidates & digits) == 0) {
+			return true;
+		}
+		trailCells[trailSize] = cell;
+		trailCandidates[trailSize++] = oldCandidates;
+
+		final int newCandidates = oldCandidates & ~digits;
+		candidates[cell] = newCandidates;
+		if(newCandidates == 0) {
+			return false;
+		}
+		if((newCandidates & (newCandidates - 1)) == 0) {
+			place(cell, newCandidates);
+		}
+		return true;
+	}
+
+	private void place(final int cell, final int digit) {
+		trailCells[trailSize] = ~cell;
+		trailCandidates[trailSize++] = candidates[cell];
+
+		cells[cell] = Integer.numberOfTrailingZeros(digit) + 1;
+		candidates[cell] = 0;
+		pendingCells[pendingCount++] = cell;
+	}
+
+	//Undo all changes made after the trail had a given size
+	private void undo(final int trailMark) {
+		while(trailSize > trailMark) {
+			final int cell = trailCells[--trailSize];
+			if(cell < 0) {
+				cells[~cell] = 0;
+				candidates[~cell] = trailCandidates[trailSize];
+			}
+			else {
+				candidates[cell] = trailCandidates[trailSize];
+			}
+		}
+	}
+}
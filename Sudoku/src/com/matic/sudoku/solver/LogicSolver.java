@@ -20,6 +20,9 @@
 
 package com.matic.sudoku.solver;
 
+import java.util.List;
+import java.util.SplittableRandom;
+
 import com.matic.sudoku.Resources;
 import com.matic.sudoku.logic.Candidates;
 import com.matic.sudoku.logic.strategy.HiddenSingles;
@@ -51,6 +54,9 @@ public class LogicSolver {
 	public static final int NO_SOLUTION = 0;
 	public static final int UNIQUE_SOLUTION = 1;
 
+	// Solving was cancelled or it's deadline passed before it completed
+	public static final int TIMED_OUT = -2;
+
 	// Puzzle grading constants
 	public enum Grading {
 		EASY(Resources.getTranslation("puzzle.easy")), 
@@ -80,20 +86,38 @@ public class LogicSolver {
 			throw new IllegalArgumentException("No grading with description " + grading + " found");
 		}
 		
-		public static Grading getRandom() {
-			return values()[(int)(Math.random() * values().length)];
+		public static Grading getRandom(final SplittableRandom random) {
+			return values()[random.nextInt(values().length)];
 		}
 	}
 	
+	/**
+	 * How the strategies are applied while solving
+	 */
+	public enum Mode {
+		//A single step at a time, restarting from the simplest strategy after each one
+		SINGLE_STEP,
+		//All of the steps a strategy can find at once, before restarting from the simplest strategy.
+		//Faster for solving larger puzzles, but each such sweep is scored as a single use of the
+		//strategy, so the grading is only an estimate and often lower than the single step one.
+		//Use SINGLE_STEP whenever the grading matters
+		EXHAUSTIVE
+	}
+	
 	//TODO: Determine real grading scores for Expert and Diabolic puzzles
 	//Difficulty grading thresholds
 	private static final double MODERATE_THRESHOLD = 70;
 	private static final double HARD_THRESHOLD = 580;
 	private static final double EXPERT_THRESHOLD = 2800;
 	private static final double DIABOLIC_THRESHOLD = 20000;
+	
+	//The thresholds apply to 9x9 puzzles. Larger puzzles have more cells to fill in with singles,
+	//so their thresholds are raised by the score of an easy 9x9 puzzle per each extra 81 cells
+	private static final double THRESHOLD_CELL_COUNT = 81;
 
 	private final int dimension;
 	private final int unit;
+	private final double thresholdOffset;
 	
 	//Indicates most advanced strategy level required for solving a puzzle
 	private int highestLevelRequired;
@@ -104,14 +128,22 @@ public class LogicSolver {
 	//After a unique solution is found by solve(), this contains the puzzle difficulty grading
 	private Grading grading;
 	
+	//After a unique solution is found by solve(), this contains the puzzle difficulty score
+	private int score;
+	
 	private final LogicStrategy[] solutionStrategies;
 	
+	private Mode mode;
+	
 	private Candidates candidates;
 	
 	public LogicSolver(final int dimension) {
 		this.dimension = dimension;
 		unit = dimension * dimension;
+		thresholdOffset = Math.max(0, unit * unit / THRESHOLD_CELL_COUNT - 1) * MODERATE_THRESHOLD;
 		grading = Grading.DIABOLIC;
+		score = 0;
+		mode = Mode.SINGLE_STEP;
 		
 		candidates = null;				
 	
@@ -158,6 +190,18 @@ public class LogicSolver {
 		}
 	}
 
+	/**
+	 * Set how the strategies are applied by solve(). Hints are always found a single step at a time.
+	 * @param mode Solving mode
+	 */
+	public void setMode(final Mode mode) {
+		this.mode = mode;
+	}
+	
+	public Mode getMode() {
+		return mode;
+	}
+
 	/** Get the current state of candidates
 		@return current candidates or null if no puzzle solving attempt was made so far
 	 */
@@ -174,22 +218,44 @@ public class LogicSolver {
 		return grading;
 	}
 	
+	/**
+	 * If a puzzle has a unique solution when solved, this method gives the difficulty
+	 * score the grading of that puzzle was based on.
+	 * @return Puzzle difficulty score
+	 */
+	public int getScore() {
+		return score;
+	}
+	
 	/**
 	 * Solve and grade a puzzle's difficulty depending on used solving strategies.
 	 * @param puzzle Puzzle to grade
 	 * @return Whether the puzzle has unique, multiple, or no solutions
 	 */
-	public int solve(final int[][] puzzle) {		
-		/*TODO: Check if empty board/invalid length, before solving (emptyCellsLeft) 
+	public int solve(final int[] puzzle) {
+		return solve(puzzle, CancellationToken.NONE);
+	}
+	
+	/**
+	 * Solve and grade a puzzle's difficulty, giving up when the cancellation token gets cancelled.
+	 * The token is checked before each solution step.
+	 * @param puzzle Puzzle to grade, with the cells listed row by row. Solved cells are filled in
+	 * @param cancellationToken Token to check for cancellation
+	 * @return Whether the puzzle has unique, multiple, or no solutions, TIMED_OUT, or INVALID_PUZZLE
+	 * if the puzzle has wrong dimension
+	 */
+	public int solve(final int[] puzzle, final CancellationToken cancellationToken) {		
+		/*TODO: Check if empty board before solving (emptyCellsLeft) 
 				(Only when "Grading" requested by player)*/		
+		if(puzzle.length != unit * unit) {
+			return INVALID_PUZZLE;
+		}
 		int emptyCellsLeft = 0;		
-		for(int i = 0; i < unit; ++i) {
-			for(int j = 0; j < unit; ++j) {
-				//Count all empty cells so that we know when we have solved a puzzle
-				//(we have when there are no empty cells left, i.e. emptyCellsLeft == 0)
-				if(puzzle[j][i] == 0) {
-					++emptyCellsLeft;
-				}
+		for(int i = 0; i < puzzle.length; ++i) {
+			//Count all empty cells so that we know when we have solved a puzzle
+			//(we have when there are no empty cells left, i.e. emptyCellsLeft == 0)
+			if(puzzle[i] == 0) {
+				++emptyCellsLeft;
 			}
 		}
 			
@@ -199,14 +265,32 @@ public class LogicSolver {
 		//[solutionStrategies[i]][times_run, times_successful]
 		final int[][] strategyStats = new int[solutionStrategies.length][2];
 				
-		while(true) {			
-			boolean strategySuccess = false;			
-			for(int i = 0; i <= maxGradingLevel; ++i) {				
-				strategySuccess = solutionStrategies[i].apply(puzzle, candidates);
-				
+		while(true) {
+			if(cancellationToken.isCancelled()) {
+				return TIMED_OUT;
+			}
+			boolean strategySuccess = false;
+			//Restart from the simplest strategy after each step. The strategies only check the houses
+			//changed since they last found nothing in them, which keeps the grading unchanged
+			for(int i = 0; i <= maxGradingLevel; ++i) {
 				//Update total times run count for this strategy
 				++strategyStats[i][0];
 				
+				int successCount = 0;
+				if(mode == Mode.EXHAUSTIVE) {
+					final List<Step> steps = solutionStrategies[i].applyAll(puzzle, candidates);
+					for(final Step step : steps) {
+						if(step.isSingleFound()) {
+							--emptyCellsLeft;
+						}
+					}
+					successCount = steps.isEmpty()? 0 : 1;
+				}
+				else if(solutionStrategies[i].apply(puzzle, candidates)) {
+					successCount = 1;
+				}
+				strategySuccess = successCount > 0;
+				
 				if(solutionStrategies[i].getDidFindSingle()) {
 					--emptyCellsLeft;
 					solutionStrategies[i].setDidFindSingle(false);
@@ -214,13 +298,13 @@ public class LogicSolver {
 				
 				if(strategySuccess) {					
 					//Update success count for this strategy
-					++strategyStats[i][1];
+					strategyStats[i][1] += successCount;
 					
 					if(i > highestLevelRequired) {
 						highestLevelRequired = i;
 					}
 					if(emptyCellsLeft == 0) {						
-						final int score = getDifficultyScore(solutionStrategies, strategyStats);
+						score = getDifficultyScore(solutionStrategies, strategyStats);
 						grading = calculateGrading(score);						
 						
 						return UNIQUE_SOLUTION;												
@@ -241,7 +325,7 @@ public class LogicSolver {
 	 * @param nextDigit Whether next step must reveal a digit
 	 * @return The solution strategy required or null if puzzle can't be solved 
 	 */
-	public LogicStrategy nextStep(final int[][] puzzle, final boolean nextDigit) {
+	public LogicStrategy nextStep(final int[] puzzle, final boolean nextDigit) {
 		candidates = new Candidates(dimension, puzzle);
 		while(true) {
 			for(int i = 0; i <= maxGradingLevel; ++i) {
@@ -266,7 +350,7 @@ public class LogicSolver {
 	 * @param puzzle The puzzle for which to get a hint
 	 * @return The hint or null if no hints are available
 	 */
-	public Hint getHint(final int[][] puzzle) {
+	public Hint getHint(final int[] puzzle) {
 		final LogicStrategy strategy = nextStep(puzzle, false);	
 		
 		if(strategy == null) {
@@ -280,16 +364,16 @@ public class LogicSolver {
 	}
 	
 	private Grading calculateGrading(final int difficultyScore) {
-		if(difficultyScore < MODERATE_THRESHOLD) {
+		if(difficultyScore < MODERATE_THRESHOLD + thresholdOffset) {
 			return Grading.EASY;
 		}
-		if(difficultyScore < HARD_THRESHOLD) {
+		if(difficultyScore < HARD_THRESHOLD + thresholdOffset) {
 			return Grading.MODERATE;
 		}
-		if(difficultyScore < EXPERT_THRESHOLD) {
+		if(difficultyScore < EXPERT_THRESHOLD + thresholdOffset) {
 			return Grading.HARD;
 		}
-		if(difficultyScore < DIABOLIC_THRESHOLD) {
+		if(difficultyScore < DIABOLIC_THRESHOLD + thresholdOffset) {
 			return Grading.EXPERT;
 		}
 		return Grading.DIABOLIC;
@@ -0,0 +1,225 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Dancing Links solver that searches on multiple cores. The search tree is split at
+ * the first few branching levels into fork-join tasks, each of which searches it's own
+ * copy of the exact cover matrix. A solution counter shared by all tasks stops the
+ * search as soon as maxSolutions solutions have been found.
+ *
+ * The solution count is the same as for the sequential solvers. When a puzzle has more than
+ * one solution, the solution written back may be any of the found solutions.
+ *
+ * @author vedran
+ *
+ */
+public class ParallelDlxSolver implements BruteForceSolver {
+
+	//How many search levels to split into parallel tasks, by default
+	public static final int DEFAULT_SPLIT_LEVELS = 2;
+
+	private static final ForkJoinPool DEFAULT_POOL = new ForkJoinPool();
+
+	//Holds the matrix for a puzzle's givens, copied by the search tasks
+	private final ArrayDlxSolver rootSolver;
+
+	private final ForkJoinPool pool;
+	private final int boxSize;
+	private final int maxSolutions;
+	private final int splitLevels;
+
+	/**
+	 * Initialize the solver for a specific puzzle dimension, using a shared fork-join pool
+	 * with one thread per available processor
+	 * @param puzzleDimension The size/dimension of the puzzle
+	 * @param maxSolutions How many solutions are acceptable
+	 */
+	public ParallelDlxSolver(final int puzzleDimension, final int maxSolutions) {
+		this(puzzleDimension, maxSolutions, DEFAULT_POOL, DEFAULT_SPLIT_LEVELS);
+	}
+
+	/**
+	 * Initialize the solver for a specific puzzle dimension
+	 * @param puzzleDimension The size/dimension of the puzzle
+	 * @param maxSolutions How many solutions are acceptable
+	 * @param pool Fork-join pool to run the search tasks in
+	 * @param splitLevels How many search levels to split into parallel tasks
+	 */
+	public ParallelDlxSolver(final int puzzleDimension, final int maxSolutions,
+			final ForkJoinPool pool, final int splitLevels) {
+		this.maxSolutions = maxSolutions;
+		this.pool = pool;
+		boxSize = puzzleDimension;
+		this.splitLevels = splitLevels;
+
+		rootSolver = new ArrayDlxSolver(puzzleDimension, maxSolutions);
+	}
+
+	/**
+	 * Solve a given puzzle (updates the puzzle with the solution)
+	 * @param puzzle Puzzle to be solved
+	 * @return Number of possible solutions for the puzzle or INVALID_PUZZLE if puzzle has
+	 * wrong dimension
+	 */
+	@Override
+	public int solve(final int[] puzzle) {
+		return solve(puzzle, CancellationToken.NONE);
+	}
+
+	/**
+	 * Solve a given puzzle (updates the puzzle with the solution, unless timed out)
+	 * @param puzzle Puzzle to be solved
+	 * @param cancellationToken Token to check for cancellation while searching
+	 * @return Number of possible solutions for the puzzle, INVALID_PUZZLE if puzzle has
+	 * wrong dimension or TIMED_OUT if the token got cancelled before the search completed
+	 */
+	@Override
+	public int solve(final int[] puzzle, final CancellationToken cancellationToken) {
+		if(puzzle.length != rootSolver.getGridSize()) {
+			return BruteForceSolver.INVALID_PUZZLE;
+		}
+
+		//The search solver inherits the cancellation token from the root solver
+		final ArrayDlxSolver searchSolver;
+		if(rootSolver.startSearch(puzzle, cancellationToken)) {
+			searchSolver = new ArrayDlxSolver(rootSolver);
+		}
+		else {
+			searchSolver = null;
+		}
+		rootSolver.endSearch();
+
+		if(searchSolver == null) {
+			return BruteForceSolver.NO_SOLUTION;
+		}
+
+		final SearchState searchState = new SearchState(cancellationToken);
+		pool.invoke(new SearchTask(searchSolver, splitLevels, searchState));
+
+		if(searchState.timedOut.get()) {
+			return BruteForceSolver.TIMED_OUT;
+		}
+		final int[] solution = searchState.firstSolution.get();
+		if(solution != null) {
+			System.arraycopy(solution, 0, puzzle, 0, puzzle.length);
+		}
+		return Math.min(searchState.solutionCount.get(), maxSolutions);
+	}
+
+	/**
+	 * Open a session that solves the whole puzzle again on each count
+	 * @param puzzle Puzzle with the initial clues, left unchanged
+	 * @return The opened session
+	 */
+	@Override
+	public SolverSession openSession(final int[] puzzle) {
+		return new RestartingSession(this, puzzle, boxSize);
+	}
+
+	/*
+	 * State shared by all search tasks solving the same puzzle
+	 */
+	private static class SearchState {
+		final AtomicInteger solutionCount = new AtomicInteger();
+		final AtomicReference<int[]> firstSolution = new AtomicReference<>();
+		final AtomicBoolean timedOut = new AtomicBoolean();
+		final CancellationToken cancellationToken;
+
+		SearchState(final CancellationToken cancellationToken) {
+			this.cancellationToken = cancellationToken;
+		}
+	}
+
+	/*
+	 * Searches the subtree below a partial solution, splitting it further
+	 * into subtasks while there are split levels left
+	 */
+	private class SearchTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final ArrayDlxSolver solver;
+		private final int splitLevels;
+		private final SearchState searchState;
+
+		SearchTask(final ArrayDlxSolver solver, final int splitLevels, final SearchState searchState) {
+			this.solver = solver;
+			this.splitLevels = splitLevels;
+			this.searchState = searchState;
+		}
+
+		@Override
+		protected void compute() {
+			if(searchState.solutionCount.get() >= maxSolutions || searchState.timedOut.get()) {
+				return;
+			}
+			if(searchState.cancellationToken.isCancelled()) {
+				searchState.timedOut.set(true);
+				return;
+			}
+			if(splitLevels == 0 || solver.isSolved()) {
+				search();
+				return;
+			}
+
+			final int col = solver.chooseColumn();
+			if(solver.getColumnSize(col) == 0) {
+				return;
+			}
+
+			//The last row is searched using this task's own matrix, the others on copies
+			final int[] rows = solver.getColumnRows(col);
+			final List<SearchTask> subtasks = new ArrayList<>(rows.length);
+			for(int i = 0; i < rows.length; ++i) {
+				final ArrayDlxSolver subtaskSolver = i < rows.length - 1? new ArrayDlxSolver(solver) : solver;
+				subtaskSolver.branch(col, rows[i]);
+				subtasks.add(new SearchTask(subtaskSolver, splitLevels - 1, searchState));
+			}
+			invokeAll(subtasks);
+		}
+
+		private void search() {
+			final AtomicInteger solutionCount = searchState.solutionCount;
+			final AtomicReference<int[]> firstSolution = searchState.firstSolution;
+
+			solver.setSharedSolutionCount(solutionCount);
+			while(solutionCount.get() < maxSolutions && solver.nextSolution()) {
+				if(solutionCount.incrementAndGet() <= maxSolutions && firstSolution.get() == null) {
+					final int[] solution = new int[solver.getGridSize()];
+					solver.storeSolution(solution);
+					firstSolution.compareAndSet(null, solution);
+				}
+			}
+			if(solver.isTimedOut()) {
+				searchState.timedOut.set(true);
+			}
+		}
+	}
+}
@@ -0,0 +1,98 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.solver;
+
+import com.matic.sudoku.util.Peers;
+
+/**
+ * A solver session that keeps track of the clues and solves the whole puzzle again on each
+ * count. Used by solvers for which setting up a puzzle costs little compared to the search.
+ *
+ * @author vedran
+ *
+ */
+class RestartingSession implements SolverSession {
+
+	private final BruteForceSolver solver;
+	private final int[] puzzle;
+	private final int[] solverInput;
+	private final int unitSize;
+	private final int boxSize;
+
+	private boolean closed;
+
+	RestartingSession(final BruteForceSolver solver, final int[] puzzle, final int boxSize) {
+		this.solver = solver;
+		this.boxSize = boxSize;
+		unitSize = boxSize * boxSize;
+
+		if(puzzle.length != unitSize * unitSize) {
+			throw new IllegalArgumentException("Invalid puzzle size: " + puzzle.length);
+		}
+		this.puzzle = new int[puzzle.length];
+		solverInput = new int[puzzle.length];
+		closed = false;
+		for(int cell = 0; cell < puzzle.length; ++cell) {
+			if(puzzle[cell] > 0) {
+				addClue(cell, puzzle[cell]);
+			}
+		}
+	}
+
+	@Override
+	public void removeClue(final int cell) {
+		checkOpen();
+		if(puzzle[cell] == 0) {
+			throw new IllegalArgumentException("No clue at cell: " + cell);
+		}
+		puzzle[cell] = 0;
+	}
+
+	@Override
+	public void addClue(final int cell, final int value) {
+		checkOpen();
+		if(puzzle[cell] != 0) {
+			throw new IllegalArgumentException("Cell already has a clue: " + cell);
+		}
+		if(Peers.hasConflict(puzzle, boxSize, cell, value)) {
+			throw new IllegalArgumentException("Clue " + value + " conflicts at cell: " + cell);
+		}
+		puzzle[cell] = value;
+	}
+
+	@Override
+	public int countSolutions(final CancellationToken cancellationToken) {
+		checkOpen();
+		System.arraycopy(puzzle, 0, solverInput, 0, puzzle.length);
+		return solver.solve(solverInput, cancellationToken);
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+	}
+
+	private void checkOpen() {
+		if(closed) {
+			throw new IllegalStateException("The session is closed");
+		}
+	}
+}
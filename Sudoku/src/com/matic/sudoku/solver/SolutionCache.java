@@ -0,0 +1,453 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.solver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.matic.sudoku.solver.LogicSolver.Grading;
+
+/**
+ * A bounded cache of puzzle solving and grading results, so that puzzles that are opened or
+ * verified repeatedly don't need to be solved again each time.
+ *
+ * The least recently used results are evicted when the cache is full. If a spill directory
+ * is set, evicted results are written to it and read back when the puzzle is requested again,
+ * which also lets the results outlive the application when flush() is called on exit. The spill
+ * directory is bounded as well, the least recently used spill files are deleted when there are
+ * too many of them.
+ *
+ * All methods are thread-safe. Disk access is done outside of the cache's lock, so threads
+ * finding their results in memory are never kept waiting on the disk.
+ *
+ * @author vedran
+ *
+ */
+public class SolutionCache {
+
+	public static final int DEFAULT_MAX_ENTRIES = 1000;
+	public static final int DEFAULT_MAX_SPILL_FILES = 5000;
+
+	private static final String SPILL_FILE_SUFFIX = ".cache";
+	private static final String TEMP_FILE_PREFIX = "spill";
+	private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+	//How many spills may happen between two checks of the spill directory size, as a part of it's limit
+	private static final int TRIM_INTERVAL_DIVISOR = 10;
+
+	private final Map<Fingerprint, CachedSolution> entries;
+
+	//Results in memory that are not in the spill directory yet
+	private final Set<Fingerprint> unspilledEntries;
+
+	//Results evicted while holding the lock, spilled after releasing it
+	private final List<Map.Entry<Fingerprint, CachedSolution>> evictedEntries;
+
+	private final File spillDirectory;
+	private final int maxSpillFiles;
+	private final int trimInterval;
+	private final AtomicInteger spillsSinceTrim;
+
+	/**
+	 * Create an in-memory cache
+	 * @param maxEntries Maximum number of results to keep in memory
+	 */
+	public SolutionCache(final int maxEntries) {
+		this(maxEntries, null);
+	}
+
+	/**
+	 * Create a cache that spills evicted results to disk, keeping at most DEFAULT_MAX_SPILL_FILES
+	 * results there
+	 * @param maxEntries Maximum number of results to keep in memory
+	 * @param spillDirectory Directory to write evicted results to, or null to discard them
+	 */
+	public SolutionCache(final int maxEntries, final File spillDirectory) {
+		this(maxEntries, spillDirectory, DEFAULT_MAX_SPILL_FILES);
+	}
+
+	/**
+	 * Create a cache that spills evicted results to disk
+	 * @param maxEntries Maximum number of results to keep in memory
+	 * @param spillDirectory Directory to write evicted results to, or null to discard them
+	 * @param maxSpillFiles Maximum number of results to keep in the spill directory. It may be
+	 * exceeded by a tenth until the next check of the directory
+	 */
+	public SolutionCache(final int maxEntries, final File spillDirectory, final int maxSpillFiles) {
+		if(maxEntries < 1) {
+			throw new IllegalArgumentException("Cache size must be positive: " + maxEntries);
+		}
+		if(maxSpillFiles < 1) {
+			throw new IllegalArgumentException("Spill file limit must be positive: " + maxSpillFiles);
+		}
+		this.spillDirectory = spillDirectory;
+		this.maxSpillFiles = maxSpillFiles;
+		trimInterval = Math.max(1, maxSpillFiles / TRIM_INTERVAL_DIVISOR);
+		spillsSinceTrim = new AtomicInteger();
+		unspilledEntries = new HashSet<>();
+		evictedEntries = new ArrayList<>();
+
+		entries = new LinkedHashMap<Fingerprint, CachedSolution>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Fingerprint, CachedSolution> eldest) {
+				if(size() <= maxEntries) {
+					return false;
+				}
+				//Results read from the spill directory are still there, only new ones are written
+				if(unspilledEntries.remove(eldest.getKey())) {
+					evictedEntries.add(new SimpleImmutableEntry<>(eldest.getKey(), eldest.getValue()));
+				}
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Get the solving and grading results for a puzzle, solving it only if the results
+	 * are not in the cache already. The logic solver is used with all of it's strategies.
+	 *
+	 * @param puzzle Puzzle to look up, left unchanged
+	 * @param bruteForceSolver Solver to count the solutions with, on a cache miss
+	 * @param logicSolver Solver to grade the puzzle with, on a cache miss
+	 * @return Cached or newly found results for the puzzle
+	 */
+	public CachedSolution solve(final int[] puzzle, final BruteForceSolver bruteForceSolver,
+			final LogicSolver logicSolver) {
+		final Fingerprint fingerprint = new Fingerprint(puzzle);
+		CachedSolution result = get(fingerprint);
+		if(result != null) {
+			return result;
+		}
+
+		final int[] solution = puzzle.clone();
+		final int solutionCount = bruteForceSolver.solve(solution);
+
+		Grading grading = null;
+		int score = 0;
+		if(solutionCount == BruteForceSolver.UNIQUE_SOLUTION) {
+			logicSolver.setMaxGradingLevel(Grading.DIABOLIC);
+			if(logicSolver.solve(puzzle.clone()) == LogicSolver.UNIQUE_SOLUTION) {
+				grading = logicSolver.getGrading();
+				score = logicSolver.getScore();
+			}
+		}
+
+		result = new CachedSolution(solutionCount == BruteForceSolver.UNIQUE_SOLUTION? solution : null,
+				solutionCount, grading, score);
+		put(fingerprint, result);
+		return result;
+	}
+
+	/**
+	 * Get the cached results for a puzzle
+	 * @param puzzle Puzzle to look up
+	 * @return Cached results, or null if the puzzle is not in the cache
+	 */
+	public CachedSolution get(final int[] puzzle) {
+		return get(new Fingerprint(puzzle));
+	}
+
+	/**
+	 * Store results for a puzzle, replacing any previous results
+	 * @param puzzle Puzzle to store the results for
+	 * @param result Results to store
+	 */
+	public void put(final int[] puzzle, final CachedSolution result) {
+		put(new Fingerprint(puzzle), result);
+	}
+
+	/**
+	 * Get the number of results held in memory
+	 * @return Number of results in memory
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Write the results held in memory to the spill directory, if there is one, and delete the
+	 * least recently used spill files above the limit
+	 */
+	public void flush() {
+		final List<Map.Entry<Fingerprint, CachedSolution>> unspilled = new ArrayList<>();
+		synchronized(this) {
+			for(final Map.Entry<Fingerprint, CachedSolution> entry : entries.entrySet()) {
+				if(unspilledEntries.contains(entry.getKey())) {
+					unspilled.add(new SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+				}
+			}
+			unspilledEntries.clear();
+		}
+		spill(unspilled);
+		trimSpillDirectory();
+	}
+
+	/**
+	 * Remove all results from memory (but not the ones spilled to disk)
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		unspilledEntries.clear();
+	}
+
+	private CachedSolution get(final Fingerprint fingerprint) {
+		synchronized(this) {
+			final CachedSolution result = entries.get(fingerprint);
+			if(result != null) {
+				return result;
+			}
+		}
+
+		final CachedSolution loaded = load(fingerprint);
+		if(loaded == null) {
+			return null;
+		}
+		final List<Map.Entry<Fingerprint, CachedSolution>> evicted;
+		synchronized(this) {
+			//Another thread may have stored the same puzzle while this one was reading
+			final CachedSolution result = entries.get(fingerprint);
+			if(result != null) {
+				return result;
+			}
+			entries.put(fingerprint, loaded);
+			evicted = takeEvictedEntries();
+		}
+		spill(evicted);
+		return loaded;
+	}
+
+	private void put(final Fingerprint fingerprint, final CachedSolution result) {
+		final List<Map.Entry<Fingerprint, CachedSolution>> evicted;
+		synchronized(this) {
+			entries.put(fingerprint, result);
+			unspilledEntries.add(fingerprint);
+			evicted = takeEvictedEntries();
+		}
+		spill(evicted);
+	}
+
+	//Must be called while holding the lock
+	private List<Map.Entry<Fingerprint, CachedSolution>> takeEvictedEntries() {
+		final List<Map.Entry<Fingerprint, CachedSolution>> evicted = new ArrayList<>(evictedEntries);
+		evictedEntries.clear();
+		return evicted;
+	}
+
+	private void spill(final List<Map.Entry<Fingerprint, CachedSolution>> spilledEntries) {
+		if(spilledEntries.isEmpty() || spillDirectory == null ||
+				!(spillDirectory.isDirectory() || spillDirectory.mkdirs())) {
+			return;
+		}
+		for(final Map.Entry<Fingerprint, CachedSolution> entry : spilledEntries) {
+			spill(entry.getKey(), entry.getValue());
+		}
+		if(spillsSinceTrim.addAndGet(spilledEntries.size()) >= trimInterval) {
+			trimSpillDirectory();
+		}
+	}
+
+	private void spill(final Fingerprint fingerprint, final CachedSolution result) {
+		//Write to a file of it's own first, so that concurrent readers never see a partial result
+		File tempFile = null;
+		try {
+			tempFile = File.createTempFile(TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX, spillDirectory);
+			try(final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(tempFile)))) {
+				writeValues(output, fingerprint.values);
+				output.writeInt(result.getSolutionCount());
+				final int[] solution = result.getSolution();
+				writeValues(output, solution == null? new byte[0] : Fingerprint.pack(solution));
+				final Grading grading = result.getGrading();
+				output.writeUTF(grading == null? "" : grading.name());
+				output.writeInt(result.getScore());
+			}
+			Files.move(tempFile.toPath(), getSpillFile(fingerprint).toPath(), StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch(final IOException e) {
+			//Spilling is best effort, a lost result is simply computed again
+		}
+		finally {
+			if(tempFile != null) {
+				tempFile.delete();
+			}
+		}
+	}
+
+	/*
+	 * Delete the least recently used spill files above the limit
+	 */
+	private void trimSpillDirectory() {
+		spillsSinceTrim.set(0);
+		if(spillDirectory == null) {
+			return;
+		}
+		final File[] spillFiles = spillDirectory.listFiles(new FileFilter() {
+			@Override
+			public boolean accept(final File file) {
+				return file.getName().endsWith(SPILL_FILE_SUFFIX);
+			}
+		});
+		if(spillFiles == null || spillFiles.length <= maxSpillFiles) {
+			return;
+		}
+
+		final Map<File, Long> lastUses = new HashMap<>();
+		for(final File spillFile : spillFiles) {
+			lastUses.put(spillFile, spillFile.lastModified());
+		}
+		Arrays.sort(spillFiles, new Comparator<File>() {
+			@Override
+			public int compare(final File first, final File second) {
+				return Long.compare(lastUses.get(first), lastUses.get(second));
+			}
+		});
+		for(int i = 0; i < spillFiles.length - maxSpillFiles; ++i) {
+			spillFiles[i].delete();
+		}
+	}
+
+	private CachedSolution load(final Fingerprint fingerprint) {
+		if(spillDirectory == null) {
+			return null;
+		}
+		final File spillFile = getSpillFile(fingerprint);
+		if(!spillFile.isFile()) {
+			return null;
+		}
+		try(final DataInputStream input = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(spillFile)))) {
+			//Different puzzles may share a spill file name, check this is the requested one
+			if(!Arrays.equals(fingerprint.values, readValues(input))) {
+				return null;
+			}
+			final int solutionCount = input.readInt();
+			final byte[] solution = readValues(input);
+			final String grading = input.readUTF();
+			final int score = input.readInt();
+
+			//Mark the spill file as recently used, so that it is kept when the directory is trimmed
+			spillFile.setLastModified(System.currentTimeMillis());
+
+			return new CachedSolution(solution.length == 0? null : Fingerprint.unpack(solution),
+					solutionCount, grading.isEmpty()? null : Grading.valueOf(grading), score);
+		}
+		catch(final IOException | IllegalArgumentException e) {
+			//A damaged spill file is treated as a cache miss
+			return null;
+		}
+	}
+
+	private File getSpillFile(final Fingerprint fingerprint) {
+		return new File(spillDirectory, String.format("%016x", fingerprint.hash) + SPILL_FILE_SUFFIX);
+	}
+
+	private static void writeValues(final DataOutputStream output, final byte[] values) throws IOException {
+		output.writeInt(values.length);
+		output.write(values);
+	}
+
+	private static byte[] readValues(final DataInputStream input) throws IOException {
+		final int length = input.readInt();
+		if(length < 0) {
+			throw new IOException("Invalid length: " + length);
+		}
+		final byte[] values = new byte[length];
+		input.readFully(values);
+		return values;
+	}
+
+	/*
+	 * Compact cache key of a puzzle, one byte per cell and a precomputed 64-bit hash
+	 */
+	private static class Fingerprint {
+		private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+		private static final long FNV_PRIME = 0x100000001b3L;
+
+		final byte[] values;
+		final long hash;
+
+		Fingerprint(final int[] puzzle) {
+			values = pack(puzzle);
+
+			long h = FNV_OFFSET_BASIS;
+			for(final byte value : values) {
+				h ^= value;
+				h *= FNV_PRIME;
+			}
+			hash = h;
+		}
+
+		static byte[] pack(final int[] puzzle) {
+			final byte[] values = new byte[puzzle.length];
+			for(int i = 0; i < puzzle.length; ++i) {
+				values[i] = (byte)puzzle[i];
+			}
+			return values;
+		}
+
+		static int[] unpack(final byte[] values) {
+			final int[] puzzle = new int[values.length];
+			for(int i = 0; i < values.length; ++i) {
+				puzzle[i] = values[i];
+			}
+			return puzzle;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int)(hash ^ (hash >>> 32));
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if(this == obj) {
+				return true;
+			}
+			if(!(obj instanceof Fingerprint)) {
+				return false;
+			}
+			final Fingerprint other = (Fingerprint)obj;
+			return hash == other.hash && Arrays.equals(values, other.values);
+		}
+	}
+}
@@ -0,0 +1,211 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.solver;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+import com.matic.sudoku.solver.LogicSolver.Grading;
+import com.matic.sudoku.solver.LogicSolver.Mode;
+
+/**
+ * Hands out solver instances to concurrently running threads. Solvers keep their working
+ * state in fields, so an instance must never be used by more than one thread at a time.
+ *
+ * Two ways of obtaining a solver are supported:
+ * 1. Per-thread solvers (getXXX()), which are created on first use and then always
+ *    returned to the same thread. Nothing needs to be returned.
+ * 2. Pooled solvers (borrowXXX()/returnXXX()), which can be handed over between threads,
+ *    for instance between tasks run by an executor. A borrowed solver must be returned
+ *    when the caller is done with it.
+ *
+ * Solvers are keyed by puzzle dimension (and the max solution count for brute force solvers).
+ * Neither way takes any locks.
+ *
+ * @author vedran
+ *
+ */
+public class SolverProvider {
+
+	private final SolverType bruteForceSolverType;
+
+	private final ConcurrentMap<Long, Queue<BruteForceSolver>> bruteForceSolverPools;
+	private final ConcurrentMap<Integer, Queue<LogicSolver>> logicSolverPools;
+
+	private final ThreadLocal<Map<Long, BruteForceSolver>> threadBruteForceSolvers;
+	private final ThreadLocal<Map<Integer, LogicSolver>> threadLogicSolvers;
+
+	/**
+	 * Create a new provider
+	 *
+	 * @param bruteForceSolverType Type of brute force solvers to create
+	 */
+	public SolverProvider(final SolverType bruteForceSolverType) {
+		this.bruteForceSolverType = bruteForceSolverType;
+
+		bruteForceSolverPools = new ConcurrentHashMap<>();
+		logicSolverPools = new ConcurrentHashMap<>();
+
+		threadBruteForceSolvers = new ThreadLocal<Map<Long, BruteForceSolver>>() {
+			@Override
+			protected Map<Long, BruteForceSolver> initialValue() {
+				return new HashMap<>();
+			}
+		};
+		threadLogicSolvers = new ThreadLocal<Map<Integer, LogicSolver>>() {
+			@Override
+			protected Map<Integer, LogicSolver> initialValue() {
+				return new HashMap<>();
+			}
+		};
+	}
+
+	/**
+	 * Get the type of brute force solvers created by this provider
+	 *
+	 * @return Brute force solver type
+	 */
+	public SolverType getBruteForceSolverType() {
+		return bruteForceSolverType;
+	}
+
+	/**
+	 * Get a brute force solver owned by the calling thread
+	 *
+	 * @param dimension Puzzle dimension
+	 * @param maxSolutions How many solutions are acceptable
+	 * @return The calling thread's solver
+	 */
+	public BruteForceSolver getBruteForceSolver(final int dimension, final int maxSolutions) {
+		final Map<Long, BruteForceSolver> solvers = threadBruteForceSolvers.get();
+		final Long key = getKey(dimension, maxSolutions);
+
+		BruteForceSolver solver = solvers.get(key);
+		if(solver == null) {
+			solver = bruteForceSolverType.create(dimension, maxSolutions);
+			solvers.put(key, solver);
+		}
+		return solver;
+	}
+
+	/**
+	 * Get a logic solver owned by the calling thread. The solver's max grading level and mode
+	 * are left as set by the previous caller, so callers must set the ones they need.
+	 *
+	 * @param dimension Puzzle dimension
+	 * @return The calling thread's solver
+	 */
+	public LogicSolver getLogicSolver(final int dimension) {
+		final Map<Integer, LogicSolver> solvers = threadLogicSolvers.get();
+
+		LogicSolver solver = solvers.get(dimension);
+		if(solver == null) {
+			solver = new LogicSolver(dimension);
+			solvers.put(dimension, solver);
+		}
+		return solver;
+	}
+
+	/**
+	 * Borrow a brute force solver from the pool, creating a new one if none is available
+	 *
+	 * @param dimension Puzzle dimension
+	 * @param maxSolutions How many solutions are acceptable
+	 * @return A solver for exclusive use until returned
+	 */
+	public BruteForceSolver borrowBruteForceSolver(final int dimension, final int maxSolutions) {
+		final BruteForceSolver solver = getBruteForceSolverPool(dimension, maxSolutions).poll();
+		return solver != null? solver : bruteForceSolverType.create(dimension, maxSolutions);
+	}
+
+	/**
+	 * Return a previously borrowed brute force solver to the pool
+	 *
+	 * @param solver Solver to return
+	 * @param dimension Puzzle dimension the solver was borrowed for
+	 * @param maxSolutions Max solution count the solver was borrowed for
+	 */
+	public void returnBruteForceSolver(final BruteForceSolver solver, final int dimension,
+			final int maxSolutions) {
+		getBruteForceSolverPool(dimension, maxSolutions).offer(solver);
+	}
+
+	/**
+	 * Borrow a logic solver from the pool, creating a new one if none is available.
+	 * The solver's max grading level is reset to allow all strategies, and it's mode to
+	 * single steps.
+	 *
+	 * @param dimension Puzzle dimension
+	 * @return A solver for exclusive use until returned
+	 */
+	public LogicSolver borrowLogicSolver(final int dimension) {
+		final LogicSolver solver = getLogicSolverPool(dimension).poll();
+		if(solver == null) {
+			return new LogicSolver(dimension);
+		}
+		solver.setMaxGradingLevel(Grading.DIABOLIC);
+		solver.setMode(Mode.SINGLE_STEP);
+		return solver;
+	}
+
+	/**
+	 * Return a previously borrowed logic solver to the pool
+	 *
+	 * @param solver Solver to return
+	 * @param dimension Puzzle dimension the solver was borrowed for
+	 */
+	public void returnLogicSolver(final LogicSolver solver, final int dimension) {
+		getLogicSolverPool(dimension).offer(solver);
+	}
+
+	private Queue<BruteForceSolver> getBruteForceSolverPool(final int dimension, final int maxSolutions) {
+		final Long key = getKey(dimension, maxSolutions);
+		Queue<BruteForceSolver> pool = bruteForceSolverPools.get(key);
+		if(pool == null) {
+			final Queue<BruteForceSolver> newPool = new ConcurrentLinkedQueue<>();
+			pool = bruteForceSolverPools.putIfAbsent(key, newPool);
+			if(pool == null) {
+				pool = newPool;
+			}
+		}
+		return pool;
+	}
+
+	private Queue<LogicSolver> getLogicSolverPool(final int dimension) {
+		Queue<LogicSolver> pool = logicSolverPools.get(dimension);
+		if(pool == null) {
+			final Queue<LogicSolver> newPool = new ConcurrentLinkedQueue<>();
+			pool = logicSolverPools.putIfAbsent(dimension, newPool);
+			if(pool == null) {
+				pool = newPool;
+			}
+		}
+		return pool;
+	}
+
+	private Long getKey(final int dimension, final int maxSolutions) {
+		return ((long)dimension << Integer.SIZE) | (maxSolutions & 0xFFFFFFFFL);
+	}
+}
@@ -0,0 +1,62 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.solver;
+
+/**
+ * An incremental solving session, opened by a brute force solver for a puzzle. Clues can
+ * be removed and added back one at a time, and the solutions counted after each change,
+ * without the solver having to set up the whole puzzle again. Used while minimizing puzzles.
+ *
+ * The solver that opened a session can't be used for anything else until the session is closed.
+ *
+ * @author vedran
+ *
+ */
+public interface SolverSession {
+
+	/**
+	 * Remove a clue from the puzzle
+	 * @param cell Index of the cell to clear
+	 * @throws IllegalArgumentException If the cell is empty
+	 */
+	void removeClue(final int cell);
+
+	/**
+	 * Add a clue to the puzzle
+	 * @param cell Index of the cell to fill in
+	 * @param value Value of the clue
+	 * @throws IllegalArgumentException If the cell is not empty, or the value conflicts with other clues
+	 */
+	void addClue(final int cell, final int value);
+
+	/**
+	 * Count the solutions of the puzzle with the current clues, up to the maximum number of
+	 * solutions of the solver that opened the session
+	 * @param cancellationToken Token to check for cancellation while searching
+	 * @return Number of solutions found or TIMED_OUT
+	 */
+	int countSolutions(final CancellationToken cancellationToken);
+
+	/**
+	 * Close the session, releasing the solver for other use
+	 */
+	void close();
+}
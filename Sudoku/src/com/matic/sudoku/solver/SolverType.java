@@ -0,0 +1,75 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.solver;
+
+/**
+ * Available brute force solver implementations. Used for selecting which solver
+ * the game and the generators should use.
+ *
+ * @author vedran
+ *
+ */
+public enum SolverType {
+
+	DLX {
+		@Override
+		public BruteForceSolver create(final int dimension, final int maxSolutions) {
+			return new DlxSolver(dimension, maxSolutions);
+		}
+	},
+
+	ARRAY_DLX {
+		@Override
+		public BruteForceSolver create(final int dimension, final int maxSolutions) {
+			return new ArrayDlxSolver(dimension, maxSolutions);
+		}
+	},
+
+	BITBOARD {
+		@Override
+		public BruteForceSolver create(final int dimension, final int maxSolutions) {
+			return new BitboardSolver(dimension, maxSolutions);
+		}
+	},
+
+	PARALLEL_DLX {
+		@Override
+		public BruteForceSolver create(final int dimension, final int maxSolutions) {
+			return new ParallelDlxSolver(dimension, maxSolutions);
+		}
+	},
+
+	HYBRID {
+		@Override
+		public BruteForceSolver create(final int dimension, final int maxSolutions) {
+			return new HybridSolver(dimension, maxSolutions);
+		}
+	};
+
+	/**
+	 * Create a new brute force solver instance of this type
+	 *
+	 * @param dimension The size/dimension of the puzzle
+	 * @param maxSolutions How many solutions are acceptable
+	 * @return A new solver instance
+	 */
+	public abstract BruteForceSolver create(final int dimension, final int maxSolutions);
+}
@@ -0,0 +1,75 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.solver;
+
+import java.util.List;
+
+/**
+ * A single solution step applied by a logic strategy, either a found digit or candidate removals.
+ * 
+ * @author vedran
+ *
+ */
+public class Step {
+	
+	private final String strategyName;
+	private final int[] values;
+	private final List<Pair> locations;
+	private final boolean singleFound;
+	
+	/**
+	 * Init a step with it's values and cell locations
+	 * 
+	 * @param strategyName Name of the applied strategy
+	 * @param values The found digit, or the values the step was based on
+	 * @param locations Cell locations of the values
+	 * @param singleFound Whether a digit was entered by this step
+	 */
+	public Step(final String strategyName, final int[] values, final List<Pair> locations, 
+			final boolean singleFound) {
+		this.strategyName = strategyName;
+		this.values = values;
+		this.locations = locations;
+		this.singleFound = singleFound;
+	}
+	
+	public String getStrategyName() {
+		return strategyName;
+	}
+	
+	public int[] getValues() {
+		return values;
+	}
+	
+	public List<Pair> getLocations() {
+		return locations;
+	}
+	
+	public boolean isSingleFound() {
+		return singleFound;
+	}
+
+	@Override
+	public String toString() {
+		return "Step [strategyName=" + strategyName + ", locations=" + locations 
+				+ ", singleFound=" + singleFound + "]";
+	}
+}
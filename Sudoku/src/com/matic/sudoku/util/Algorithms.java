@@ -20,11 +20,7 @@
 
 package com.matic.sudoku.util;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import com.matic.sudoku.Resources;
-import com.matic.sudoku.solver.Pair;
+import java.util.SplittableRandom;
 
 /**
  * Various well-known algorithms used by logic solving strategies are provided by this class
@@ -33,16 +29,14 @@ import com.matic.sudoku.solver.Pair;
  */
 public class Algorithms {
 	
-	private static final Pair EMPTY_PAIR = new Pair(0,0); 
-	
 	/**
-	 * Randomize an array.
+	 * Randomize an array (Fisher-Yates shuffle), using the given random number generator.
 	 * @param array Array to randomize
+	 * @param random Random number generator to use
 	 */
-	public static void shuffle(final int[] array) {
-		for (int i = 0; i < array.length; ++i) {
-			final int newIndex = Resources.RANDOM_INSTANCE
-					.nextInt(array.length);
+	public static void shuffle(final int[] array, final SplittableRandom random) {
+		for (int i = array.length - 1; i > 0; --i) {
+			final int newIndex = random.nextInt(i + 1);
 			final int oldValue = array[newIndex];
 			array[newIndex] = array[i];
 			array[i] = oldValue;
@@ -69,49 +63,22 @@ public class Algorithms {
 	}
 	
 	/**
-	 * Find all possible subset combinations from a given set of values.
-	 * @param pairs Given set to search
-	 * @param subsetSize Size of each found subset
-	 * @return A list of all possible subset of size subsetSize
+	 * Find the combination following the given one, in lexicographic order. A combination
+	 * of k out of n elements is represented as a mask, with one bit set for each chosen
+	 * element. The first combination is (1 << k) - 1.
+	 * @param combination Current combination mask, with the bits above n - 1 cleared
+	 * @param n Number of elements to choose from
+	 * @return Next combination mask, or 0 if the given one was the last
 	 */
-	public static List<List<Pair>> findAllSubsets(
-			final List<Pair> pairs, final int subsetSize) {
-		final List<List<Pair>> subsets = new ArrayList<>();
-		final List<Pair> t = emptyPairs(pairs.size());
-
-		Algorithms.findSubsets(subsets, pairs, t, subsetSize, 0, 0);
-
-		return subsets;
-	}
-	
-	private static List<Pair> emptyPairs(final int size) {
-		final List<Pair> t = new ArrayList<>(size);
-		
-		for(int i = 0; i < size; ++i) {
-			t.add(EMPTY_PAIR);
-		}
-		
-		return t;
-	}
-
-	// Recursive approach to find all subsets of length subsetLength in a set of
-	// length n	
-	private static void findSubsets(
-			final List<List<Pair>> subsets,
-			final List<Pair> pairs,
-			final List<Pair> t, final int subsetSize, final int q, final int r) {
-		if(q == subsetSize) {
-			final List<Pair> ss = emptyPairs(subsetSize);
-			for(int i = 0; i < subsetSize; ++i) {
-				ss.set(i, t.get(i));
-			}
-			subsets.add(ss);
-		} 
-		else {
-			for(int i = r; i < pairs.size(); ++i) {
-				t.set(q, pairs.get(i));
-				Algorithms.findSubsets(subsets, pairs, t, subsetSize, q + 1, i + 1);
-			}
+	public static int nextCombination(final int combination, final int n) {
+		//Length of the run of chosen elements ending at the last element
+		final int run = Integer.numberOfLeadingZeros(~(combination << (32 - n)));
+		final int rest = combination & ((1 << (n - run)) - 1);
+		if(rest == 0) {
+			return 0;
 		}
+		//Advance the highest element that can move, and put the run right after it
+		final int highest = 31 - Integer.numberOfLeadingZeros(rest);
+		return (rest & ~(1 << highest)) | (((1 << (run + 1)) - 1) << (highest + 1));
 	}
 }
\ No newline at end of file
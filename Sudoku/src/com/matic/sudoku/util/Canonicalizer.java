@@ -0,0 +1,629 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maps puzzles to a canonical representative of their equivalence class, so that equivalent
+ * puzzles can be detected by comparing (or hashing) their canonical forms.
+ *
+ * Two puzzles are equivalent if one can be turned into the other by any combination of digit
+ * relabelling, row permutations within bands, column permutations within stacks, band and
+ * stack permutations and transposition. The canonical form is the lexicographically smallest
+ * of all equivalent puzzles (read row by row, empty cells being 0), with digits relabelled in
+ * the order of their first appearance ("minlex").
+ *
+ * Instead of trying all transformations, the canonical form is built one row at a time, and each
+ * row one column at a time. Columns that are indistinguishable by the rows placed so far are kept
+ * together and only ordered when a later row tells them apart. Digits first appearing in such
+ * columns are labelled lazily, once the position of their column is decided. A row is abandoned as
+ * soon as it's prefix exceeds the best row found so far.
+ *
+ * @author vedran
+ *
+ */
+public class Canonicalizer {
+
+	private final int dimension;
+	private final int unit;
+	private final int grid;
+
+	//Sort key of a digit that hasn't been labelled yet, greater than all assigned labels
+	private final int newDigitKey;
+
+	/**
+	 * Create a canonicalizer for puzzles of a given dimension
+	 * @param dimension Puzzle dimension (box size)
+	 */
+	public Canonicalizer(final int dimension) {
+		this.dimension = dimension;
+		unit = dimension * dimension;
+		grid = unit * unit;
+		newDigitKey = unit + 1;
+	}
+
+	/**
+	 * Find the canonical form of a puzzle. The puzzle itself is left unchanged.
+	 *
+	 * @param puzzle Puzzle to canonicalize, 0 denoting empty cells
+	 * @return Canonical form of the puzzle
+	 * @throws IllegalArgumentException If the puzzle has wrong dimension, or the same digit
+	 * appears twice in a row or a column
+	 */
+	public int[] canonicalize(final int[] puzzle) {
+		validate(puzzle);
+
+		List<State> states = new ArrayList<>();
+		states.add(new State(new Orientation(puzzle)));
+		states.add(new State(new Orientation(transpose(puzzle))));
+
+		final int[] result = new int[grid];
+
+		for(int targetRow = 0; targetRow < unit; ++targetRow) {
+			final RowSearch search = new RowSearch();
+			for(final State state : states) {
+				for(final int sourceRow : state.getSourceRowChoices(targetRow)) {
+					final State child = new State(state);
+					child.place(targetRow, sourceRow);
+					child.fill(search, 0);
+				}
+			}
+			System.arraycopy(search.bestRow, 0, result, targetRow * unit, unit);
+			states = search.states;
+		}
+		return result;
+	}
+
+	/**
+	 * Check whether two puzzles are equivalent
+	 * @param first First puzzle
+	 * @param second Second puzzle
+	 * @return true if the puzzles are equivalent, false otherwise
+	 */
+	public boolean isEquivalent(final int[] first, final int[] second) {
+		return Arrays.equals(canonicalize(first), canonicalize(second));
+	}
+
+	private void validate(final int[] puzzle) {
+		if(puzzle.length != grid) {
+			throw new IllegalArgumentException("Invalid puzzle size: " + puzzle.length);
+		}
+		final boolean[] rowDigits = new boolean[unit * (unit + 1)];
+		final boolean[] columnDigits = new boolean[unit * (unit + 1)];
+		for(int i = 0; i < grid; ++i) {
+			final int digit = puzzle[i];
+			if(digit == 0) {
+				continue;
+			}
+			if(digit < 0 || digit > unit) {
+				throw new IllegalArgumentException("Invalid digit: " + digit);
+			}
+			final int rowIndex = i / unit * (unit + 1) + digit;
+			final int columnIndex = i % unit * (unit + 1) + digit;
+			if(rowDigits[rowIndex] || columnDigits[columnIndex]) {
+				throw new IllegalArgumentException("Conflicting givens at index: " + i);
+			}
+			rowDigits[rowIndex] = columnDigits[columnIndex] = true;
+		}
+	}
+
+	private int[] transpose(final int[] puzzle) {
+		final int[] transposed = new int[grid];
+		for(int row = 0; row < unit; ++row) {
+			for(int column = 0; column < unit; ++column) {
+				transposed[column * unit + row] = puzzle[row * unit + column];
+			}
+		}
+		return transposed;
+	}
+
+	/*
+	 * The smallest target row found so far, and the states leading to it
+	 */
+	private class RowSearch {
+		final int[] row;
+		final int[] bestRow;
+		final List<State> states;
+		boolean hasBestRow;
+
+		RowSearch() {
+			row = new int[unit];
+			bestRow = new int[unit];
+			states = new ArrayList<>();
+		}
+
+		/*
+		 * Compare a newly filled part of the row to the best row, given whether the row was already
+		 * smaller before it. Returns -1 if the row is smaller so far, 0 if equal and 1 if greater.
+		 */
+		int compare(final int from, final int to, final boolean smaller) {
+			if(smaller || !hasBestRow) {
+				return -1;
+			}
+			for(int i = from; i < to; ++i) {
+				if(row[i] != bestRow[i]) {
+					return row[i] < bestRow[i]? -1 : 1;
+				}
+			}
+			return 0;
+		}
+
+		void add(final State state, final boolean smaller) {
+			if(smaller) {
+				states.clear();
+				System.arraycopy(row, 0, bestRow, 0, unit);
+				hasBestRow = true;
+			}
+			states.add(state);
+		}
+	}
+
+	/*
+	 * The puzzle, as is or transposed, with it's empty rows and bands marked.
+	 * Empty rows within a band (and empty bands) are interchangeable, so only one of them
+	 * needs to be tried.
+	 */
+	private class Orientation {
+		final int[] source;
+		final boolean[] emptyRows;
+		final boolean[] emptyBands;
+
+		Orientation(final int[] source) {
+			this.source = source;
+			emptyRows = new boolean[unit];
+			emptyBands = new boolean[dimension];
+
+			Arrays.fill(emptyRows, true);
+			Arrays.fill(emptyBands, true);
+			for(int i = 0; i < grid; ++i) {
+				if(source[i] != 0) {
+					emptyRows[i / unit] = false;
+					emptyBands[i / unit / dimension] = false;
+				}
+			}
+		}
+	}
+
+	/*
+	 * A partially built canonical form: the source rows placed so far, the digit labels assigned
+	 * so far and the column order, as far as the placed rows determine it.
+	 *
+	 * Columns are ordered on two levels. Source stacks are listed in target order, with runs of
+	 * stacks that can't be told apart yet forming blocks. Within each source stack, columns are
+	 * listed in target order, with runs of columns that can't be told apart yet forming cells.
+	 *
+	 * A digit first appearing in a cell of several columns gets it's label once the position of
+	 * that column (it's home) is decided, as the label of the digit at the home's position.
+	 */
+	private class State {
+		final Orientation orientation;
+
+		final int[] bandOrder;
+		final boolean[] usedRows;
+		final boolean[] usedBands;
+
+		//Label of each source digit, 0 if not labelled yet
+		final int[] digitLabels;
+		int nextLabel;
+
+		//Home column of each digit waiting for a label, -1 if none, and it's label minus it's position
+		final int[] digitHomes;
+		final int[] labelOffsets;
+
+		final int[] stackOrder;
+		final boolean[] stackBlockEnds;
+
+		//Source columns of each stack (at index stack * dimension + position) in target order
+		final int[] stackColumns;
+		final boolean[] cellEnds;
+
+		//Sort keys of the source columns for the row being placed
+		final int[] keys;
+		int rowStart;
+
+		State(final Orientation orientation) {
+			this.orientation = orientation;
+
+			bandOrder = new int[dimension];
+			usedRows = new boolean[unit];
+			usedBands = new boolean[dimension];
+			digitLabels = new int[unit + 1];
+			nextLabel = 1;
+			digitHomes = new int[unit + 1];
+			labelOffsets = new int[unit + 1];
+
+			stackOrder = new int[dimension];
+			stackBlockEnds = new boolean[dimension];
+			stackColumns = new int[unit];
+			cellEnds = new boolean[unit];
+			keys = new int[unit];
+
+			Arrays.fill(digitHomes, -1);
+			for(int i = 0; i < dimension; ++i) {
+				stackOrder[i] = i;
+			}
+			stackBlockEnds[dimension - 1] = true;
+			for(int i = 0; i < unit; ++i) {
+				stackColumns[i] = i;
+				cellEnds[i] = i % dimension == dimension - 1;
+			}
+		}
+
+		State(final State other) {
+			orientation = other.orientation;
+			bandOrder = other.bandOrder.clone();
+			usedRows = other.usedRows.clone();
+			usedBands = other.usedBands.clone();
+			digitLabels = other.digitLabels.clone();
+			nextLabel = other.nextLabel;
+			digitHomes = other.digitHomes.clone();
+			labelOffsets = other.labelOffsets.clone();
+			stackOrder = other.stackOrder.clone();
+			stackBlockEnds = other.stackBlockEnds.clone();
+			stackColumns = other.stackColumns.clone();
+			cellEnds = other.cellEnds.clone();
+			keys = other.keys.clone();
+			rowStart = other.rowStart;
+		}
+
+		/*
+		 * Get the source rows that may be placed at a target row, given the rows placed so far
+		 */
+		int[] getSourceRowChoices(final int targetRow) {
+			final int targetBand = targetRow / dimension;
+			final boolean newBand = targetRow % dimension == 0;
+			final int[] choices = new int[unit];
+			int choiceCount = 0;
+			boolean emptyBandAdded = false;
+
+			for(int band = 0; band < dimension; ++band) {
+				if(newBand) {
+					if(usedBands[band]) {
+						continue;
+					}
+					if(orientation.emptyBands[band]) {
+						if(emptyBandAdded) {
+							continue;
+						}
+						emptyBandAdded = true;
+					}
+				}
+				else if(band != bandOrder[targetBand]) {
+					continue;
+				}
+
+				boolean emptyRowAdded = false;
+				for(int row = band * dimension; row < (band + 1) * dimension; ++row) {
+					if(usedRows[row]) {
+						continue;
+					}
+					if(orientation.emptyRows[row]) {
+						if(emptyRowAdded) {
+							continue;
+						}
+						emptyRowAdded = true;
+					}
+					choices[choiceCount++] = row;
+				}
+			}
+			return Arrays.copyOf(choices, choiceCount);
+		}
+
+		/*
+		 * Place a source row at a target row, before ordering the columns for it
+		 */
+		void place(final int targetRow, final int sourceRow) {
+			if(targetRow % dimension == 0) {
+				final int band = sourceRow / dimension;
+				bandOrder[targetRow / dimension] = band;
+				usedBands[band] = true;
+			}
+			usedRows[sourceRow] = true;
+			rowStart = sourceRow * unit;
+		}
+
+		/*
+		 * Fill the target row from a position on, ordering the columns so that the row is as small
+		 * as possible. Where the smallest row can be reached with different column orders, the
+		 * search branches, and each state reaching the smallest row is added to the search.
+		 */
+		void fill(final RowSearch search, int position) {
+			int comparison = search.compare(0, position, false);
+
+			while(comparison <= 0 && position < unit) {
+				final int start = position;
+				final int targetStack = position / dimension;
+
+				if(position % dimension == 0) {
+					int blockEnd = targetStack;
+					while(!stackBlockEnds[blockEnd]) {
+						++blockEnd;
+					}
+					if(!hasNewDigit(targetStack, blockEnd)) {
+						//All keys are known, sorting the block's stacks and columns orders it fully
+						sortBlock(targetStack, blockEnd);
+						for(; position < (blockEnd + 1) * dimension; ++position) {
+							search.row[position] = keys[getSourceColumn(position)];
+						}
+						comparison = search.compare(start, position, comparison < 0);
+						continue;
+					}
+					if(blockEnd > targetStack) {
+						//Try each of the block's stacks first, the ones not leading to the smallest row are pruned
+						for(int i = targetStack; i <= blockEnd; ++i) {
+							final State branch = new State(this);
+							swap(branch.stackOrder, targetStack, i);
+							branch.stackBlockEnds[targetStack] = true;
+							branch.fill(search, position);
+						}
+						return;
+					}
+				}
+
+				final int cellStart = stackOrder[targetStack] * dimension + position % dimension;
+				int cellEnd = cellStart;
+				while(!cellEnds[cellEnd]) {
+					++cellEnd;
+				}
+
+				if(cellEnd == cellStart) {
+					search.row[position++] = resolve(stackColumns[cellStart]);
+				}
+				else {
+					final int[] lowestColumns = new int[cellEnd - cellStart + 1];
+					int lowestKey = Integer.MAX_VALUE;
+					int lowestCount = 0;
+					for(int i = cellStart; i <= cellEnd; ++i) {
+						final int key = getLowestKey(stackColumns[i], cellStart);
+						if(key < lowestKey) {
+							lowestKey = key;
+							lowestCount = 0;
+						}
+						if(key == lowestKey) {
+							lowestColumns[lowestCount++] = stackColumns[i];
+						}
+					}
+
+					if(lowestKey == 0) {
+						//Empty columns stay together, as any order of them results in the same row
+						int emptyEnd = cellStart;
+						for(int i = cellStart; i <= cellEnd; ++i) {
+							if(getDigit(stackColumns[i]) == 0) {
+								swap(stackColumns, emptyEnd++, i);
+								search.row[position++] = 0;
+							}
+						}
+						cellEnds[emptyEnd - 1] = true;
+					}
+					else if(lowestKey == newDigitKey) {
+						//So do the columns of new digits, which get their labels once the columns are ordered
+						for(int i = cellStart; i <= cellEnd; ++i) {
+							final int digit = getDigit(stackColumns[i]);
+							digitHomes[digit] = stackColumns[i];
+							labelOffsets[digit] = nextLabel - position;
+							search.row[position++] = nextLabel++;
+						}
+					}
+					else if(lowestCount == 1) {
+						separate(lowestColumns[0], cellStart);
+					}
+					else {
+						//Several digits may take the lowest label left, try each
+						for(int i = 0; i < lowestCount; ++i) {
+							final State branch = new State(this);
+							branch.separate(lowestColumns[i], cellStart);
+							branch.fill(search, position);
+						}
+						return;
+					}
+				}
+				comparison = search.compare(start, position, comparison < 0);
+			}
+
+			if(comparison <= 0) {
+				search.add(this, comparison < 0);
+			}
+		}
+
+		private int getDigit(final int column) {
+			return orientation.source[rowStart + column];
+		}
+
+		/*
+		 * Get the key of a column in the row being placed: 0 for an empty column, the label of the
+		 * column's digit, or newDigitKey if the digit has no label yet
+		 */
+		private int getKey(final int column) {
+			final int digit = getDigit(column);
+			if(digit == 0 || digitLabels[digit] != 0) {
+				return digitLabels[digit];
+			}
+			final int home = digitHomes[digit];
+			if(home != -1) {
+				final int index = indexOf(home);
+				if(isSeparated(index)) {
+					digitLabels[digit] = labelOffsets[digit] + getPosition(index);
+					return digitLabels[digit];
+				}
+			}
+			return newDigitKey;
+		}
+
+		/*
+		 * Get the lowest key a column in a cell could have, if it was placed first in the cell
+		 */
+		private int getLowestKey(final int column, final int cellStart) {
+			final int key = getKey(column);
+			final int home = digitHomes[getDigit(column)];
+			if(key != newDigitKey || home == -1) {
+				return key;
+			}
+			//The digit gets the label of the first free position in it's home's cell
+			final int homeCellStart = getCellStart(indexOf(home));
+			final int homePosition = getPosition(homeCellStart);
+			return labelOffsets[getDigit(column)] + (homeCellStart == cellStart? homePosition + 1 : homePosition);
+		}
+
+		/*
+		 * Get the label of the digit in a column with a decided position, labelling the digit if needed
+		 */
+		private int resolve(final int column) {
+			final int key = getKey(column);
+			if(key != newDigitKey) {
+				return key;
+			}
+			final int digit = getDigit(column);
+			final int home = digitHomes[digit];
+			if(home == -1) {
+				digitLabels[digit] = nextLabel++;
+			}
+			else {
+				//Take the lowest label left, by moving the home to the front of it's cell
+				final int homeCellStart = getCellStart(indexOf(home));
+				separate(home, homeCellStart);
+				digitLabels[digit] = labelOffsets[digit] + getPosition(homeCellStart);
+			}
+			return digitLabels[digit];
+		}
+
+		/*
+		 * Check whether any column of the stacks in a block has a digit without a label
+		 */
+		private boolean hasNewDigit(final int firstStack, final int lastStack) {
+			for(int i = firstStack * dimension; i < (lastStack + 1) * dimension; ++i) {
+				final int column = getSourceColumn(i);
+				keys[column] = getKey(column);
+				if(keys[column] == newDigitKey) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/*
+		 * Order the columns of a block by their keys, splitting cells and blocks where keys differ
+		 */
+		private void sortBlock(final int firstStack, final int lastStack) {
+			for(int stack = firstStack; stack <= lastStack; ++stack) {
+				final int stackStart = stackOrder[stack] * dimension;
+				for(int cellStart = stackStart; cellStart < stackStart + dimension; ) {
+					int cellEnd = cellStart;
+					while(!cellEnds[cellEnd]) {
+						++cellEnd;
+					}
+					for(int i = cellStart + 1; i <= cellEnd; ++i) {
+						final int column = stackColumns[i];
+						int j = i - 1;
+						while(j >= cellStart && keys[stackColumns[j]] > keys[column]) {
+							stackColumns[j + 1] = stackColumns[j];
+							--j;
+						}
+						stackColumns[j + 1] = column;
+					}
+					for(int i = cellStart; i < cellEnd; ++i) {
+						if(keys[stackColumns[i]] != keys[stackColumns[i + 1]]) {
+							cellEnds[i] = true;
+						}
+					}
+					cellStart = cellEnd + 1;
+				}
+			}
+
+			for(int i = firstStack + 1; i <= lastStack; ++i) {
+				final int stack = stackOrder[i];
+				int j = i - 1;
+				while(j >= firstStack && compareStacks(stackOrder[j], stack) > 0) {
+					stackOrder[j + 1] = stackOrder[j];
+					--j;
+				}
+				stackOrder[j + 1] = stack;
+			}
+			for(int i = firstStack; i < lastStack; ++i) {
+				if(compareStacks(stackOrder[i], stackOrder[i + 1]) != 0) {
+					stackBlockEnds[i] = true;
+				}
+			}
+		}
+
+		/*
+		 * Move a column to the front of it's cell, into a cell of it's own
+		 */
+		private void separate(final int column, final int cellStart) {
+			swap(stackColumns, cellStart, indexOf(column));
+			cellEnds[cellStart] = true;
+		}
+
+		private boolean isSeparated(final int index) {
+			return cellEnds[index] && (index == 0 || cellEnds[index - 1]);
+		}
+
+		private int indexOf(final int column) {
+			int index = column / dimension * dimension;
+			while(stackColumns[index] != column) {
+				++index;
+			}
+			return index;
+		}
+
+		private int getCellStart(int index) {
+			while(index > 0 && !cellEnds[index - 1]) {
+				--index;
+			}
+			return index;
+		}
+
+		/*
+		 * Get the target column of an index into stackColumns. The stack must have it's own block.
+		 */
+		private int getPosition(final int index) {
+			final int stack = index / dimension;
+			int targetStack = 0;
+			while(stackOrder[targetStack] != stack) {
+				++targetStack;
+			}
+			return targetStack * dimension + index % dimension;
+		}
+
+		private int compareStacks(final int first, final int second) {
+			for(int i = 0; i < dimension; ++i) {
+				final int firstKey = keys[stackColumns[first * dimension + i]];
+				final int secondKey = keys[stackColumns[second * dimension + i]];
+				if(firstKey != secondKey) {
+					return firstKey < secondKey? -1 : 1;
+				}
+			}
+			return 0;
+		}
+
+		private int getSourceColumn(final int targetColumn) {
+			return stackColumns[stackOrder[targetColumn / dimension] * dimension + targetColumn % dimension];
+		}
+	}
+
+	private static void swap(final int[] array, final int i, final int j) {
+		final int value = array[i];
+		array[i] = array[j];
+		array[j] = value;
+	}
+}
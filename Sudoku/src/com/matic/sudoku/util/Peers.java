@@ -0,0 +1,123 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Precomputed peer tables. The peers of a cell are all of the other cells sharing a row,
+ * a column or a box with it (20 peers for 9x9 puzzles, 39 peers for 16x16 puzzles).
+ * 
+ * Cells are indexed as rowIndex * unit + colIndex. The tables are built once per dimension
+ * and shared, so callers must not modify them.
+ * 
+ * @author vedran
+ *
+ */
+public class Peers {
+	
+	private static final Map<Integer, int[][]> PEERS = new HashMap<>();
+	
+	/**
+	 * Get the peer table for a puzzle dimension
+	 * 
+	 * @param dimension Puzzle dimension
+	 * @return Peer cell indexes of each cell, row peers first, then column peers and the
+	 * remaining box peers
+	 */
+	public static synchronized int[][] getPeers(final int dimension) {
+		if(dimension < 1) {
+			throw new IllegalArgumentException("Invalid puzzle dimension: " + dimension);
+		}
+		int[][] peers = PEERS.get(dimension);
+		if(peers == null) {
+			peers = buildPeers(dimension);
+			PEERS.put(dimension, peers);
+		}
+		return peers;
+	}
+	
+	/**
+	 * Get the number of peers each cell has
+	 * 
+	 * @param dimension Puzzle dimension
+	 * @return Peer count
+	 */
+	public static int getPeerCount(final int dimension) {
+		final int unit = dimension * dimension;
+		return 2 * (unit - 1) + (dimension - 1) * (dimension - 1);
+	}
+	
+	/**
+	 * Check whether placing a value in a cell conflicts with any of the cell's peers
+	 * 
+	 * @param puzzle Puzzle to check, 0 marking an empty cell
+	 * @param dimension Puzzle dimension
+	 * @param cell Index of the cell
+	 * @param value Value to place
+	 * @return Whether any peer already holds the value
+	 */
+	public static boolean hasConflict(final int[] puzzle, final int dimension, final int cell, final int value) {
+		for(final int peer : getPeers(dimension)[cell]) {
+			if(puzzle[peer] == value) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private static int[][] buildPeers(final int dimension) {
+		final int unit = dimension * dimension;
+		final int[][] peers = new int[unit * unit][getPeerCount(dimension)];
+		
+		for(int row = 0; row < unit; ++row) {
+			for(int col = 0; col < unit; ++col) {
+				final int[] cellPeers = peers[row * unit + col];
+				int peerCount = 0;
+				
+				for(int i = 0; i < unit; ++i) {
+					if(i != col) {
+						cellPeers[peerCount++] = row * unit + i;
+					}
+				}
+				for(int i = 0; i < unit; ++i) {
+					if(i != row) {
+						cellPeers[peerCount++] = i * unit + col;
+					}
+				}
+				
+				//Box cells not sharing the row or the column, those were added already
+				final int boxRow = row / dimension * dimension;
+				final int boxCol = col / dimension * dimension;
+				for(int i = boxRow; i < boxRow + dimension; ++i) {
+					for(int j = boxCol; j < boxCol + dimension; ++j) {
+						if(i != row && j != col) {
+							cellPeers[peerCount++] = i * unit + j;
+						}
+					}
+				}
+			}
+		}
+		
+		return peers;
+	}
+}
@@ -0,0 +1,111 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.generator;
+
+import static com.matic.sudoku.solver.SolverTestUtils.assertValidSolution;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.junit.Test;
+
+import com.matic.sudoku.generator.Generator.Symmetry;
+import com.matic.sudoku.solver.BruteForceSolver;
+import com.matic.sudoku.solver.CancellationToken;
+import com.matic.sudoku.solver.LogicSolver;
+import com.matic.sudoku.solver.LogicSolver.Grading;
+import com.matic.sudoku.solver.SolverType;
+
+/**
+ * Unit tests for the ClassicGenerator class.
+ * @author vedran
+ *
+ */
+public class ClassicGeneratorTest {
+
+	/**
+	 * Test a 9x9 puzzle is generated with the requested grading.
+	 */
+	@Test
+	public void testCreateClassicPuzzle() {
+		assertGenerated(3, SolverType.BITBOARD, Grading.MODERATE, Symmetry.ROTATIONAL_180, 1);
+	}
+
+	/**
+	 * Test a 16x16 puzzle is generated with the requested grading.
+	 */
+	@Test
+	public void testCreateLargerPuzzle() {
+		assertGenerated(4, SolverType.ARRAY_DLX, Grading.HARD, Symmetry.NONE, 1);
+	}
+
+	/**
+	 * Test 25x25 puzzles are generated with each of the gradings.
+	 */
+	@Test
+	public void testCreateGiantPuzzles() {
+		for(final Grading grading : Grading.values()) {
+			assertGenerated(5, SolverType.ARRAY_DLX, grading, Symmetry.NONE, grading.ordinal());
+		}
+	}
+
+	/**
+	 * Test the same seed gives the same puzzle.
+	 */
+	@Test
+	public void testSameSeedSamePuzzle() {
+		final Generator unitUnderTest = new ClassicGenerator(3, Generator.MAX_ITERATIONS);
+		unitUnderTest.setBruteForceSolver(SolverType.BITBOARD.create(3, BruteForceSolver.MULTIPLE_SOLUTIONS));
+		unitUnderTest.setLogicSolver(new LogicSolver(3));
+
+		final GeneratorResult first = unitUnderTest.createNew(Grading.HARD, Symmetry.NONE, 17,
+				CancellationToken.NONE);
+		final GeneratorResult second = unitUnderTest.createNew(Grading.HARD, Symmetry.NONE, 17,
+				CancellationToken.NONE);
+		assertNotNull(first);
+		assertNotNull(second);
+		assertArrayEquals(first.getGeneratedPuzzle(), second.getGeneratedPuzzle());
+		assertArrayEquals(first.getPuzzleSolution(), second.getPuzzleSolution());
+	}
+
+	private static void assertGenerated(final int dimension, final SolverType solverType,
+			final Grading grading, final Symmetry symmetry, final long seed) {
+		final Generator unitUnderTest = new ClassicGenerator(dimension, Generator.MAX_ITERATIONS);
+		unitUnderTest.setBruteForceSolver(solverType.create(dimension, BruteForceSolver.MULTIPLE_SOLUTIONS));
+		unitUnderTest.setLogicSolver(new LogicSolver(dimension));
+
+		final GeneratorResult result = unitUnderTest.createNew(grading, symmetry, seed, CancellationToken.NONE);
+		assertNotNull(result);
+
+		final int[] puzzle = result.getGeneratedPuzzle();
+		final int[] solution = result.getPuzzleSolution();
+		assertValidSolution(dimension, puzzle, solution);
+
+		final int[] solverInput = puzzle.clone();
+		assertEquals(BruteForceSolver.UNIQUE_SOLUTION, solverType.create(dimension,
+				BruteForceSolver.MULTIPLE_SOLUTIONS).solve(solverInput));
+
+		final LogicSolver logicSolver = new LogicSolver(dimension);
+		assertEquals(LogicSolver.UNIQUE_SOLUTION, logicSolver.solve(puzzle.clone()));
+		assertEquals(grading, logicSolver.getGrading());
+	}
+
+}
@@ -0,0 +1,127 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.SplittableRandom;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.matic.sudoku.solver.CancellationToken;
+
+/**
+ * Unit tests for the FilledBoardGenerator class.
+ * @author vedran
+ *
+ */
+public class FilledBoardGeneratorTest {
+
+	private static final int BOARD_COUNT = 100;
+
+	/**
+	 * Test valid boards are created for all supported dimensions.
+	 */
+	@Test
+	public void testValidBoards() {
+		final SplittableRandom random = new SplittableRandom(42);
+		for(int dimension = 2; dimension <= 5; ++dimension) {
+			final FilledBoardGenerator unitUnderTest = new FilledBoardGenerator(dimension);
+			for(int i = 0; i < 5; ++i) {
+				assertValidBoard(dimension, unitUnderTest.generate(random, CancellationToken.NONE));
+			}
+		}
+	}
+
+	/**
+	 * Test consecutive boards differ, and every digit appears in every cell.
+	 */
+	@Test
+	public void testRandomBoards() {
+		final int dimension = 3;
+		final int unit = 9;
+		final FilledBoardGenerator unitUnderTest = new FilledBoardGenerator(dimension);
+		final SplittableRandom random = new SplittableRandom(7);
+
+		final Set<String> boards = new HashSet<>();
+		final boolean[][] cellDigits = new boolean[unit * unit][unit + 1];
+		for(int i = 0; i < BOARD_COUNT; ++i) {
+			final int[] board = unitUnderTest.generate(random, CancellationToken.NONE);
+			boards.add(Arrays.toString(board));
+			for(int cell = 0; cell < board.length; ++cell) {
+				cellDigits[cell][board[cell]] = true;
+			}
+		}
+		assertEquals(BOARD_COUNT, boards.size());
+		for(int cell = 0; cell < cellDigits.length; ++cell) {
+			for(int digit = 1; digit <= unit; ++digit) {
+				assertTrue(cellDigits[cell][digit]);
+			}
+		}
+	}
+
+	/**
+	 * Test the same random sequence creates the same board.
+	 */
+	@Test
+	public void testSameSeedSameBoard() {
+		final int[] board = new FilledBoardGenerator(4).generate(new SplittableRandom(11), CancellationToken.NONE);
+		assertEquals(Arrays.toString(board), Arrays.toString(
+				new FilledBoardGenerator(4).generate(new SplittableRandom(11), CancellationToken.NONE)));
+	}
+
+	/**
+	 * Test no board is created with an already cancelled token.
+	 */
+	@Test
+	public void testCancelled() {
+		final CancellationToken cancellationToken = new CancellationToken();
+		cancellationToken.cancel();
+		assertNull(new FilledBoardGenerator(3).generate(new SplittableRandom(), cancellationToken));
+	}
+
+	private static void assertValidBoard(final int dimension, final int[] board) {
+		final int unit = dimension * dimension;
+		final boolean[][] rows = new boolean[unit][unit + 1];
+		final boolean[][] columns = new boolean[unit][unit + 1];
+		final boolean[][] boxes = new boolean[unit][unit + 1];
+
+		assertNotNull(board);
+		assertEquals(unit * unit, board.length);
+		for(int i = 0; i < board.length; ++i) {
+			final int row = i / unit;
+			final int column = i % unit;
+			final int box = row / dimension * dimension + column / dimension;
+			final int value = board[i];
+
+			assertTrue(value > 0 && value <= unit);
+			assertFalse(rows[row][value] || columns[column][value] || boxes[box][value]);
+			rows[row][value] = columns[column][value] = boxes[box][value] = true;
+		}
+	}
+}
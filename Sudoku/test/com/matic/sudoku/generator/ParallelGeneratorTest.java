@@ -0,0 +1,140 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.generator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.matic.sudoku.generator.Generator.Symmetry;
+import com.matic.sudoku.solver.BruteForceSolver;
+import com.matic.sudoku.solver.CancellationToken;
+import com.matic.sudoku.solver.LogicSolver;
+import com.matic.sudoku.solver.LogicSolver.Grading;
+import com.matic.sudoku.solver.SolverProvider;
+import com.matic.sudoku.solver.SolverType;
+
+/**
+ * Unit tests for the ParallelGenerator class.
+ * @author vedran
+ *
+ */
+public class ParallelGeneratorTest {
+
+	private static final int DIMENSION = 3;
+	private static final int UNIT = 9;
+	private static final int THREAD_COUNT = 4;
+
+	private ExecutorService executor;
+	private ParallelGenerator unitUnderTest;
+
+	@Before
+	public void setup() {
+		executor = Executors.newFixedThreadPool(THREAD_COUNT);
+		unitUnderTest = new ParallelGenerator(DIMENSION, Generator.MAX_ITERATIONS * THREAD_COUNT,
+				executor, THREAD_COUNT, new SolverProvider(SolverType.BITBOARD));
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Test the first puzzle found matches the requested grading and symmetry.
+	 */
+	@Test
+	public void testCreateNew() {
+		final GeneratorResult result = unitUnderTest.createNew(Grading.HARD, Symmetry.DIAGONAL);
+		assertNotNull(result);
+
+		final int[] puzzle = result.getGeneratedPuzzle();
+		final int[] solution = result.getPuzzleSolution();
+		for(int i = 0; i < puzzle.length; ++i) {
+			assertTrue(puzzle[i] == 0 || puzzle[i] == solution[i]);
+			//Diagonal symmetry, a clue at (row, column) implies a clue at (column, row)
+			assertEquals(puzzle[i] == 0, puzzle[i % UNIT * UNIT + i / UNIT] == 0);
+		}
+
+		final int[] solverInput = puzzle.clone();
+		assertEquals(BruteForceSolver.UNIQUE_SOLUTION, SolverType.BITBOARD.create(DIMENSION,
+				BruteForceSolver.MULTIPLE_SOLUTIONS).solve(solverInput));
+
+		final LogicSolver logicSolver = new LogicSolver(DIMENSION);
+		assertEquals(LogicSolver.UNIQUE_SOLUTION, logicSolver.solve(puzzle.clone()));
+		assertEquals(Grading.HARD, logicSolver.getGrading());
+	}
+
+	/**
+	 * Test consecutive generations each get their own result, after the losing workers of the
+	 * previous race were cancelled.
+	 */
+	@Test
+	public void testConsecutiveGenerations() {
+		for(int i = 0; i < 3; ++i) {
+			assertNotNull(unitUnderTest.createNew(Grading.MODERATE, Symmetry.ROTATIONAL_180));
+		}
+	}
+
+	/**
+	 * Test a seed gives the same puzzle as with a ClassicGenerator, whichever worker finds it.
+	 */
+	@Test
+	public void testSameSeedAsClassicGenerator() {
+		final ClassicGenerator classicGenerator = new ClassicGenerator(DIMENSION,
+				Generator.MAX_ITERATIONS * THREAD_COUNT);
+		classicGenerator.setBruteForceSolver(SolverType.BITBOARD.create(DIMENSION,
+				BruteForceSolver.MULTIPLE_SOLUTIONS));
+		classicGenerator.setLogicSolver(new LogicSolver(DIMENSION));
+
+		for(long seed = 1; seed <= 3; ++seed) {
+			final GeneratorResult expected = classicGenerator.createNew(Grading.HARD, Symmetry.NONE, seed,
+					CancellationToken.NONE);
+			final GeneratorResult result = unitUnderTest.createNew(Grading.HARD, Symmetry.NONE, seed,
+					CancellationToken.NONE);
+			assertNotNull(expected);
+			assertNotNull(result);
+			assertArrayEquals(expected.getGeneratedPuzzle(), result.getGeneratedPuzzle());
+			assertArrayEquals(expected.getPuzzleSolution(), result.getPuzzleSolution());
+		}
+	}
+
+	/**
+	 * Test no puzzle is generated with an already cancelled token.
+	 */
+	@Test
+	public void testCancelled() {
+		final CancellationToken cancellationToken = new CancellationToken();
+		cancellationToken.cancel();
+
+		assertNull(unitUnderTest.createNew(Grading.EASY, Symmetry.NONE, cancellationToken));
+		assertTrue(cancellationToken.isCancelled());
+	}
+}
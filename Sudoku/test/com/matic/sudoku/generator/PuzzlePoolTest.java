@@ -0,0 +1,152 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.generator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.matic.sudoku.generator.Generator.Symmetry;
+import com.matic.sudoku.solver.BruteForceSolver;
+import com.matic.sudoku.solver.LogicSolver;
+import com.matic.sudoku.solver.LogicSolver.Grading;
+import com.matic.sudoku.solver.SolverProvider;
+import com.matic.sudoku.solver.SolverType;
+
+/**
+ * Unit tests for the PuzzlePool class.
+ * @author vedran
+ *
+ */
+public class PuzzlePoolTest {
+
+	private static final int DIMENSION = 3;
+	private static final int BUCKET_CAPACITY = 2;
+	private static final long FILL_TIMEOUT_MILLIS = 60000;
+
+	private final SolverProvider solverProvider = new SolverProvider(SolverType.BITBOARD);
+
+	private File storageDirectory;
+	private File storageFile;
+	private PuzzlePool unitUnderTest;
+
+	@Before
+	public void setup() throws IOException {
+		storageDirectory = Files.createTempDirectory("puzzle-pool").toFile();
+		storageFile = new File(storageDirectory, "puzzles.pool");
+		unitUnderTest = new PuzzlePool(solverProvider, BUCKET_CAPACITY, 1, storageFile);
+	}
+
+	@After
+	public void tearDown() {
+		unitUnderTest.shutdown();
+		storageFile.delete();
+		storageDirectory.delete();
+	}
+
+	/**
+	 * Test a requested bucket gets filled in the background with matching puzzles.
+	 */
+	@Test
+	public void testRefill() throws InterruptedException {
+		assertNull(unitUnderTest.take(DIMENSION, Grading.MODERATE, Symmetry.ROTATIONAL_180));
+		awaitFilled(unitUnderTest, Grading.MODERATE, Symmetry.ROTATIONAL_180);
+		assertEquals(0, unitUnderTest.size(DIMENSION, Grading.EASY, Symmetry.ROTATIONAL_180));
+
+		final GeneratorResult result = unitUnderTest.take(DIMENSION, Grading.MODERATE, Symmetry.ROTATIONAL_180);
+		assertNotNull(result);
+
+		final LogicSolver logicSolver = new LogicSolver(DIMENSION);
+		final int[] puzzle = result.getGeneratedPuzzle();
+		assertEquals(LogicSolver.UNIQUE_SOLUTION, logicSolver.solve(puzzle.clone()));
+		assertEquals(Grading.MODERATE, logicSolver.getGrading());
+
+		//The taken puzzle gets replaced
+		awaitFilled(unitUnderTest, Grading.MODERATE, Symmetry.ROTATIONAL_180);
+	}
+
+	/**
+	 * Test pooled puzzles are saved and read back by a new pool.
+	 */
+	@Test
+	public void testSaveAndLoad() throws InterruptedException {
+		unitUnderTest.take(DIMENSION, Grading.EASY, Symmetry.NONE);
+		awaitFilled(unitUnderTest, Grading.EASY, Symmetry.NONE);
+		unitUnderTest.shutdown();
+		unitUnderTest.save();
+		//Saving again replaces the saved pool, without leaving temporary files behind
+		unitUnderTest.save();
+		assertArrayEquals(new String[] {storageFile.getName()}, storageDirectory.list());
+
+		final GeneratorResult expected = unitUnderTest.take(DIMENSION, Grading.EASY, Symmetry.NONE);
+		final PuzzlePool loadedPool = new PuzzlePool(solverProvider, BUCKET_CAPACITY, 0, storageFile);
+		assertEquals(BUCKET_CAPACITY, loadedPool.size(DIMENSION, Grading.EASY, Symmetry.NONE));
+
+		final GeneratorResult loaded = loadedPool.take(DIMENSION, Grading.EASY, Symmetry.NONE);
+		assertArrayEquals(expected.getGeneratedPuzzle(), loaded.getGeneratedPuzzle());
+		assertArrayEquals(expected.getPuzzleSolution(), loaded.getPuzzleSolution());
+	}
+
+	/**
+	 * Test a pooled generator hands out pooled puzzles first, and generates when the pool is empty.
+	 */
+	@Test
+	public void testPooledGenerator() throws InterruptedException {
+		final PuzzlePool emptyPool = new PuzzlePool(solverProvider, BUCKET_CAPACITY, 0, null);
+		final ClassicGenerator classicGenerator = new ClassicGenerator(DIMENSION, Generator.MAX_ITERATIONS);
+		classicGenerator.setBruteForceSolver(solverProvider.getBruteForceSolver(DIMENSION,
+				BruteForceSolver.MULTIPLE_SOLUTIONS));
+		classicGenerator.setLogicSolver(solverProvider.getLogicSolver(DIMENSION));
+
+		assertNotNull(new PooledGenerator(classicGenerator, emptyPool).createNew(Grading.EASY, Symmetry.NONE));
+
+		unitUnderTest.take(DIMENSION, Grading.EASY, Symmetry.NONE);
+		awaitFilled(unitUnderTest, Grading.EASY, Symmetry.NONE);
+		unitUnderTest.shutdown();
+
+		final PooledGenerator pooledGenerator = new PooledGenerator(classicGenerator, unitUnderTest);
+		for(int i = 0; i < BUCKET_CAPACITY; ++i) {
+			assertNotNull(pooledGenerator.createNew(Grading.EASY, Symmetry.NONE));
+		}
+		assertEquals(0, unitUnderTest.size(DIMENSION, Grading.EASY, Symmetry.NONE));
+		assertEquals(DIMENSION, pooledGenerator.getDimension());
+	}
+
+	private static void awaitFilled(final PuzzlePool puzzlePool, final Grading grading,
+			final Symmetry symmetry) throws InterruptedException {
+		final long deadline = System.currentTimeMillis() + FILL_TIMEOUT_MILLIS;
+		while(puzzlePool.size(DIMENSION, grading, symmetry) < BUCKET_CAPACITY) {
+			if(System.currentTimeMillis() > deadline) {
+				throw new AssertionError("Bucket not filled in time");
+			}
+			Thread.sleep(10);
+		}
+	}
+}
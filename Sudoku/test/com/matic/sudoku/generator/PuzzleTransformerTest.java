@@ -0,0 +1,181 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.generator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.SplittableRandom;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.matic.sudoku.generator.Generator.Symmetry;
+import com.matic.sudoku.solver.BruteForceSolver;
+import com.matic.sudoku.solver.LogicSolver;
+import com.matic.sudoku.solver.LogicSolver.Grading;
+import com.matic.sudoku.solver.SolverType;
+
+/**
+ * Unit tests for the PuzzleTransformer class.
+ * @author vedran
+ *
+ */
+public class PuzzleTransformerTest {
+
+	private static final int VARIANT_COUNT = 20;
+
+	/**
+	 * Test transformed puzzles are distinct, valid and keep the puzzle's symmetry, for all symmetries.
+	 */
+	@Test
+	public void testSymmetricTransforms() {
+		final int dimension = 3;
+		final SplittableRandom random = new SplittableRandom(3);
+		final ClassicGenerator generator = createGenerator(dimension);
+		final PuzzleTransformer unitUnderTest = new PuzzleTransformer(dimension);
+
+		for(final Symmetry symmetry : Symmetry.values()) {
+			final GeneratorResult source = generator.createNew(Grading.EASY, symmetry);
+			assertNotNull(source);
+
+			final Set<String> variants = new HashSet<>();
+			for(int i = 0; i < VARIANT_COUNT; ++i) {
+				final GeneratorResult variant = unitUnderTest.transform(source, symmetry, random);
+				assertValidVariant(dimension, source, variant);
+				assertSymmetric(dimension, symmetry, variant.getGeneratedPuzzle());
+				variants.add(Arrays.toString(variant.getGeneratedPuzzle()));
+			}
+			assertEquals(VARIANT_COUNT, variants.size());
+		}
+	}
+
+	/**
+	 * Test transformed puzzles of a larger dimension are valid.
+	 */
+	@Test
+	public void testLargerDimension() {
+		final int dimension = 4;
+		final GeneratorResult source = createGenerator(dimension).createNew(Grading.EASY, Symmetry.ROTATIONAL_180);
+		assertNotNull(source);
+
+		final PuzzleTransformer unitUnderTest = new PuzzleTransformer(dimension);
+		final GeneratorResult variant = unitUnderTest.transform(source, Symmetry.ROTATIONAL_180, new SplittableRandom(5));
+		assertValidVariant(dimension, source, variant);
+		assertSymmetric(dimension, Symmetry.ROTATIONAL_180, variant.getGeneratedPuzzle());
+	}
+
+	/**
+	 * Test the same random sequence gives the same variant, and the source is left unchanged.
+	 */
+	@Test
+	public void testSameSeedSameVariant() {
+		final int dimension = 3;
+		final GeneratorResult source = createGenerator(dimension).createNew(Grading.EASY, Symmetry.NONE);
+		final int[] sourcePuzzle = source.getGeneratedPuzzle().clone();
+
+		final PuzzleTransformer unitUnderTest = new PuzzleTransformer(dimension);
+		final GeneratorResult first = unitUnderTest.transform(source, Symmetry.NONE, new SplittableRandom(9));
+		final GeneratorResult second = unitUnderTest.transform(source, Symmetry.NONE, new SplittableRandom(9));
+
+		assertArrayEquals(first.getGeneratedPuzzle(), second.getGeneratedPuzzle());
+		assertArrayEquals(first.getPuzzleSolution(), second.getPuzzleSolution());
+		assertArrayEquals(sourcePuzzle, source.getGeneratedPuzzle());
+	}
+
+	private static ClassicGenerator createGenerator(final int dimension) {
+		final ClassicGenerator generator = new ClassicGenerator(dimension, Generator.MAX_ITERATIONS);
+		generator.setBruteForceSolver(SolverType.BITBOARD.create(dimension, BruteForceSolver.MULTIPLE_SOLUTIONS));
+		generator.setLogicSolver(new LogicSolver(dimension));
+		return generator;
+	}
+
+	private static void assertValidVariant(final int dimension, final GeneratorResult source,
+			final GeneratorResult variant) {
+		final int unit = dimension * dimension;
+		final int[] puzzle = variant.getGeneratedPuzzle();
+		final int[] solution = variant.getPuzzleSolution();
+		final boolean[][] rows = new boolean[unit][unit + 1];
+		final boolean[][] columns = new boolean[unit][unit + 1];
+		final boolean[][] boxes = new boolean[unit][unit + 1];
+
+		int clueCount = 0;
+		int sourceClueCount = 0;
+		for(int i = 0; i < solution.length; ++i) {
+			final int row = i / unit;
+			final int column = i % unit;
+			final int box = row / dimension * dimension + column / dimension;
+			final int value = solution[i];
+
+			assertTrue(value > 0 && value <= unit);
+			assertTrue(puzzle[i] == 0 || puzzle[i] == value);
+			assertFalse(rows[row][value] || columns[column][value] || boxes[box][value]);
+			rows[row][value] = columns[column][value] = boxes[box][value] = true;
+
+			clueCount += puzzle[i] != 0? 1 : 0;
+			sourceClueCount += source.getGeneratedPuzzle()[i] != 0? 1 : 0;
+		}
+		assertEquals(sourceClueCount, clueCount);
+
+		final int[] solverInput = puzzle.clone();
+		assertEquals(BruteForceSolver.UNIQUE_SOLUTION, SolverType.BITBOARD.create(dimension,
+				BruteForceSolver.MULTIPLE_SOLUTIONS).solve(solverInput));
+		assertArrayEquals(solution, solverInput);
+	}
+
+	private static void assertSymmetric(final int dimension, final Symmetry symmetry, final int[] puzzle) {
+		final int unit = dimension * dimension;
+		for(int row = 0; row < unit; ++row) {
+			for(int column = 0; column < unit; ++column) {
+				int mirrorRow = row;
+				int mirrorColumn = column;
+				switch(symmetry) {
+				case ROTATIONAL_180:
+					mirrorRow = unit - 1 - row;
+					mirrorColumn = unit - 1 - column;
+					break;
+				case VERTICAL_MIRRORING:
+					mirrorColumn = unit - 1 - column;
+					break;
+				case HORIZONTAL_MIRRORING:
+					mirrorRow = unit - 1 - row;
+					break;
+				case DIAGONAL:
+					mirrorRow = column;
+					mirrorColumn = row;
+					break;
+				case ANTI_DIAGONAL:
+					mirrorRow = unit - 1 - column;
+					mirrorColumn = unit - 1 - row;
+					break;
+				default:
+					break;
+				}
+				assertEquals(puzzle[row * unit + column] == 0, puzzle[mirrorRow * unit + mirrorColumn] == 0);
+			}
+		}
+	}
+}
@@ -0,0 +1,140 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import com.matic.sudoku.generator.Generator.Symmetry;
+import com.matic.sudoku.solver.BruteForceSolver;
+import com.matic.sudoku.solver.CancellationToken;
+import com.matic.sudoku.solver.LogicSolver;
+import com.matic.sudoku.solver.LogicSolver.Grading;
+import com.matic.sudoku.solver.SolverType;
+
+/**
+ * Unit tests for the TransformingGenerator class.
+ * @author vedran
+ *
+ */
+public class TransformingGeneratorTest {
+
+	private static final int DIMENSION = 3;
+	private static final int VARIANTS_PER_PUZZLE = 4;
+
+	/**
+	 * Test a new seed puzzle is generated once per the given number of requests, per grading.
+	 */
+	@Test
+	public void testSeedReuse() {
+		final CountingGenerator countingGenerator = new CountingGenerator();
+		final TransformingGenerator unitUnderTest = new TransformingGenerator(countingGenerator,
+				VARIANTS_PER_PUZZLE);
+
+		for(int i = 0; i < VARIANTS_PER_PUZZLE * 2; ++i) {
+			assertNotNull(unitUnderTest.createNew(Grading.EASY, Symmetry.ROTATIONAL_180));
+		}
+		assertEquals(2, countingGenerator.generatedCount);
+
+		assertNotNull(unitUnderTest.createNew(Grading.MODERATE, Symmetry.ROTATIONAL_180));
+		assertNotNull(unitUnderTest.createNew(Grading.EASY, Symmetry.ROTATIONAL_180));
+		assertEquals(4, countingGenerator.generatedCount);
+	}
+
+	/**
+	 * Test all variants match the target grading when a logic solver checks them.
+	 */
+	@Test
+	public void testGradingChecked() {
+		final TransformingGenerator unitUnderTest = new TransformingGenerator(new CountingGenerator(),
+				VARIANTS_PER_PUZZLE);
+		unitUnderTest.setLogicSolver(new LogicSolver(DIMENSION));
+
+		final LogicSolver logicSolver = new LogicSolver(DIMENSION);
+		for(int i = 0; i < VARIANTS_PER_PUZZLE * 3; ++i) {
+			final GeneratorResult result = unitUnderTest.createNew(Grading.HARD, Symmetry.NONE);
+			assertNotNull(result);
+			assertEquals(LogicSolver.UNIQUE_SOLUTION, logicSolver.solve(result.getGeneratedPuzzle().clone()));
+			assertEquals(Grading.HARD, logicSolver.getGrading());
+		}
+	}
+
+	/**
+	 * Test seed puzzles are only requested with a random number generator when one was given, so
+	 * that a wrapped PooledGenerator can hand out pooled puzzles.
+	 */
+	@Test
+	public void testSeededOnlyWhenGiven() {
+		final CountingGenerator countingGenerator = new CountingGenerator();
+		final TransformingGenerator unitUnderTest = new TransformingGenerator(countingGenerator,
+				VARIANTS_PER_PUZZLE);
+
+		assertNotNull(unitUnderTest.createNew(Grading.EASY, Symmetry.NONE));
+		assertEquals(1, countingGenerator.generatedCount);
+		assertEquals(0, countingGenerator.seededCount);
+
+		assertNotNull(unitUnderTest.createNew(Grading.MODERATE, Symmetry.NONE, 17, CancellationToken.NONE));
+		assertEquals(2, countingGenerator.generatedCount);
+		assertEquals(1, countingGenerator.seededCount);
+
+		final CountingGenerator singleVariantGenerator = new CountingGenerator();
+		assertNotNull(new TransformingGenerator(singleVariantGenerator, 1).createNew(Grading.EASY, Symmetry.NONE));
+		assertEquals(1, singleVariantGenerator.generatedCount);
+		assertEquals(0, singleVariantGenerator.seededCount);
+	}
+
+	/*
+	 * A generator counting the puzzles it generated, and how many of them were requested with
+	 * a random number generator
+	 */
+	private static class CountingGenerator extends Generator {
+		private final ClassicGenerator classicGenerator;
+		private int generatedCount;
+		private int seededCount;
+
+		CountingGenerator() {
+			super(DIMENSION, MAX_ITERATIONS);
+			classicGenerator = new ClassicGenerator(DIMENSION, MAX_ITERATIONS);
+			classicGenerator.setBruteForceSolver(SolverType.BITBOARD.create(DIMENSION,
+					BruteForceSolver.MULTIPLE_SOLUTIONS));
+			classicGenerator.setLogicSolver(new LogicSolver(DIMENSION));
+		}
+
+		@Override
+		public GeneratorResult createNew(final Grading grading, final Symmetry symmetry,
+				final CancellationToken cancellationToken) {
+			++generatedCount;
+			return classicGenerator.createNew(grading, symmetry, cancellationToken);
+		}
+
+		@Override
+		public GeneratorResult createNew(final Grading grading, final Symmetry symmetry,
+				final SplittableRandom random, final CancellationToken cancellationToken) {
+			++generatedCount;
+			++seededCount;
+			return classicGenerator.createNew(grading, symmetry, random, cancellationToken);
+		}
+	}
+}
@@ -25,6 +25,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Random;
 import java.util.Set;
 
 import org.junit.Before;
@@ -40,14 +41,14 @@ public class CandidatesTest {
 	private static final int DIMENSION = 3;
 	private static final int UNIT = DIMENSION * DIMENSION;
 	
-	private int[][] emptyPuzzle;
-	private int[][] partialPuzzle;
-	private int[][] fullyFilledPuzzle;
+	private int[] emptyPuzzle;
+	private int[] partialPuzzle;
+	private int[] fullyFilledPuzzle;
 	private Candidates expectedPartialCandidates;
 	
 	@Before
 	public void setup() {
-		emptyPuzzle = new int[UNIT][UNIT];
+		emptyPuzzle = new int[UNIT * UNIT];
 		
 		partialPuzzle = formatPuzzle(new int[][] {
 				{0,0,0,6,1,0,4,0,0},
@@ -500,8 +501,8 @@ public class CandidatesTest {
 	public void testPopulateFromPartiallyFilledPuzzle() {
 		final Candidates unitUnderTest = new Candidates(DIMENSION, partialPuzzle);
 		
-		for(int i = 0; i < partialPuzzle.length; ++i) {
-			for(int j = 0; j < partialPuzzle[i].length; ++j) {
+		for(int i = 0; i < UNIT; ++i) {
+			for(int j = 0; j < UNIT; ++j) {
 				assertArrayEquals(expectedPartialCandidates.getAsArray(j, i), unitUnderTest.getAsArray(j, i));
 			}
 		}
@@ -516,8 +517,8 @@ public class CandidatesTest {
 		
 		final int expectedCount = 0;
 		
-		for(int i = 0; i < fullyFilledPuzzle.length; ++i) {
-			for(int j = 0; j < fullyFilledPuzzle[i].length; ++j) {
+		for(int i = 0; i < UNIT; ++i) {
+			for(int j = 0; j < UNIT; ++j) {
 				assertEquals(expectedCount, unitUnderTest.count(i, j));
 			}
 		}
@@ -683,11 +684,130 @@ public class CandidatesTest {
 		assertEquals(expectedCount, count3);		
 	}
 	
-	private int[][] formatPuzzle(final int[][] puzzle) {
-		final int[][] formatted = new int[puzzle.length][puzzle.length];
+	/**
+	 * Test a cell's candidate mask matches it's candidates.
+	 */
+	@Test
+	public void testGetMask() {
+		final Candidates unitUnderTest = new Candidates(DIMENSION, partialPuzzle);
+		
+		for(int i = 0; i < UNIT; ++i) {
+			for(int j = 0; j < UNIT; ++j) {
+				int expectedMask = 0;
+				for(final int candidate : unitUnderTest.getAsArray(i, j)) {
+					expectedMask |= 1 << (candidate - 1);
+				}
+				assertEquals(expectedMask, unitUnderTest.getMask(i, j));
+			}
+		}
+	}
+	
+	/**
+	 * Test the masks of cells containing a candidate in a row, column and box.
+	 */
+	@Test
+	public void testHouseMasks() {
+		final Candidates unitUnderTest = new Candidates(DIMENSION, partialPuzzle);
+		assertHouseMasks(unitUnderTest);
+		
+		//The first row already contains a 6, a 9 can go to columns 1, 2 and 5
+		assertEquals(0, unitUnderTest.getRowMask(6, 0));
+		assertEquals((1 << 1) | (1 << 2) | (1 << 5), unitUnderTest.getRowMask(9, 0));
+	}
+	
+	/**
+	 * Test the house masks are kept up to date as candidates are added, removed and cleared.
+	 */
+	@Test
+	public void testHouseMasksAfterUpdates() {
+		final Candidates unitUnderTest = new Candidates(DIMENSION, partialPuzzle);
+		final Random random = new Random(42);
+		
+		for(int i = 0; i < 500; ++i) {
+			final int candidate = random.nextInt(UNIT) + 1;
+			final int row = random.nextInt(UNIT);
+			final int column = random.nextInt(UNIT);
+			
+			switch(random.nextInt(6)) {
+			case 0:
+				unitUnderTest.add(candidate, row, column);
+				break;
+			case 1:
+				unitUnderTest.remove(candidate, row, column);
+				break;
+			case 2:
+				unitUnderTest.clear(row, column);
+				break;
+			case 3:
+				unitUnderTest.removeFromRow(candidate, row);
+				break;
+			case 4:
+				unitUnderTest.removeFromColumn(candidate, column);
+				break;
+			default:
+				unitUnderTest.removeFromBox(candidate, column / DIMENSION * DIMENSION, 
+						row / DIMENSION * DIMENSION);
+			}
+			assertHouseMasks(unitUnderTest);
+		}
+	}
+	
+	/**
+	 * Test only the houses and candidates of a changed cell get a new version.
+	 */
+	@Test
+	public void testVersions() {
+		final Candidates unitUnderTest = new Candidates(DIMENSION, partialPuzzle);
+		final int version = unitUnderTest.getVersion();
+		final int placementVersion = unitUnderTest.getRowPlacementVersion(0);
+		
+		//Removing a missing candidate changes nothing
+		assertFalse(unitUnderTest.remove(6, 0, 1));
+		assertEquals(version, unitUnderTest.getVersion());
+		
+		assertTrue(unitUnderTest.remove(9, 0, 1));
+		assertEquals(version + 1, unitUnderTest.getVersion());
+		assertEquals(version + 1, unitUnderTest.getRowVersion(0));
+		assertEquals(version + 1, unitUnderTest.getColumnVersion(1));
+		assertEquals(version + 1, unitUnderTest.getBoxVersion(0, 0));
+		assertEquals(version + 1, unitUnderTest.getCandidateVersion(9));
+		assertTrue(unitUnderTest.getRowVersion(1) <= version);
+		assertTrue(unitUnderTest.getColumnVersion(2) <= version);
+		assertTrue(unitUnderTest.getBoxVersion(3, 0) <= version);
+		assertTrue(unitUnderTest.getCandidateVersion(8) <= version);
+		assertEquals(placementVersion, unitUnderTest.getRowPlacementVersion(0));
+		
+		unitUnderTest.clear(4, 4);
+		assertEquals(unitUnderTest.getVersion(), unitUnderTest.getRowPlacementVersion(4));
+		assertEquals(unitUnderTest.getVersion(), unitUnderTest.getColumnPlacementVersion(4));
+		assertEquals(unitUnderTest.getVersion(), unitUnderTest.getBoxPlacementVersion(3, 3));
+		assertTrue(unitUnderTest.getColumnPlacementVersion(1) < unitUnderTest.getVersion());
+	}
+	
+	private void assertHouseMasks(final Candidates unitUnderTest) {
+		for(int candidate = 1; candidate <= UNIT; ++candidate) {
+			for(int house = 0; house < UNIT; ++house) {
+				final int boxX = house % DIMENSION * DIMENSION;
+				final int boxY = house / DIMENSION * DIMENSION;
+				final int rowMask = unitUnderTest.getRowMask(candidate, house);
+				final int columnMask = unitUnderTest.getColumnMask(candidate, house);
+				final int boxMask = unitUnderTest.getBoxMask(candidate, boxX, boxY);
+				
+				for(int i = 0; i < UNIT; ++i) {
+					assertEquals(unitUnderTest.contains(candidate, house, i), (rowMask & (1 << i)) != 0);
+					assertEquals(unitUnderTest.contains(candidate, i, house), (columnMask & (1 << i)) != 0);
+					assertEquals(unitUnderTest.contains(candidate, boxY + i / DIMENSION, boxX + i % DIMENSION), 
+							(boxMask & (1 << i)) != 0);
+				}
+			}
+		}
+	}
+	
+	private int[] formatPuzzle(final int[][] puzzle) {
+		final int[] formatted = new int[puzzle.length * puzzle.length];
 		for(int i = 0; i < puzzle.length; ++i) {
 			for(int j = 0; j < puzzle[i].length; ++j) {
-				formatted[j][i] = puzzle[i][j];
+				formatted[i * puzzle.length + j] = puzzle[i][j];
 			}
 		}
 		return formatted;
@@ -0,0 +1,93 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.logic.strategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.matic.sudoku.logic.Candidates;
+
+/**
+ * Unit tests for the n-fish strategies.
+ * @author vedran
+ *
+ */
+public class FishTest {
+	
+	private final static int DIMENSION = 3;
+	private final static int UNIT = DIMENSION * DIMENSION;
+	
+	/**
+	 * Test an X-Wing in rows 0 and 4 removes it's candidate from the rest of columns 1 and 7.
+	 */
+	@Test
+	public void testXWing() {
+		final Candidates candidates = Candidates.fromStringArray(new String[][] {
+				{"", "1", "", "", "", "", "", "1", ""},
+				{"", "", "", "", "", "", "", "", ""},
+				{"", "", "", "1", "", "", "", "1", ""},
+				{"", "", "", "", "", "", "", "", ""},
+				{"", "1", "", "", "", "", "", "1", ""},
+				{"", "", "", "", "", "", "", "", ""},
+				{"", "1", "", "1", "", "", "", "", "1"},
+				{"", "", "", "", "", "", "", "", ""},
+				{"", "", "", "", "", "", "", "", ""}
+		}, DIMENSION);
+		final Fish unitUnderTest = new XWing(DIMENSION);
+		
+		assertTrue(unitUnderTest.apply(new int[UNIT * UNIT], candidates));
+		assertFalse(candidates.contains(1, 2, 7));
+		assertFalse(candidates.contains(1, 6, 1));
+		assertEquals(1, unitUnderTest.getValues()[0]);
+		assertEquals(4, unitUnderTest.getLocationPoints().size());
+	}
+	
+	/**
+	 * Test a fin at row 0, column 8 limits the X-Wing's eliminations to the fin's box.
+	 */
+	@Test
+	public void testFinnedXWing() {
+		final Candidates candidates = Candidates.fromStringArray(new String[][] {
+				{"", "1", "", "", "", "", "", "1", "1"},
+				{"", "", "", "", "", "", "", "", ""},
+				{"", "", "", "1", "", "", "", "1", ""},
+				{"", "", "", "", "", "", "", "", ""},
+				{"", "1", "", "", "", "", "", "1", ""},
+				{"", "", "", "", "", "", "", "", ""},
+				{"", "1", "", "1", "", "", "", "", "1"},
+				{"", "", "", "", "", "", "", "", ""},
+				{"", "", "", "", "", "", "", "", ""}
+		}, DIMENSION);
+		
+		assertFalse(new XWing(DIMENSION).apply(new int[UNIT * UNIT], candidates));
+		
+		final Fish unitUnderTest = new XWing(DIMENSION, true);
+		assertTrue(unitUnderTest.apply(new int[UNIT * UNIT], candidates));
+		assertFalse(candidates.contains(1, 2, 7));
+		assertTrue(candidates.contains(1, 6, 1));
+		assertEquals(5, unitUnderTest.getLocationPoints().size());
+		
+		assertFalse(unitUnderTest.apply(new int[UNIT * UNIT], candidates));
+	}
+}
@@ -0,0 +1,151 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.solver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the ArrayDlxSolver class.
+ * @author vedran
+ *
+ */
+public class ArrayDlxSolverTest extends BruteForceSolverTestBase {
+
+	@Override
+	protected BruteForceSolver createSolver(final int dimension, final int maxSolutions) {
+		return new ArrayDlxSolver(dimension, maxSolutions);
+	}
+
+	/**
+	 * Test the solver can be reused and returns the same results as DlxSolver,
+	 * including the first found solution when there are multiple solutions.
+	 */
+	@Override
+	@Test
+	public void testSameResultsAsDlxSolver() {
+		final BruteForceSolver unitUnderTest = new ArrayDlxSolver(DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS);
+		final BruteForceSolver referenceSolver = new DlxSolver(DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS);
+		final Random random = new Random(42);
+
+		for(int i = 0; i < 200; ++i) {
+			final int[] puzzle = createRandomPuzzle(random, i);
+			final int[] expectedPuzzle = puzzle.clone();
+
+			final int expectedCount = referenceSolver.solve(expectedPuzzle);
+			final int actualCount = unitUnderTest.solve(puzzle);
+
+			assertEquals(expectedCount, actualCount);
+			assertArrayEquals(expectedPuzzle, puzzle);
+		}
+	}
+
+	/**
+	 * Test a 16x16 puzzle is solved the same way as DlxSolver does it.
+	 */
+	@Override
+	@Test
+	public void testSolveLargerDimension() {
+		final BruteForceSolver unitUnderTest = new ArrayDlxSolver(4, BruteForceSolver.MULTIPLE_SOLUTIONS);
+		final BruteForceSolver referenceSolver = new DlxSolver(4, BruteForceSolver.MULTIPLE_SOLUTIONS);
+		final int[] puzzle = new int[256];
+		final int[] expectedPuzzle = new int[256];
+
+		assertEquals(referenceSolver.solve(expectedPuzzle), unitUnderTest.solve(puzzle));
+		assertArrayEquals(expectedPuzzle, puzzle);
+	}
+
+	/**
+	 * Test all solutions are enumerated exactly once, and that counting finds the same number.
+	 */
+	@Test
+	public void testEnumerateSolutions() {
+		final ArrayDlxSolver unitUnderTest = new ArrayDlxSolver(DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS);
+		final int[] puzzle = uniquePuzzleSolution.clone();
+		for(int i = 0; i < 4 * 9; ++i) {
+			puzzle[i] = 0;
+		}
+		final int[] givens = puzzle.clone();
+
+		final BruteForceSolver checker = new ArrayDlxSolver(DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS);
+		final Set<String> solutions = new HashSet<>();
+		final Iterator<int[]> iterator = unitUnderTest.enumerateSolutions(puzzle);
+		while(iterator.hasNext()) {
+			final int[] solution = iterator.next();
+			for(int i = 0; i < GRID; ++i) {
+				assertTrue(givens[i] == 0 || givens[i] == solution[i]);
+			}
+			//A valid solution is its own unique solution
+			final int[] check = solution.clone();
+			assertEquals(BruteForceSolver.UNIQUE_SOLUTION, checker.solve(check));
+			assertArrayEquals(solution, check);
+			assertTrue(solutions.add(Arrays.toString(solution)));
+		}
+
+		assertTrue(solutions.size() > 1);
+		assertTrue(solutions.contains(Arrays.toString(uniquePuzzleSolution)));
+		assertArrayEquals(givens, puzzle);
+		assertEquals(solutions.size(), unitUnderTest.countSolutions(puzzle, Long.MAX_VALUE));
+		assertEquals(2, unitUnderTest.countSolutions(puzzle, 2));
+	}
+
+	/**
+	 * Test a cancelled enumeration leaves the solver ready for solving other puzzles.
+	 */
+	@Test
+	public void testCancelEnumeration() {
+		final ArrayDlxSolver unitUnderTest = new ArrayDlxSolver(DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS);
+		final ArrayDlxSolver.SolutionIterator iterator = unitUnderTest.enumerateSolutions(new int[GRID]);
+
+		assertTrue(iterator.hasNext());
+		iterator.next();
+		iterator.next();
+		iterator.cancel();
+
+		assertFalse(iterator.hasNext());
+		assertEquals(BruteForceSolver.UNIQUE_SOLUTION, unitUnderTest.solve(uniquePuzzle));
+		assertArrayEquals(uniquePuzzleSolution, uniquePuzzle);
+	}
+
+	/**
+	 * Test a puzzle with conflicting givens has nothing to enumerate.
+	 */
+	@Test
+	public void testEnumerateConflictingGivens() {
+		final ArrayDlxSolver unitUnderTest = new ArrayDlxSolver(DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS);
+		final int[] puzzle = new int[GRID];
+		puzzle[0] = 5;
+		puzzle[8] = 5;
+
+		assertFalse(unitUnderTest.enumerateSolutions(puzzle).hasNext());
+		assertEquals(0, unitUnderTest.countSolutions(puzzle, Long.MAX_VALUE));
+	}
+}
@@ -0,0 +1,166 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.solver;
+
+import static com.matic.sudoku.solver.SolverTestUtils.fromString;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.matic.sudoku.solver.BatchSolver.Ordering;
+
+/**
+ * Unit tests for the BatchSolver class.
+ * @author vedran
+ *
+ */
+public class BatchSolverTest {
+
+	private static final int DIMENSION = 3;
+	private static final int GRID = 81;
+	private static final int THREAD_COUNT = 4;
+	private static final int PUZZLE_COUNT = 300;
+
+	private static final String UNIQUE_PUZZLE =
+			"800000000003600000070090200050007000000045700000100030001000068008500010090000400";
+	private static final String UNIQUE_PUZZLE_SOLUTION =
+			"812753649943682175675491283154237896369845721287169534521974368438526917796318452";
+
+	private ExecutorService executor;
+	private BatchSolver unitUnderTest;
+
+	@Before
+	public void setup() {
+		executor = Executors.newFixedThreadPool(THREAD_COUNT);
+		unitUnderTest = new BatchSolver(DIMENSION, executor, THREAD_COUNT,
+				new SolverProvider(SolverType.BITBOARD));
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Test results are delivered in input order and match single puzzle solving.
+	 */
+	@Test
+	public void testInputOrdering() {
+		final List<int[]> puzzles = createPuzzles();
+		final Iterator<BatchResult> results = unitUnderTest.solve(puzzles.iterator(), Ordering.INPUT);
+
+		for(int i = 0; i < PUZZLE_COUNT; ++i) {
+			assertTrue(results.hasNext());
+			final BatchResult result = results.next();
+			assertEquals(i, result.getIndex());
+			assertSolvedAsSinglePuzzle(puzzles.get(i), result);
+		}
+		assertFalse(results.hasNext());
+	}
+
+	/**
+	 * Test every puzzle is delivered exactly once when delivering in completion order.
+	 */
+	@Test
+	public void testCompletionOrdering() {
+		final List<int[]> puzzles = createPuzzles();
+		final Iterator<BatchResult> results = unitUnderTest.solve(puzzles.iterator(), Ordering.COMPLETION);
+		final boolean[] delivered = new boolean[PUZZLE_COUNT];
+
+		while(results.hasNext()) {
+			final BatchResult result = results.next();
+			final int index = (int)result.getIndex();
+			assertFalse(delivered[index]);
+			delivered[index] = true;
+			assertSolvedAsSinglePuzzle(puzzles.get(index), result);
+		}
+		for(final boolean isDelivered : delivered) {
+			assertTrue(isDelivered);
+		}
+	}
+
+	/**
+	 * Test a unique puzzle gets solved and graded, while a multiple solution puzzle is not graded.
+	 */
+	@Test
+	public void testGrading() {
+		final List<int[]> puzzles = new ArrayList<>();
+		puzzles.add(fromString(UNIQUE_PUZZLE));
+		puzzles.add(new int[GRID]);
+
+		final Iterator<BatchResult> results = unitUnderTest.solve(puzzles.iterator(), Ordering.INPUT);
+
+		final BatchResult unique = results.next();
+		assertEquals(BruteForceSolver.UNIQUE_SOLUTION, unique.getSolutionCount());
+		assertArrayEquals(fromString(UNIQUE_PUZZLE_SOLUTION), unique.getSolution());
+		assertArrayEquals(fromString(UNIQUE_PUZZLE), unique.getPuzzle());
+
+		final BatchResult multiple = results.next();
+		assertEquals(BruteForceSolver.MULTIPLE_SOLUTIONS, multiple.getSolutionCount());
+		assertNull(multiple.getGrading());
+		assertFalse(results.hasNext());
+	}
+
+	private void assertSolvedAsSinglePuzzle(final int[] puzzle, final BatchResult result) {
+		final int[] expectedSolution = puzzle.clone();
+		final int expectedCount = new BitboardSolver(DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS).solve(expectedSolution);
+
+		assertArrayEquals(puzzle, result.getPuzzle());
+		assertEquals(expectedCount, result.getSolutionCount());
+		if(expectedCount == BruteForceSolver.UNIQUE_SOLUTION) {
+			assertArrayEquals(expectedSolution, result.getSolution());
+		}
+		if(result.getGrading() != null) {
+			assertNotNull(result.getSolution());
+		}
+	}
+
+	private static List<int[]> createPuzzles() {
+		final int[] solution = fromString(UNIQUE_PUZZLE_SOLUTION);
+		final Random random = new Random(7);
+		final List<int[]> puzzles = new ArrayList<>();
+
+		for(int i = 0; i < PUZZLE_COUNT; ++i) {
+			final int[] puzzle = solution.clone();
+			final int removeCount = 40 + random.nextInt(GRID - 40);
+			for(int j = 0; j < removeCount; ++j) {
+				puzzle[random.nextInt(GRID)] = 0;
+			}
+			puzzles.add(puzzle);
+		}
+		return puzzles;
+	}
+
+}
@@ -0,0 +1,266 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.solver;
+
+import static com.matic.sudoku.solver.SolverTestUtils.assertValidSolution;
+import static com.matic.sudoku.solver.SolverTestUtils.fromString;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests every BruteForceSolver implementation has to pass. Subclasses only
+ * need to create the solver under test.
+ * @author vedran
+ *
+ */
+public abstract class BruteForceSolverTestBase {
+
+	protected static final int DIMENSION = 3;
+	protected static final int GRID = 81;
+
+	protected int[] uniquePuzzle;
+	protected int[] uniquePuzzleSolution;
+
+	/**
+	 * Create the solver under test.
+	 * @param dimension Board dimension
+	 * @param maxSolutions Maximum number of solutions to look for
+	 * @return A new solver instance
+	 */
+	protected abstract BruteForceSolver createSolver(final int dimension, final int maxSolutions);
+
+	@Before
+	public void setup() {
+		uniquePuzzle = fromString(
+				"800000000003600000070090200050007000000045700000100030001000068008500010090000400");
+		uniquePuzzleSolution = fromString(
+				"812753649943682175675491283154237896369845721287169534521974368438526917796318452");
+	}
+
+	/**
+	 * Test a puzzle with a unique solution is solved correctly.
+	 */
+	@Test
+	public void testSolveUniquePuzzle() {
+		final BruteForceSolver unitUnderTest = createSolver(DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS);
+
+		final int solutionCount = unitUnderTest.solve(uniquePuzzle);
+
+		assertEquals(BruteForceSolver.UNIQUE_SOLUTION, solutionCount);
+		assertArrayEquals(uniquePuzzleSolution, uniquePuzzle);
+	}
+
+	/**
+	 * Test an empty puzzle is reported as having multiple solutions.
+	 */
+	@Test
+	public void testSolveEmptyPuzzle() {
+		final BruteForceSolver unitUnderTest = createSolver(DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS);
+
+		final int solutionCount = unitUnderTest.solve(new int[GRID]);
+
+		assertEquals(BruteForceSolver.MULTIPLE_SOLUTIONS, solutionCount);
+	}
+
+	/**
+	 * Test conflicting givens result in no solution and leave the puzzle unchanged.
+	 */
+	@Test
+	public void testSolveConflictingGivens() {
+		final BruteForceSolver unitUnderTest = createSolver(DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS);
+		final int[] puzzle = new int[GRID];
+		puzzle[0] = 5;
+		puzzle[8] = 5;
+		final int[] expectedPuzzle = puzzle.clone();
+
+		final int solutionCount = unitUnderTest.solve(puzzle);
+
+		assertEquals(BruteForceSolver.NO_SOLUTION, solutionCount);
+		assertArrayEquals(expectedPuzzle, puzzle);
+	}
+
+	/**
+	 * Test a puzzle of wrong dimension is rejected.
+	 */
+	@Test
+	public void testSolveInvalidPuzzle() {
+		final BruteForceSolver unitUnderTest = createSolver(DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS);
+
+		final int solutionCount = unitUnderTest.solve(new int[GRID - 1]);
+
+		assertEquals(BruteForceSolver.INVALID_PUZZLE, solutionCount);
+	}
+
+	/**
+	 * Test the solver can be reused and finds the same number of solutions as DlxSolver.
+	 * Unique solutions must be equal, otherwise any valid solution is accepted.
+	 */
+	@Test
+	public void testSameResultsAsDlxSolver() {
+		final BruteForceSolver unitUnderTest = createSolver(DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS);
+		final BruteForceSolver referenceSolver = new DlxSolver(DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS);
+		final Random random = new Random(42);
+
+		for(int i = 0; i < 200; ++i) {
+			final int[] puzzle = createRandomPuzzle(random, i);
+			final int[] givens = puzzle.clone();
+			final int[] expectedPuzzle = puzzle.clone();
+
+			final int expectedCount = referenceSolver.solve(expectedPuzzle);
+			final int actualCount = unitUnderTest.solve(puzzle);
+
+			assertEquals(expectedCount, actualCount);
+			if(actualCount == BruteForceSolver.MULTIPLE_SOLUTIONS) {
+				assertValidSolution(DIMENSION, givens, puzzle);
+			}
+			else {
+				assertArrayEquals(expectedPuzzle, puzzle);
+			}
+		}
+	}
+
+	/**
+	 * Test an empty 16x16 puzzle is filled with a valid solution.
+	 */
+	@Test
+	public void testSolveLargerDimension() {
+		final BruteForceSolver unitUnderTest = createSolver(4, BruteForceSolver.MULTIPLE_SOLUTIONS);
+		final int[] puzzle = new int[256];
+
+		assertEquals(BruteForceSolver.MULTIPLE_SOLUTIONS, unitUnderTest.solve(puzzle));
+		assertValidSolution(4, new int[256], puzzle);
+	}
+
+	/**
+	 * Test a solver session gives the same counts as solving each puzzle from scratch, while
+	 * clues are removed and added back in any order.
+	 */
+	@Test
+	public void testSession() {
+		final BruteForceSolver unitUnderTest = createSolver(DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS);
+		final BruteForceSolver referenceSolver = new DlxSolver(DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS);
+		final Random random = new Random(42);
+
+		final int[] puzzle = uniquePuzzleSolution.clone();
+		final SolverSession session = unitUnderTest.openSession(puzzle);
+		for(int i = 0; i < 300; ++i) {
+			final int cell = random.nextInt(GRID);
+			if(puzzle[cell] == 0) {
+				puzzle[cell] = uniquePuzzleSolution[cell];
+				session.addClue(cell, puzzle[cell]);
+			}
+			else {
+				puzzle[cell] = 0;
+				session.removeClue(cell);
+			}
+			assertEquals(referenceSolver.solve(puzzle.clone()), session.countSolutions(CancellationToken.NONE));
+		}
+		session.close();
+
+		//The solver is fully restored after the session is closed
+		assertEquals(BruteForceSolver.UNIQUE_SOLUTION, unitUnderTest.solve(uniquePuzzle));
+		assertArrayEquals(uniquePuzzleSolution, uniquePuzzle);
+	}
+
+	/**
+	 * Test a session rejects conflicting clues and clearing empty cells, and can't be used
+	 * once closed.
+	 */
+	@Test
+	public void testSessionInvalidUse() {
+		final BruteForceSolver unitUnderTest = createSolver(DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS);
+		final SolverSession session = unitUnderTest.openSession(uniquePuzzle);
+
+		try {
+			//Row 0 already contains an 8
+			session.addClue(1, 8);
+			fail();
+		}
+		catch(final IllegalArgumentException e) {
+			//Expected
+		}
+		try {
+			session.removeClue(1);
+			fail();
+		}
+		catch(final IllegalArgumentException e) {
+			//Expected
+		}
+		assertEquals(BruteForceSolver.UNIQUE_SOLUTION, session.countSolutions(CancellationToken.NONE));
+
+		session.close();
+		try {
+			session.countSolutions(CancellationToken.NONE);
+			fail();
+		}
+		catch(final IllegalStateException e) {
+			//Expected
+		}
+	}
+
+	/**
+	 * Test a session keeping the clues in the solver can't be used once the solver is used for solving.
+	 */
+	@Test
+	public void testSessionClosedBySolving() {
+		final BruteForceSolver unitUnderTest = createSolver(DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS);
+		final SolverSession session = unitUnderTest.openSession(uniquePuzzle);
+		if(session instanceof RestartingSession) {
+			//Solving doesn't touch the clues of a restarting session
+			return;
+		}
+		assertEquals(BruteForceSolver.UNIQUE_SOLUTION, session.countSolutions(CancellationToken.NONE));
+
+		unitUnderTest.solve(new int[GRID]);
+		try {
+			session.countSolutions(CancellationToken.NONE);
+			fail();
+		}
+		catch(final IllegalStateException e) {
+			//Expected
+		}
+	}
+
+	/**
+	 * Create a puzzle by removing random clues from the unique puzzle solution, with
+	 * a conflicting given introduced now and then.
+	 * @param random Source of randomness
+	 * @param index Sequence number of the created puzzle
+	 * @return A puzzle with any number of solutions
+	 */
+	protected int[] createRandomPuzzle(final Random random, final int index) {
+		final int[] puzzle = uniquePuzzleSolution.clone();
+		final int removeCount = 30 + random.nextInt(GRID - 30);
+		for(int j = 0; j < removeCount; ++j) {
+			puzzle[random.nextInt(GRID)] = 0;
+		}
+		if(index % 10 == 0) {
+			puzzle[random.nextInt(GRID)] = 1 + random.nextInt(9);
+		}
+		return puzzle;
+	}
+}
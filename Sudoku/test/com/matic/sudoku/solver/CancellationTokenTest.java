@@ -0,0 +1,127 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.solver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.matic.sudoku.generator.ClassicGenerator;
+import com.matic.sudoku.generator.Generator;
+import com.matic.sudoku.generator.Generator.Symmetry;
+import com.matic.sudoku.solver.LogicSolver.Grading;
+
+/**
+ * Unit tests for cancelling solvers and generators using the CancellationToken class.
+ * @author vedran
+ *
+ */
+public class CancellationTokenTest {
+
+	private static final int DIMENSION = 3;
+
+	private int[] solution;
+
+	//A puzzle with a large number of solutions, takes seconds to enumerate all of them
+	private int[] sparsePuzzle;
+
+	@Before
+	public void setup() {
+		final String solutionString = "812753649943682175675491283154237896369845721287169534521974368438526917796318452";
+		solution = new int[solutionString.length()];
+		sparsePuzzle = new int[solution.length];
+		for(int i = 0; i < solution.length; ++i) {
+			solution[i] = solutionString.charAt(i) - '0';
+			sparsePuzzle[i] = i < 45? 0 : solution[i];
+		}
+	}
+
+	/**
+	 * Test all brute force solvers stop when the token is cancelled, leaving the puzzle unchanged.
+	 */
+	@Test
+	public void testCancelledBruteForceSolvers() {
+		final CancellationToken cancellationToken = new CancellationToken();
+		cancellationToken.cancel();
+
+		for(final SolverType solverType : SolverType.values()) {
+			final BruteForceSolver unitUnderTest = solverType.create(DIMENSION, Integer.MAX_VALUE);
+			final int[] puzzle = sparsePuzzle.clone();
+
+			assertEquals(solverType.name(), BruteForceSolver.TIMED_OUT, unitUnderTest.solve(puzzle, cancellationToken));
+			assertArrayEquals(sparsePuzzle, puzzle);
+
+			//The solver must still work correctly after a timeout
+			final int[] almostSolved = solution.clone();
+			almostSolved[0] = 0;
+			assertEquals(BruteForceSolver.UNIQUE_SOLUTION, unitUnderTest.solve(almostSolved));
+			assertArrayEquals(solution, almostSolved);
+		}
+	}
+
+	/**
+	 * Test a search is stopped shortly after the deadline has passed.
+	 */
+	@Test
+	public void testDeadline() {
+		final BruteForceSolver unitUnderTest = new ArrayDlxSolver(DIMENSION, Integer.MAX_VALUE);
+		final CancellationToken cancellationToken = new CancellationToken(20, TimeUnit.MILLISECONDS);
+		assertFalse(cancellationToken.isCancelled());
+
+		final long start = System.nanoTime();
+		assertEquals(BruteForceSolver.TIMED_OUT, unitUnderTest.solve(sparsePuzzle.clone(), cancellationToken));
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+		assertTrue(cancellationToken.isCancelled());
+	}
+
+	/**
+	 * Test the logic solver and the generator give up when the token is cancelled.
+	 */
+	@Test
+	public void testCancelledLogicSolverAndGenerator() {
+		final CancellationToken cancellationToken = new CancellationToken();
+		cancellationToken.cancel();
+
+		final LogicSolver logicSolver = new LogicSolver(DIMENSION);
+		assertEquals(LogicSolver.TIMED_OUT, logicSolver.solve(
+				sparsePuzzle.clone(), cancellationToken));
+
+		final Generator generator = new ClassicGenerator(DIMENSION, Generator.MAX_ITERATIONS);
+		generator.setBruteForceSolver(new BitboardSolver(DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS));
+		generator.setLogicSolver(logicSolver);
+		assertNull(generator.createNew(Grading.EASY, Symmetry.NONE, cancellationToken));
+	}
+
+	/**
+	 * Test the token that is never cancelled can't be cancelled.
+	 */
+	@Test(expected = UnsupportedOperationException.class)
+	public void testCancelNone() {
+		CancellationToken.NONE.cancel();
+	}
+}
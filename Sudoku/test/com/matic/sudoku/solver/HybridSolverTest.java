@@ -0,0 +1,104 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.solver;
+
+import static com.matic.sudoku.solver.SolverTestUtils.assertValidSolution;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the HybridSolver class.
+ * @author vedran
+ *
+ */
+public class HybridSolverTest extends BruteForceSolverTestBase {
+
+	@Override
+	protected BruteForceSolver createSolver(final int dimension, final int maxSolutions) {
+		return new HybridSolver(dimension, maxSolutions);
+	}
+
+	/**
+	 * Test a puzzle solvable by the propagated logic alone is solved without guessing.
+	 */
+	@Test
+	public void testNoGuessesForEasyPuzzle() {
+		final HybridSolver unitUnderTest = new HybridSolver(DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS);
+		final int[] puzzle = uniquePuzzleSolution.clone();
+		for(int i = 0; i < GRID; i += 4) {
+			puzzle[i] = 0;
+		}
+
+		assertEquals(BruteForceSolver.UNIQUE_SOLUTION, unitUnderTest.solve(puzzle));
+		assertArrayEquals(uniquePuzzleSolution, puzzle);
+		assertEquals(0, unitUnderTest.getGuessCount());
+		assertEquals(0, unitUnderTest.getMaxDepth());
+	}
+
+	/**
+	 * Test the search statistics are reported for a puzzle requiring guesses, and reset
+	 * on each solve.
+	 */
+	@Test
+	public void testSearchStatistics() {
+		final HybridSolver unitUnderTest = new HybridSolver(DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS);
+
+		assertEquals(BruteForceSolver.UNIQUE_SOLUTION, unitUnderTest.solve(uniquePuzzle));
+		assertTrue(unitUnderTest.getGuessCount() > 0);
+		assertTrue(unitUnderTest.getMaxDepth() > 0);
+		assertTrue(unitUnderTest.getMaxDepth() <= unitUnderTest.getGuessCount());
+
+		assertEquals(BruteForceSolver.UNIQUE_SOLUTION, unitUnderTest.solve(uniquePuzzleSolution.clone()));
+		assertEquals(0, unitUnderTest.getGuessCount());
+		assertEquals(0, unitUnderTest.getMaxDepth());
+	}
+
+	/**
+	 * Test a sparse 16x16 puzzle gets the same solution count as DlxSolver.
+	 */
+	@Test
+	public void testSameResultLargerDimension() {
+		final int dimension = 4;
+		final int grid = 256;
+		final int[] solution = new int[grid];
+		assertEquals(BruteForceSolver.MULTIPLE_SOLUTIONS,
+				new HybridSolver(dimension, BruteForceSolver.MULTIPLE_SOLUTIONS).solve(solution));
+
+		final Random random = new Random(7);
+		final int[] puzzle = solution.clone();
+		for(int i = 0; i < 150; ++i) {
+			puzzle[random.nextInt(grid)] = 0;
+		}
+		final int[] expectedPuzzle = puzzle.clone();
+		final int[] actualPuzzle = puzzle.clone();
+
+		final int expectedCount = new DlxSolver(dimension, BruteForceSolver.MULTIPLE_SOLUTIONS).solve(expectedPuzzle);
+		final int actualCount = new HybridSolver(dimension, BruteForceSolver.MULTIPLE_SOLUTIONS).solve(actualPuzzle);
+
+		assertEquals(expectedCount, actualCount);
+		assertValidSolution(dimension, puzzle, actualPuzzle);
+	}
+}
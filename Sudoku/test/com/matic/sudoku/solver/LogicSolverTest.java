@@ -0,0 +1,106 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.solver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.matic.sudoku.logic.Candidates;
+import com.matic.sudoku.logic.strategy.NakedSingles;
+import com.matic.sudoku.solver.LogicSolver.Mode;
+
+/**
+ * Unit tests for the LogicSolver class.
+ * @author vedran
+ *
+ */
+public class LogicSolverTest {
+
+	private static final int DIMENSION = 3;
+	private static final int UNIT = DIMENSION * DIMENSION;
+
+	private int[] solution;
+	private int[] puzzle;
+
+	@Before
+	public void setup() {
+		final String solutionString = "812753649943682175675491283154237896369845721287169534521974368438526917796318452";
+		solution = new int[solutionString.length()];
+		puzzle = new int[solution.length];
+		for(int i = 0; i < solution.length; ++i) {
+			solution[i] = solutionString.charAt(i) - '0';
+			//Remove every fourth digit, leaving an easy puzzle
+			puzzle[i] = i % 4 == 0? 0 : solution[i];
+		}
+	}
+
+	/**
+	 * Test both modes solve the puzzle, the exhaustive one using at most as many strategy uses.
+	 */
+	@Test
+	public void testModes() {
+		final LogicSolver unitUnderTest = new LogicSolver(DIMENSION);
+		assertEquals(Mode.SINGLE_STEP, unitUnderTest.getMode());
+
+		final int[] singleStepBoard = puzzle.clone();
+		assertEquals(LogicSolver.UNIQUE_SOLUTION, unitUnderTest.solve(singleStepBoard));
+		assertArrayEquals(solution, singleStepBoard);
+		final int singleStepScore = unitUnderTest.getScore();
+
+		unitUnderTest.setMode(Mode.EXHAUSTIVE);
+		final int[] exhaustiveBoard = puzzle.clone();
+		assertEquals(LogicSolver.UNIQUE_SOLUTION, unitUnderTest.solve(exhaustiveBoard));
+		assertArrayEquals(solution, exhaustiveBoard);
+		assertTrue(unitUnderTest.getScore() <= singleStepScore);
+
+		//Hints are still found one step at a time
+		assertNotNull(unitUnderTest.getHint(puzzle.clone()));
+	}
+
+	/**
+	 * Test a strategy applies all of the steps it can find at once.
+	 */
+	@Test
+	public void testApplyAll() {
+		final int[] board = puzzle.clone();
+		final Candidates candidates = new Candidates(DIMENSION, board);
+		final NakedSingles unitUnderTest = new NakedSingles(DIMENSION);
+
+		final List<Step> steps = unitUnderTest.applyAll(board, candidates);
+		assertFalse(steps.isEmpty());
+		for(final Step step : steps) {
+			assertTrue(step.isSingleFound());
+			assertEquals(1, step.getLocations().size());
+			final Pair location = step.getLocations().get(0);
+			assertEquals(solution[location.getRow() * UNIT + location.getColumn()], step.getValues()[0]);
+		}
+		assertFalse(unitUnderTest.getDidFindSingle());
+		assertFalse(unitUnderTest.apply(board, candidates));
+	}
+}
@@ -0,0 +1,68 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.solver;
+
+import static com.matic.sudoku.solver.SolverTestUtils.assertValidSolution;
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the ParallelDlxSolver class.
+ * @author vedran
+ *
+ */
+public class ParallelDlxSolverTest extends BruteForceSolverTestBase {
+
+	@Override
+	protected BruteForceSolver createSolver(final int dimension, final int maxSolutions) {
+		return new ParallelDlxSolver(dimension, maxSolutions);
+	}
+
+	/**
+	 * Test solutions are counted exactly when the count is below maxSolutions, and capped otherwise.
+	 */
+	@Test
+	public void testCountManySolutions() {
+		final int[] puzzle = uniquePuzzleSolution.clone();
+		for(int i = 0; i < 4 * 9; ++i) {
+			puzzle[i] = 0;
+		}
+		final long expectedCount = new ArrayDlxSolver(DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS)
+			.countSolutions(puzzle, Long.MAX_VALUE);
+		final ForkJoinPool pool = new ForkJoinPool(4);
+
+		try {
+			final BruteForceSolver unitUnderTest = new ParallelDlxSolver(DIMENSION, 10000, pool, 3);
+			final int[] solution = puzzle.clone();
+			assertEquals(expectedCount, unitUnderTest.solve(solution));
+			assertValidSolution(DIMENSION, puzzle, solution);
+
+			final BruteForceSolver cappedUnitUnderTest = new ParallelDlxSolver(DIMENSION, 3, pool, 3);
+			assertEquals(3, cappedUnitUnderTest.solve(puzzle.clone()));
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,190 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.solver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.matic.sudoku.solver.LogicSolver.Grading;
+
+/**
+ * Unit tests for the SolutionCache class.
+ * @author vedran
+ *
+ */
+public class SolutionCacheTest {
+
+	private static final int DIMENSION = 3;
+
+	private BruteForceSolver bruteForceSolver;
+	private LogicSolver logicSolver;
+	private File spillDirectory;
+
+	private int[] puzzle;
+	private int[] solution;
+
+	@Before
+	public void setup() throws IOException {
+		bruteForceSolver = new BitboardSolver(DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS);
+		logicSolver = new LogicSolver(DIMENSION);
+		spillDirectory = Files.createTempDirectory("solution-cache").toFile();
+
+		final String solutionString = "812753649943682175675491283154237896369845721287169534521974368438526917796318452";
+		solution = new int[solutionString.length()];
+		puzzle = new int[solution.length];
+		for(int i = 0; i < solution.length; ++i) {
+			solution[i] = solutionString.charAt(i) - '0';
+			//Remove every fourth digit, leaving an easy puzzle
+			puzzle[i] = i % 4 == 0? 0 : solution[i];
+		}
+	}
+
+	@After
+	public void tearDown() {
+		final File[] files = spillDirectory.listFiles();
+		if(files != null) {
+			for(final File file : files) {
+				file.delete();
+			}
+		}
+		spillDirectory.delete();
+	}
+
+	/**
+	 * Test a puzzle is solved and graded once, and later served from the cache.
+	 */
+	@Test
+	public void testSolveAndHit() {
+		final SolutionCache unitUnderTest = new SolutionCache(SolutionCache.DEFAULT_MAX_ENTRIES);
+		final int[] input = puzzle.clone();
+
+		final CachedSolution result = unitUnderTest.solve(input, bruteForceSolver, logicSolver);
+		assertArrayEquals(puzzle, input);
+		assertEquals(BruteForceSolver.UNIQUE_SOLUTION, result.getSolutionCount());
+		assertArrayEquals(solution, result.getSolution());
+		assertEquals(Grading.EASY, result.getGrading());
+
+		assertSame(result, unitUnderTest.solve(puzzle.clone(), bruteForceSolver, logicSolver));
+		assertSame(result, unitUnderTest.get(puzzle));
+		assertEquals(1, unitUnderTest.size());
+	}
+
+	/**
+	 * Test puzzles with multiple solutions are cached without a solution or grading.
+	 */
+	@Test
+	public void testMultipleSolutions() {
+		final SolutionCache unitUnderTest = new SolutionCache(SolutionCache.DEFAULT_MAX_ENTRIES);
+		final CachedSolution result = unitUnderTest.solve(new int[puzzle.length], bruteForceSolver, logicSolver);
+
+		assertEquals(BruteForceSolver.MULTIPLE_SOLUTIONS, result.getSolutionCount());
+		assertNull(result.getSolution());
+		assertNull(result.getGrading());
+	}
+
+	/**
+	 * Test the least recently used results are evicted, and reloaded from the spill directory.
+	 */
+	@Test
+	public void testEvictionAndSpill() {
+		final SolutionCache inMemory = new SolutionCache(2);
+		final SolutionCache spilling = new SolutionCache(2, spillDirectory);
+		final int[][] puzzles = new int[3][];
+		for(int i = 0; i < puzzles.length; ++i) {
+			puzzles[i] = puzzle.clone();
+			puzzles[i][i * 4] = solution[i * 4];
+			inMemory.solve(puzzles[i], bruteForceSolver, logicSolver);
+			spilling.solve(puzzles[i], bruteForceSolver, logicSolver);
+		}
+
+		assertEquals(2, inMemory.size());
+		assertNull(inMemory.get(puzzles[0]));
+		assertNotNull(inMemory.get(puzzles[2]));
+
+		final CachedSolution reloaded = spilling.get(puzzles[0]);
+		assertNotNull(reloaded);
+		assertArrayEquals(solution, reloaded.getSolution());
+		assertEquals(Grading.EASY, reloaded.getGrading());
+	}
+
+	/**
+	 * Test flushed results are available to a new cache using the same spill directory.
+	 */
+	@Test
+	public void testFlush() {
+		final SolutionCache first = new SolutionCache(SolutionCache.DEFAULT_MAX_ENTRIES, spillDirectory);
+		final CachedSolution result = first.solve(puzzle, bruteForceSolver, logicSolver);
+		first.flush();
+
+		final SolutionCache second = new SolutionCache(SolutionCache.DEFAULT_MAX_ENTRIES, spillDirectory);
+		final CachedSolution reloaded = second.get(puzzle);
+		assertNotNull(reloaded);
+		assertEquals(result.getSolutionCount(), reloaded.getSolutionCount());
+		assertEquals(result.getScore(), reloaded.getScore());
+		assertArrayEquals(result.getSolution(), reloaded.getSolution());
+		assertNull(second.get(solution));
+	}
+
+	/**
+	 * Test the spill directory never holds more results than allowed, and that only new results
+	 * are written on flush.
+	 */
+	@Test
+	public void testSpillFileLimit() {
+		final int maxSpillFiles = 2;
+		final SolutionCache unitUnderTest = new SolutionCache(1, spillDirectory, maxSpillFiles);
+		final int[][] puzzles = new int[5][];
+		for(int i = 0; i < puzzles.length; ++i) {
+			puzzles[i] = puzzle.clone();
+			puzzles[i][i * 4] = solution[i * 4];
+			unitUnderTest.solve(puzzles[i], bruteForceSolver, logicSolver);
+			assertTrue(spillDirectory.listFiles().length <= maxSpillFiles);
+		}
+		unitUnderTest.flush();
+		assertEquals(maxSpillFiles, spillDirectory.listFiles().length);
+
+		//Results read back from the spill directory are not written again
+		final SolutionCache reopened = new SolutionCache(SolutionCache.DEFAULT_MAX_ENTRIES, spillDirectory,
+				maxSpillFiles);
+		int reloadedCount = 0;
+		for(final int[] spilledPuzzle : puzzles) {
+			reloadedCount += reopened.get(spilledPuzzle) != null? 1 : 0;
+		}
+		assertEquals(maxSpillFiles, reloadedCount);
+		for(final File spillFile : spillDirectory.listFiles()) {
+			spillFile.delete();
+		}
+		reopened.flush();
+		assertEquals(0, spillDirectory.listFiles().length);
+	}
+}
@@ -0,0 +1,183 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.matic.sudoku.solver.LogicSolver.Grading;
+import com.matic.sudoku.solver.LogicSolver.Mode;
+
+/**
+ * Unit tests for the SolverProvider class.
+ * @author vedran
+ *
+ */
+public class SolverProviderTest {
+
+	private static final int DIMENSION = 3;
+	private static final int THREAD_COUNT = 4;
+
+	//A puzzle needing strategies above the easy ones
+	private static final String HARD_PUZZLE =
+			"000290100800500600790004000100000000200005800074001000002036400050080001000000089";
+
+	private SolverProvider unitUnderTest;
+	private ExecutorService executor;
+
+	@Before
+	public void setup() {
+		unitUnderTest = new SolverProvider(SolverType.BITBOARD);
+		executor = Executors.newFixedThreadPool(THREAD_COUNT);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Test a thread always gets the same solvers for the same keys, and other threads get their own.
+	 */
+	@Test
+	public void testThreadSolvers() throws Exception {
+		final BruteForceSolver bruteForceSolver = unitUnderTest.getBruteForceSolver(DIMENSION,
+				BruteForceSolver.MULTIPLE_SOLUTIONS);
+		final LogicSolver logicSolver = unitUnderTest.getLogicSolver(DIMENSION);
+
+		assertTrue(bruteForceSolver instanceof BitboardSolver);
+		assertSame(bruteForceSolver, unitUnderTest.getBruteForceSolver(DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS));
+		assertSame(logicSolver, unitUnderTest.getLogicSolver(DIMENSION));
+
+		assertNotSame(bruteForceSolver, unitUnderTest.getBruteForceSolver(DIMENSION, BruteForceSolver.UNIQUE_SOLUTION));
+		assertNotSame(bruteForceSolver, unitUnderTest.getBruteForceSolver(4, BruteForceSolver.MULTIPLE_SOLUTIONS));
+		assertNotSame(logicSolver, unitUnderTest.getLogicSolver(4));
+
+		final Future<BruteForceSolver> otherBruteForceSolver = executor.submit(new Callable<BruteForceSolver>() {
+			@Override
+			public BruteForceSolver call() {
+				return unitUnderTest.getBruteForceSolver(DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS);
+			}
+		});
+		final Future<LogicSolver> otherLogicSolver = executor.submit(new Callable<LogicSolver>() {
+			@Override
+			public LogicSolver call() {
+				return unitUnderTest.getLogicSolver(DIMENSION);
+			}
+		});
+		assertNotSame(bruteForceSolver, otherBruteForceSolver.get());
+		assertNotSame(logicSolver, otherLogicSolver.get());
+	}
+
+	/**
+	 * Test returned solvers are borrowed again, but only for the keys they were returned with.
+	 */
+	@Test
+	public void testPooledSolverReuse() {
+		final BruteForceSolver bruteForceSolver = unitUnderTest.borrowBruteForceSolver(DIMENSION,
+				BruteForceSolver.MULTIPLE_SOLUTIONS);
+		final BruteForceSolver otherBruteForceSolver = unitUnderTest.borrowBruteForceSolver(DIMENSION,
+				BruteForceSolver.MULTIPLE_SOLUTIONS);
+		assertNotSame(bruteForceSolver, otherBruteForceSolver);
+
+		unitUnderTest.returnBruteForceSolver(bruteForceSolver, DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS);
+		assertNotSame(bruteForceSolver, unitUnderTest.borrowBruteForceSolver(DIMENSION,
+				BruteForceSolver.UNIQUE_SOLUTION));
+		assertNotSame(bruteForceSolver, unitUnderTest.borrowBruteForceSolver(4, BruteForceSolver.MULTIPLE_SOLUTIONS));
+		assertSame(bruteForceSolver, unitUnderTest.borrowBruteForceSolver(DIMENSION,
+				BruteForceSolver.MULTIPLE_SOLUTIONS));
+
+		final LogicSolver logicSolver = unitUnderTest.borrowLogicSolver(DIMENSION);
+		unitUnderTest.returnLogicSolver(logicSolver, DIMENSION);
+		assertNotSame(logicSolver, unitUnderTest.borrowLogicSolver(4));
+		assertSame(logicSolver, unitUnderTest.borrowLogicSolver(DIMENSION));
+	}
+
+	/**
+	 * Test a borrowed logic solver can use all strategies and solves a single step at a time, whatever
+	 * it was set to before being returned.
+	 */
+	@Test
+	public void testBorrowedLogicSolverReset() {
+		final int[] puzzle = new int[HARD_PUZZLE.length()];
+		for(int i = 0; i < puzzle.length; ++i) {
+			puzzle[i] = HARD_PUZZLE.charAt(i) - '0';
+		}
+
+		final LogicSolver logicSolver = unitUnderTest.borrowLogicSolver(DIMENSION);
+		logicSolver.setMaxGradingLevel(Grading.EASY);
+		logicSolver.setMode(Mode.EXHAUSTIVE);
+		assertFalse(logicSolver.solve(puzzle.clone()) == LogicSolver.UNIQUE_SOLUTION);
+		unitUnderTest.returnLogicSolver(logicSolver, DIMENSION);
+
+		final LogicSolver borrowedAgain = unitUnderTest.borrowLogicSolver(DIMENSION);
+		assertSame(logicSolver, borrowedAgain);
+		assertEquals(Mode.SINGLE_STEP, borrowedAgain.getMode());
+		assertEquals(LogicSolver.UNIQUE_SOLUTION, borrowedAgain.solve(puzzle.clone()));
+		assertEquals(Grading.HARD, borrowedAgain.getGrading());
+	}
+
+	/**
+	 * Test a pooled solver is never lent to two threads at once.
+	 */
+	@Test
+	public void testConcurrentBorrowing() throws Exception {
+		final Map<BruteForceSolver, Boolean> borrowedSolvers = new ConcurrentHashMap<>();
+		final List<Future<Boolean>> results = new ArrayList<>();
+
+		for(int i = 0; i < THREAD_COUNT; ++i) {
+			results.add(executor.submit(new Callable<Boolean>() {
+				@Override
+				public Boolean call() {
+					for(int j = 0; j < 1000; ++j) {
+						final BruteForceSolver solver = unitUnderTest.borrowBruteForceSolver(DIMENSION,
+								BruteForceSolver.MULTIPLE_SOLUTIONS);
+						if(borrowedSolvers.put(solver, Boolean.TRUE) != null) {
+							return false;
+						}
+						borrowedSolvers.remove(solver);
+						unitUnderTest.returnBruteForceSolver(solver, DIMENSION, BruteForceSolver.MULTIPLE_SOLUTIONS);
+					}
+					return true;
+				}
+			}));
+		}
+		for(final Future<Boolean> result : results) {
+			assertTrue(result.get());
+		}
+	}
+}
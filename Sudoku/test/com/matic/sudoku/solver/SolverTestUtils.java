@@ -0,0 +1,75 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Helper methods shared by the solver and generator unit tests.
+ * @author vedran
+ *
+ */
+public final class SolverTestUtils {
+
+	private SolverTestUtils() {}
+
+	/**
+	 * Assert that a solution is a complete and valid board that keeps all of the givens.
+	 * @param dimension Board dimension
+	 * @param givens Puzzle the solution was found for
+	 * @param solution Solution to check
+	 */
+	public static void assertValidSolution(final int dimension, final int[] givens, final int[] solution) {
+		final int unit = dimension * dimension;
+		final boolean[][] rows = new boolean[unit][unit + 1];
+		final boolean[][] columns = new boolean[unit][unit + 1];
+		final boolean[][] boxes = new boolean[unit][unit + 1];
+
+		assertEquals(unit * unit, solution.length);
+		for(int i = 0; i < solution.length; ++i) {
+			final int row = i / unit;
+			final int column = i % unit;
+			final int box = row / dimension * dimension + column / dimension;
+			final int value = solution[i];
+
+			assertTrue(value > 0 && value <= unit);
+			assertTrue(givens[i] == 0 || givens[i] == value);
+			assertFalse(rows[row][value] || columns[column][value] || boxes[box][value]);
+
+			rows[row][value] = columns[column][value] = boxes[box][value] = true;
+		}
+	}
+
+	/**
+	 * Create a board from a string of digits, where 0 stands for an empty cell.
+	 * @param puzzle Board digits, row by row
+	 * @return Board values
+	 */
+	public static int[] fromString(final String puzzle) {
+		final int[] result = new int[puzzle.length()];
+		for(int i = 0; i < result.length; ++i) {
+			result[i] = puzzle.charAt(i) - '0';
+		}
+		return result;
+	}
+}
@@ -0,0 +1,94 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the Algorithms class.
+ * @author vedran
+ *
+ */
+public class AlgorithmsTest {
+
+	/**
+	 * Test all combinations of k out of n elements are enumerated once, in lexicographic order.
+	 */
+	@Test
+	public void testNextCombination() {
+		for(int n = 1; n <= 25; ++n) {
+			for(int k = 1; k <= Math.min(n, 4); ++k) {
+				int count = 0;
+				int previous = -1;
+				for(int combination = (1 << k) - 1; combination != 0; 
+						combination = Algorithms.nextCombination(combination, n)) {
+					assertEquals(k, Integer.bitCount(combination));
+					assertEquals(0, combination >>> n);
+					if(previous != -1) {
+						assertTrue(isLexicographicallyLess(previous, combination));
+					}
+					previous = combination;
+					++count;
+				}
+				assertEquals(binomial(n, k), count);
+			}
+		}
+	}
+
+	/**
+	 * Test the enumeration order for a small set.
+	 */
+	@Test
+	public void testOrder() {
+		final int[] expected = {0b0011, 0b0101, 0b1001, 0b0110, 0b1010, 0b1100};
+		int combination = 0b0011;
+		for(final int mask : expected) {
+			assertEquals(mask, combination);
+			combination = Algorithms.nextCombination(combination, 4);
+		}
+		assertEquals(0, combination);
+	}
+
+	//Compare the combinations as sorted lists of element indexes
+	private boolean isLexicographicallyLess(int first, int second) {
+		while(first != 0 && second != 0) {
+			final int firstElement = Integer.numberOfTrailingZeros(first);
+			final int secondElement = Integer.numberOfTrailingZeros(second);
+			if(firstElement != secondElement) {
+				return firstElement < secondElement;
+			}
+			first &= first - 1;
+			second &= second - 1;
+		}
+		return false;
+	}
+
+	private int binomial(final int n, final int k) {
+		long result = 1;
+		for(int i = 1; i <= k; ++i) {
+			result = result * (n - k + i) / i;
+		}
+		return (int)result;
+	}
+}
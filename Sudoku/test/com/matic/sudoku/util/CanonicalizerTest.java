@@ -0,0 +1,290 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.matic.sudoku.generator.FilledBoardGenerator;
+import com.matic.sudoku.solver.CancellationToken;
+
+/**
+ * Unit tests for the Canonicalizer class.
+ * @author vedran
+ *
+ */
+public class CanonicalizerTest {
+
+	private static final int DIMENSION = 3;
+	private static final int UNIT = DIMENSION * DIMENSION;
+
+	private Canonicalizer unitUnderTest;
+	private Random random;
+
+	private int[] solution;
+	private int[] puzzle;
+
+	@Before
+	public void setup() {
+		unitUnderTest = new Canonicalizer(DIMENSION);
+		random = new Random(42);
+
+		final String puzzleString = "800000000003600000070090200050007000000045700000100030001000068008500010090000400";
+		final String solutionString = "812753649943682175675491283154237896369845721287169534521974368438526917796318452";
+		puzzle = new int[puzzleString.length()];
+		solution = new int[solutionString.length()];
+		for(int i = 0; i < puzzle.length; ++i) {
+			puzzle[i] = puzzleString.charAt(i) - '0';
+			solution[i] = solutionString.charAt(i) - '0';
+		}
+	}
+
+	/**
+	 * Test equivalent puzzles have the same canonical form.
+	 */
+	@Test
+	public void testInvariance() {
+		final int[] canonicalPuzzle = unitUnderTest.canonicalize(puzzle);
+		final int[] canonicalSolution = unitUnderTest.canonicalize(solution);
+
+		for(int i = 0; i < 50; ++i) {
+			assertArrayEquals(canonicalPuzzle, unitUnderTest.canonicalize(transform(puzzle, DIMENSION)));
+			assertArrayEquals(canonicalSolution, unitUnderTest.canonicalize(transform(solution, DIMENSION)));
+		}
+	}
+
+	/**
+	 * Test the canonical form is itself an equivalent puzzle, and it's own canonical form.
+	 */
+	@Test
+	public void testCanonicalFormIsEquivalent() {
+		final int[] canonicalPuzzle = unitUnderTest.canonicalize(puzzle);
+		assertEquals(countGivens(puzzle), countGivens(canonicalPuzzle));
+		assertArrayEquals(canonicalPuzzle, unitUnderTest.canonicalize(canonicalPuzzle));
+
+		//Canonical forms start with the smallest row, givens being relabelled in order of appearance
+		final int[] canonicalSolution = unitUnderTest.canonicalize(solution);
+		for(int i = 0; i < UNIT; ++i) {
+			assertEquals(i + 1, canonicalSolution[i]);
+		}
+	}
+
+	/**
+	 * Test puzzles that aren't equivalent have different canonical forms.
+	 */
+	@Test
+	public void testDifferentPuzzles() {
+		final int[] otherPuzzle = puzzle.clone();
+		//Adding a given from the solution results in a different puzzle
+		otherPuzzle[1] = solution[1];
+		assertFalse(unitUnderTest.isEquivalent(puzzle, otherPuzzle));
+		assertTrue(unitUnderTest.isEquivalent(puzzle, transform(puzzle, DIMENSION)));
+	}
+
+	/**
+	 * Test the invariance holds for bigger puzzles too.
+	 */
+	@Test
+	public void testInvarianceBigPuzzle() {
+		final int dimension = 4;
+		final int unit = dimension * dimension;
+		final Canonicalizer canonicalizer = new Canonicalizer(dimension);
+
+		//A pattern based solution with some of the cells cleared
+		final int[] bigPuzzle = new int[unit * unit];
+		for(int row = 0; row < unit; ++row) {
+			for(int col = 0; col < unit; ++col) {
+				final int value = (dimension * (row % dimension) + row / dimension + col) % unit + 1;
+				bigPuzzle[row * unit + col] = random.nextInt(3) == 0? value : 0;
+			}
+		}
+		final int[] canonicalPuzzle = canonicalizer.canonicalize(bigPuzzle);
+		for(int i = 0; i < 10; ++i) {
+			assertArrayEquals(canonicalPuzzle, canonicalizer.canonicalize(transform(bigPuzzle, dimension)));
+		}
+	}
+
+	/**
+	 * Test a full 16x16 grid, where all columns stay interchangeable after the first row.
+	 */
+	@Test
+	public void testInvarianceFullBigGrid() {
+		final int dimension = 4;
+		final int unit = dimension * dimension;
+		final Canonicalizer canonicalizer = new Canonicalizer(dimension);
+		final int[] bigGrid = new FilledBoardGenerator(dimension).generate(new SplittableRandom(16),
+				CancellationToken.NONE);
+
+		final int[] canonicalGrid = canonicalizer.canonicalize(bigGrid);
+		for(int i = 0; i < unit; ++i) {
+			assertEquals(i + 1, canonicalGrid[i]);
+		}
+		for(int i = 0; i < 5; ++i) {
+			assertArrayEquals(canonicalGrid, canonicalizer.canonicalize(transform(bigGrid, dimension)));
+		}
+	}
+
+	/**
+	 * Test the canonical forms of 4x4 puzzles are the smallest of all their transformations.
+	 */
+	@Test
+	public void testSmallestOfAllTransformations() {
+		final int dimension = 2;
+		final Canonicalizer canonicalizer = new Canonicalizer(dimension);
+		final SplittableRandom gridRandom = new SplittableRandom(4);
+
+		for(int i = 0; i < 200; ++i) {
+			final int[] smallPuzzle = new FilledBoardGenerator(dimension).generate(gridRandom, CancellationToken.NONE);
+			final int givens = random.nextInt(smallPuzzle.length + 1);
+			for(int j = 0; j < smallPuzzle.length; ++j) {
+				if(random.nextInt(smallPuzzle.length) >= givens) {
+					smallPuzzle[j] = 0;
+				}
+			}
+			assertArrayEquals(findSmallestTransformation(smallPuzzle), canonicalizer.canonicalize(smallPuzzle));
+		}
+	}
+
+	/**
+	 * Test invalid puzzles are rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConflictingGivens() {
+		final int[] invalidPuzzle = puzzle.clone();
+		invalidPuzzle[1] = puzzle[0];
+		unitUnderTest.canonicalize(invalidPuzzle);
+	}
+
+	private int countGivens(final int[] puzzle) {
+		int givens = 0;
+		for(final int value : puzzle) {
+			if(value != 0) {
+				++givens;
+			}
+		}
+		return givens;
+	}
+
+	/*
+	 * Try all transformations of a 4x4 puzzle, with digits relabelled in order of appearance
+	 */
+	private int[] findSmallestTransformation(final int[] puzzle) {
+		final int unit = 4;
+		int[] smallest = null;
+		for(int transformation = 0; transformation < 128; ++transformation) {
+			final int[] rows = getSmallLines(transformation & 7);
+			final int[] cols = getSmallLines(transformation >> 3 & 7);
+			final boolean transpose = transformation >> 6 != 0;
+			final int[] digits = new int[unit + 1];
+			int nextDigit = 1;
+
+			final int[] result = new int[unit * unit];
+			for(int i = 0; i < result.length; ++i) {
+				final int row = rows[i / unit];
+				final int col = cols[i % unit];
+				final int value = transpose? puzzle[col * unit + row] : puzzle[row * unit + col];
+				if(value != 0 && digits[value] == 0) {
+					digits[value] = nextDigit++;
+				}
+				result[i] = digits[value];
+			}
+			if(smallest == null || compare(result, smallest) < 0) {
+				smallest = result;
+			}
+		}
+		return smallest;
+	}
+
+	//Lines of a 4x4 puzzle, bands and lines within them swapped as given by the bits
+	private int[] getSmallLines(final int bits) {
+		final int[] lines = new int[4];
+		for(int line = 0; line < lines.length; ++line) {
+			final int band = line / 2 ^ (bits & 1);
+			lines[line] = band * 2 + (line % 2 ^ (bits >> (1 + line / 2) & 1));
+		}
+		return lines;
+	}
+
+	private int compare(final int[] first, final int[] second) {
+		for(int i = 0; i < first.length; ++i) {
+			if(first[i] != second[i]) {
+				return first[i] < second[i]? -1 : 1;
+			}
+		}
+		return 0;
+	}
+
+	/*
+	 * Apply a random transformation that results in an equivalent puzzle
+	 */
+	private int[] transform(final int[] puzzle, final int dimension) {
+		final int unit = dimension * dimension;
+		final int[] rows = permuteLines(dimension);
+		final int[] cols = permuteLines(dimension);
+		final int[] digits = shuffle(unit + 1, 1);
+		final boolean transpose = random.nextBoolean();
+
+		final int[] result = new int[unit * unit];
+		for(int row = 0; row < unit; ++row) {
+			for(int col = 0; col < unit; ++col) {
+				final int value = puzzle[rows[row] * unit + cols[col]];
+				final int index = transpose? col * unit + row : row * unit + col;
+				result[index] = digits[value];
+			}
+		}
+		return result;
+	}
+
+	private int[] permuteLines(final int dimension) {
+		final int[] bands = shuffle(dimension, 0);
+		final int[] lines = new int[dimension * dimension];
+		for(int band = 0; band < dimension; ++band) {
+			final int[] bandLines = shuffle(dimension, 0);
+			for(int i = 0; i < dimension; ++i) {
+				lines[band * dimension + i] = bands[band] * dimension + bandLines[i];
+			}
+		}
+		return lines;
+	}
+
+	//Shuffle the values from first to size - 1, leaving the ones below first in place
+	private int[] shuffle(final int size, final int first) {
+		final int[] values = new int[size];
+		for(int i = 0; i < size; ++i) {
+			values[i] = i;
+		}
+		for(int i = size - 1; i > first; --i) {
+			final int j = first + random.nextInt(i - first + 1);
+			final int value = values[i];
+			values[i] = values[j];
+			values[j] = value;
+		}
+		return values;
+	}
+}
@@ -0,0 +1,86 @@
+/*
+* This file is part of SuDonkey, an open-source Sudoku puzzle game generator and solver.
+* Copyright (C) 2015 Vedran Matic
+*
+* This program is free software; you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation; either version 2 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program; if not, write to the Free Software
+* Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+*
+*/
+
+package com.matic.sudoku.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the Peers class.
+ * @author vedran
+ *
+ */
+public class PeersTest {
+
+	/**
+	 * Test each cell's peers are exactly the other cells of it's row, column and box.
+	 */
+	@Test
+	public void testPeers() {
+		for(int dimension = 2; dimension <= 5; ++dimension) {
+			final int unit = dimension * dimension;
+			final int[][] peers = Peers.getPeers(dimension);
+			assertEquals(unit * unit, peers.length);
+
+			for(int cell = 0; cell < peers.length; ++cell) {
+				assertEquals(Peers.getPeerCount(dimension), peers[cell].length);
+
+				final Set<Integer> peerSet = new HashSet<>();
+				for(final int peer : peers[cell]) {
+					assertTrue(peerSet.add(peer));
+				}
+				for(int other = 0; other < peers.length; ++other) {
+					final boolean sameRow = other / unit == cell / unit;
+					final boolean sameColumn = other % unit == cell % unit;
+					final boolean sameBox = other / unit / dimension == cell / unit / dimension &&
+							other % unit / dimension == cell % unit / dimension;
+					assertEquals(other != cell && (sameRow || sameColumn || sameBox), peerSet.contains(other));
+				}
+			}
+		}
+		assertEquals(20, Peers.getPeerCount(3));
+		assertEquals(39, Peers.getPeerCount(4));
+	}
+
+	/**
+	 * Test conflicts are found in the row, the column and the box of a cell.
+	 */
+	@Test
+	public void testHasConflict() {
+		final int[] puzzle = new int[81];
+		//Row 0 holds a 5, column 4 a 6 and the middle top box a 7
+		puzzle[8] = 5;
+		puzzle[76] = 6;
+		puzzle[23] = 7;
+
+		assertTrue(Peers.hasConflict(puzzle, 3, 4, 5));
+		assertTrue(Peers.hasConflict(puzzle, 3, 4, 6));
+		assertTrue(Peers.hasConflict(puzzle, 3, 4, 7));
+		assertFalse(Peers.hasConflict(puzzle, 3, 4, 8));
+		assertFalse(Peers.hasConflict(puzzle, 3, 36, 7));
+	}
+}